@@ -0,0 +1,276 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event store keeping events in parallel primitive columns instead of Event objects: the time stamp in
+ * nanoseconds since the epoch, the EventType ordinal, the two values, and ids into a table of interned
+ * routine, exercise and text strings. Events are only rebuilt as Event objects when asked for; scan
+ * reads the columns directly through an EventCursor.
+ * Time stamps are kept non-decreasing (an event appended with an earlier stamp than the previous one is
+ * stamped with the previous one's time) so time ranges can be found by binary search.
+ * Positions are also indexed by routine, exercise and event kind as they are appended, so a query only
+ * visits the events in its most selective index.
+ */
+public class ColumnarEventStore implements EventStore {
+    /** string id used for a null routine, exercise or text */
+    public static final int NO_STRING = -1;
+    private static final int INITIAL_SIZE = 64;
+
+    private EventColumns columns;
+    private int size;
+    private int stringCount;
+    private final Map<String, Integer> stringIds;
+    private final Map<Integer, IntList> routineIndex;
+    private final Map<Integer, IntList> exerciseIndex;
+    private final IntList[] typeIndex;
+
+    /*
+    EFFECTS: constructs an empty store
+     */
+    public ColumnarEventStore() {
+        stringIds = new HashMap<>();
+        routineIndex = new HashMap<>();
+        exerciseIndex = new HashMap<>();
+        typeIndex = new IntList[EventType.values().length];
+        reset();
+    }
+
+    @Override
+    public synchronized void append(Event e) {
+        if (size == columns.times.length) {
+            columns = columns.withMoreEvents();
+        }
+        long time = e.getTimeNanos();
+        columns.times[size] = size > 0 ? Math.max(time, columns.times[size - 1]) : time;
+        columns.types[size] = (byte) e.getType().ordinal();
+        columns.routines[size] = intern(e.getRoutine());
+        columns.exercises[size] = intern(e.getExercise());
+        columns.texts[size] = intern(e.getText());
+        columns.oldValues[size] = e.getOldValue();
+        columns.newValues[size] = e.getNewValue();
+        index(size);
+        size++;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized int drainTo(Collection<? super Event> target) {
+        int drained = size;
+        for (int i = 0; i < size; i++) {
+            target.add(columns.event(i));
+        }
+        reset();
+        return drained;
+    }
+
+    @Override
+    public synchronized void clear() {
+        reset();
+    }
+
+    @Override
+    public List<Event> between(long fromNanos, long toNanos) {
+        List<Event> found = new ArrayList<>();
+        EventCursor cursor = scan(fromNanos, toNanos);
+        while (cursor.next()) {
+            found.add(cursor.toEvent());
+        }
+        return found;
+    }
+
+    /*
+    EFFECTS: returns events meeting every criterion of query; only the positions in the smallest of the
+             matching routine, exercise and kind indexes are checked, starting from the first one in the
+             time range
+     */
+    @Override
+    public synchronized List<Event> query(EventQuery query) {
+        List<Event> found = new ArrayList<>();
+        int from = firstAtOrAfter(query.getFromNanos());
+        int to = query.getToNanos() == Long.MAX_VALUE ? size : firstAtOrAfter(query.getToNanos() + 1);
+        IntList positions = candidates(query);
+        if (positions == null) {
+            for (int i = from; i < to; i++) {
+                found.add(columns.event(i));
+            }
+            return found;
+        }
+        int routineId = idOf(query.getRoutine());
+        int exerciseId = idOf(query.getExercise());
+        for (int k = positions.lowerBound(from); k < positions.size() && positions.get(k) < to; k++) {
+            int i = positions.get(k);
+            if (matchesAt(i, query, routineId, exerciseId)) {
+                found.add(columns.event(i));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Iterator<Event> iterator() {
+        return between(Long.MIN_VALUE, Long.MAX_VALUE).iterator();
+    }
+
+    /*
+    EFFECTS: returns a cursor over every event in the store, oldest first
+     */
+    public EventCursor scan() {
+        return scan(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /*
+    EFFECTS: returns a cursor over the events logged between fromNanos and toNanos inclusive, oldest first;
+             the range is found by binary search and events appended later are not visited
+     */
+    public synchronized EventCursor scan(long fromNanos, long toNanos) {
+        int from = firstAtOrAfter(fromNanos);
+        int to = toNanos == Long.MAX_VALUE ? size : firstAtOrAfter(toNanos + 1);
+        return new EventCursor(columns, from, Math.max(from, to));
+    }
+
+    /*
+    EFFECTS: returns the id of the interned string s, or NO_STRING if s has never been stored
+     */
+    public synchronized int idOf(String s) {
+        Integer id = s == null ? null : stringIds.get(s);
+        return id == null ? NO_STRING : id;
+    }
+
+    /*
+    EFFECTS: returns the interned string with the given id, or null for NO_STRING
+     */
+    public synchronized String stringFor(int id) {
+        return columns.string(id);
+    }
+
+    /*
+    EFFECTS: returns the shortest index list for the criteria query sets, an empty list if one of them
+             matches no event, or null if query sets none of them
+     */
+    private IntList candidates(EventQuery query) {
+        IntList smallest = null;
+        if (query.getRoutine() != null) {
+            smallest = shorter(smallest, routineIndex.get(idOf(query.getRoutine())));
+        }
+        if (query.getExercise() != null) {
+            smallest = shorter(smallest, exerciseIndex.get(idOf(query.getExercise())));
+        }
+        if (query.getType() != null) {
+            smallest = shorter(smallest, typeIndex[query.getType().ordinal()]);
+        }
+        return smallest;
+    }
+
+    /*
+    EFFECTS: returns the shorter of current and next, treating a missing next as an empty list
+     */
+    private IntList shorter(IntList current, IntList next) {
+        if (next == null) {
+            return new IntList();
+        }
+        return current == null || next.size() < current.size() ? next : current;
+    }
+
+    /*
+    EFFECTS: returns true if the event at position i has the routine, exercise and kind query asks for,
+             given the ids of query's routine and exercise names
+     */
+    private boolean matchesAt(int i, EventQuery query, int routineId, int exerciseId) {
+        return (query.getRoutine() == null || columns.routines[i] == routineId)
+                && (query.getExercise() == null || columns.exercises[i] == exerciseId)
+                && (query.getType() == null || columns.types[i] == query.getType().ordinal());
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: adds position i to the routine, exercise and kind indexes
+     */
+    private void index(int i) {
+        if (columns.routines[i] != NO_STRING) {
+            indexList(routineIndex, columns.routines[i]).add(i);
+        }
+        if (columns.exercises[i] != NO_STRING) {
+            indexList(exerciseIndex, columns.exercises[i]).add(i);
+        }
+        int type = columns.types[i];
+        if (typeIndex[type] == null) {
+            typeIndex[type] = new IntList();
+        }
+        typeIndex[type].add(i);
+    }
+
+    /*
+    MODIFIES: index
+    EFFECTS: returns the list of positions for id in index, creating it if needed
+     */
+    private IntList indexList(Map<Integer, IntList> index, int id) {
+        IntList positions = index.get(id);
+        if (positions == null) {
+            positions = new IntList();
+            index.put(id, positions);
+        }
+        return positions;
+    }
+
+    /*
+    EFFECTS: returns position of the first event logged at or after timeNanos, or size if there is none
+     */
+    private int firstAtOrAfter(long timeNanos) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (columns.times[mid] < timeNanos) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: returns the id of s, adding it to the string table if it is new; NO_STRING for null
+     */
+    private int intern(String s) {
+        if (s == null) {
+            return NO_STRING;
+        }
+        Integer id = stringIds.get(s);
+        if (id == null) {
+            if (stringCount == columns.strings.length) {
+                columns = columns.withMoreStrings();
+            }
+            id = stringCount;
+            columns.strings[stringCount++] = s;
+            stringIds.put(s, id);
+        }
+        return id;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: empties the columns and the string table
+     */
+    private void reset() {
+        columns = new EventColumns(INITIAL_SIZE);
+        size = 0;
+        stringCount = 0;
+        stringIds.clear();
+        routineIndex.clear();
+        exerciseIndex.clear();
+        Arrays.fill(typeIndex, null);
+    }
+}
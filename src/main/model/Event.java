@@ -1,25 +1,120 @@
 package model;
 
-import java.util.Calendar;
 import java.util.Date;
+import java.util.Objects;
 
 /**
  * Represents a Workout Tracker event.
+ * An event stores its kind and a small payload; the human-readable description
+ * is only rendered from the kind's template when it is asked for.
  * Inspired by AlarmSystem
  */
 public class Event {
     private static final int HASH_CONSTANT = 13;
-    private Date dateLogged;
+    private final long timeLogged;
+    private final EventType type;
+    private final String routine;
+    private final String exercise;
+    private final String text;
+    private final int oldValue;
+    private final int newValue;
     private String description;
+    private Object source;
 
     /**
-     * Creates an event with the given description
+     * Creates a free-form event with the given description
      * and the current date/time stamp.
      * @param description  a description of the event
      */
     public Event(String description) {
-        dateLogged = Calendar.getInstance().getTime();
-        this.description = description;
+        this(EventType.MESSAGE, null, null, description, 0, 0);
+    }
+
+    /**
+     * Creates an event of the given kind that carries no payload.
+     * @param type  the kind of event
+     */
+    public Event(EventType type) {
+        this(type, null, null, null, 0, 0);
+    }
+
+    /**
+     * Creates an event about an exercise within a routine.
+     * @param type      the kind of event
+     * @param routine   name of the routine involved
+     * @param exercise  name of the exercise involved
+     */
+    public Event(EventType type, String routine, String exercise) {
+        this(type, routine, exercise, null, 0, 0);
+    }
+
+    /**
+     * Creates an event recording a value of an exercise changing.
+     * @param type      the kind of event
+     * @param exercise  name of the exercise changed
+     * @param oldValue  value before the change
+     * @param newValue  value after the change
+     */
+    public Event(EventType type, String exercise, int oldValue, int newValue) {
+        this(type, null, exercise, null, oldValue, newValue);
+    }
+
+    /**
+     * Creates an event with the given kind and payload
+     * and the current date/time stamp.
+     * @param type      the kind of event
+     * @param routine   name of the routine involved, or null
+     * @param exercise  name of the exercise involved, or null
+     * @param text      any other text the description needs, or null
+     * @param oldValue  value before a change
+     * @param newValue  value after a change
+     */
+    public Event(EventType type, String routine, String exercise, String text, int oldValue, int newValue) {
+        this(EventClock.nowNanos(), type, routine, exercise, text, oldValue, newValue);
+    }
+
+    /**
+     * Creates an event recording one set completed in a routine. The set has no old and new value, so its reps
+     * are kept as the new value and its weight as the old value; read them back with getReps and getWeight.
+     * @param routine   name of the routine the set was done in
+     * @param exercise  name of the exercise the set was of
+     * @param reps      reps done in the set
+     * @param weight    weight the set was done at
+     * @return  the event
+     */
+    public static Event setCompleted(String routine, String exercise, int reps, int weight) {
+        return new Event(EventType.SET_COMPLETED, routine, exercise, null, weight, reps);
+    }
+
+    /*
+    EFFECTS: creates an event with the given kind, payload and time stamp in nanoseconds since the epoch;
+             used to rebuild events kept in another form
+     */
+    Event(long timeLogged, EventType type, String routine, String exercise, String text, int oldValue, int newValue) {
+        this.timeLogged = timeLogged;
+        this.type = type;
+        this.routine = routine;
+        this.exercise = exercise;
+        this.text = text;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: records the object that logged this event, such as the routine it is about, and returns this
+     */
+    Event from(Object source) {
+        this.source = source;
+        return this;
+    }
+
+    /**
+     * Gets the object that logged this event, so sinks can tell apart routines that share a name.
+     * @return  the object that logged the event, or null if it was not recorded
+     */
+    public Object getSource() {
+        return source;
     }
 
     /**
@@ -27,17 +122,132 @@ public class Event {
      * @return  the date of the event
      */
     public Date getDate() {
-        return dateLogged;
+        return new Date(EventClock.toMillis(timeLogged));
     }
 
     /**
-     * Gets the description of this event.
+     * Gets the description of this event, rendering it on first use.
      * @return  the description of the event
      */
     public String getDescription() {
+        if (description == null) {
+            description = render(type.getTemplate());
+        }
         return description;
     }
 
+    /*
+    EFFECTS: returns template with every {placeholder} replaced by the matching payload value
+     */
+    private String render(String template) {
+        StringBuilder rendered = new StringBuilder(template.length() + 32);
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            int close = c == '{' ? template.indexOf('}', i) : -1;
+            if (close < 0) {
+                rendered.append(c);
+                i++;
+            } else {
+                rendered.append(placeholderValue(template.substring(i + 1, close)));
+                i = close + 1;
+            }
+        }
+        return rendered.toString();
+    }
+
+    /*
+    EFFECTS: returns the payload value named by placeholder
+     */
+    private Object placeholderValue(String placeholder) {
+        switch (placeholder) {
+            case "routine":
+                return routine;
+            case "exercise":
+                return exercise;
+            case "text":
+                return text;
+            case "old":
+                return oldValue;
+            case "new":
+                return newValue;
+            case "oldEquipment":
+                return equipmentOf(oldValue);
+            case "newEquipment":
+                return equipmentOf(newValue);
+            default:
+                return "{" + placeholder + "}";
+        }
+    }
+
+    /*
+    EFFECTS: returns the equipment with the given ordinal, or null if there is none
+     */
+    private static Equipment equipmentOf(int ordinal) {
+        return ordinal >= 0 && ordinal < Equipment.values().length ? Equipment.values()[ordinal] : null;
+    }
+
+    /**
+     * Gets the time of this event.
+     * @return  nanoseconds since the epoch at which the event was logged
+     */
+    public long getTimeNanos() {
+        return timeLogged;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    public String getRoutine() {
+        return routine;
+    }
+
+    public String getExercise() {
+        return exercise;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getOldValue() {
+        return oldValue;
+    }
+
+    public int getNewValue() {
+        return newValue;
+    }
+
+    /**
+     * Gets the reps done in a completed set.
+     * @return  the reps, kept as the new value of a SET_COMPLETED event
+     * @throws IllegalStateException if this is not a SET_COMPLETED event
+     */
+    public int getReps() {
+        requireSetCompleted();
+        return newValue;
+    }
+
+    /**
+     * Gets the weight a completed set was done at.
+     * @return  the weight, kept as the old value of a SET_COMPLETED event
+     * @throws IllegalStateException if this is not a SET_COMPLETED event
+     */
+    public int getWeight() {
+        requireSetCompleted();
+        return oldValue;
+    }
+
+    /*
+    EFFECTS: throws IllegalStateException if this is not a SET_COMPLETED event
+     */
+    private void requireSetCompleted() {
+        if (type != EventType.SET_COMPLETED) {
+            throw new IllegalStateException(type + " event has no set");
+        }
+    }
+
     @Override
     public boolean equals(Object other) {
         if (other == null) {
@@ -50,17 +260,23 @@ public class Event {
 
         Event otherEvent = (Event) other;
 
-        return (this.dateLogged.equals(otherEvent.dateLogged)
-                && this.description.equals(otherEvent.description));
+        return (this.timeLogged == otherEvent.timeLogged
+                && this.type == otherEvent.type
+                && Objects.equals(this.routine, otherEvent.routine)
+                && Objects.equals(this.exercise, otherEvent.exercise)
+                && Objects.equals(this.text, otherEvent.text)
+                && this.oldValue == otherEvent.oldValue
+                && this.newValue == otherEvent.newValue);
     }
 
     @Override
     public int hashCode() {
-        return (HASH_CONSTANT * dateLogged.hashCode() + description.hashCode());
+        return (HASH_CONSTANT * Long.hashCode(timeLogged)
+                + Objects.hash(type, routine, exercise, text, oldValue, newValue));
     }
 
     @Override
     public String toString() {
-        return dateLogged.toString() + "\n" + description;
+        return getDate().toString() + "\n" + getDescription();
     }
 }
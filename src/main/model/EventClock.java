@@ -0,0 +1,29 @@
+package model;
+
+/**
+ * Source of event timestamps in nanoseconds since the epoch.
+ * Anchored to the wall clock once and advanced with System.nanoTime, so stamps are monotonic
+ * within a run and taking one does not allocate.
+ */
+final class EventClock {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long EPOCH_NANOS_AT_START = System.currentTimeMillis() * NANOS_PER_MILLI;
+    private static final long NANO_TIME_AT_START = System.nanoTime();
+
+    private EventClock() {
+    }
+
+    /*
+    EFFECTS: returns the current time in nanoseconds since the epoch
+     */
+    static long nowNanos() {
+        return EPOCH_NANOS_AT_START + (System.nanoTime() - NANO_TIME_AT_START);
+    }
+
+    /*
+    EFFECTS: converts nanoseconds since the epoch to milliseconds since the epoch
+     */
+    static long toMillis(long epochNanos) {
+        return epochNanos / NANOS_PER_MILLI;
+    }
+}
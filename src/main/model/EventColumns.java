@@ -0,0 +1,81 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The parallel primitive arrays backing a ColumnarEventStore, plus its table of interned strings.
+ * Growing returns a new EventColumns holding longer copies, and slots that have been written are never
+ * rewritten, so a reader holding an EventColumns can read any position that existed when it was handed out.
+ */
+final class EventColumns {
+    private static final EventType[] TYPES = EventType.values();
+
+    final long[] times;
+    final byte[] types;
+    final int[] routines;
+    final int[] exercises;
+    final int[] texts;
+    final int[] oldValues;
+    final int[] newValues;
+    final String[] strings;
+
+    /*
+    EFFECTS: constructs columns with room for length events and length strings
+     */
+    EventColumns(int length) {
+        this(new long[length], new byte[length], new int[length], new int[length], new int[length],
+                new int[length], new int[length], new String[length]);
+    }
+
+    private EventColumns(long[] times, byte[] types, int[] routines, int[] exercises, int[] texts,
+                         int[] oldValues, int[] newValues, String[] strings) {
+        this.times = times;
+        this.types = types;
+        this.routines = routines;
+        this.exercises = exercises;
+        this.texts = texts;
+        this.oldValues = oldValues;
+        this.newValues = newValues;
+        this.strings = strings;
+    }
+
+    /*
+    EFFECTS: returns a copy of these columns with every event column twice as long, sharing the string table
+     */
+    EventColumns withMoreEvents() {
+        int length = times.length * 2;
+        return new EventColumns(Arrays.copyOf(times, length), Arrays.copyOf(types, length),
+                Arrays.copyOf(routines, length), Arrays.copyOf(exercises, length), Arrays.copyOf(texts, length),
+                Arrays.copyOf(oldValues, length), Arrays.copyOf(newValues, length), strings);
+    }
+
+    /*
+    EFFECTS: returns these columns with a string table twice as long, sharing the event columns
+     */
+    EventColumns withMoreStrings() {
+        return new EventColumns(times, types, routines, exercises, texts, oldValues, newValues,
+                Arrays.copyOf(strings, strings.length * 2));
+    }
+
+    /*
+    EFFECTS: returns the string with the given id, or null for ColumnarEventStore.NO_STRING
+     */
+    String string(int id) {
+        return id == ColumnarEventStore.NO_STRING ? null : strings[id];
+    }
+
+    /*
+    EFFECTS: returns the event type stored at position i
+     */
+    EventType type(int i) {
+        return TYPES[types[i]];
+    }
+
+    /*
+    EFFECTS: rebuilds the event stored at position i as an Event object
+     */
+    Event event(int i) {
+        return new Event(times[i], type(i), string(routines[i]), string(exercises[i]), string(texts[i]),
+                oldValues[i], newValues[i]);
+    }
+}
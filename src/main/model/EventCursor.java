@@ -0,0 +1,85 @@
+package model;
+
+/**
+ * Forward-only cursor over a range of a ColumnarEventStore that reads the columns directly, so visiting
+ * an event allocates nothing unless toEvent is called. Call next() before reading the first event.
+ * The range is fixed when the cursor is created; events appended afterwards are not visited.
+ */
+public class EventCursor {
+    private final EventColumns columns;
+    private final int end;
+    private int position;
+
+    /*
+    REQUIRES: 0 <= from <= to <= number of events in columns
+    EFFECTS: constructs cursor over positions [from, to) of columns
+     */
+    EventCursor(EventColumns columns, int from, int to) {
+        this.columns = columns;
+        this.position = from - 1;
+        this.end = to;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: moves to the next event and returns true, or returns false if there are none left
+     */
+    public boolean next() {
+        if (position + 1 >= end) {
+            position = end;
+            return false;
+        }
+        position++;
+        return true;
+    }
+
+    /*
+    EFFECTS: returns the number of events left after the current one
+     */
+    public int remaining() {
+        return Math.max(0, end - position - 1);
+    }
+
+    public long getTimeNanos() {
+        return columns.times[position];
+    }
+
+    public EventType getType() {
+        return columns.type(position);
+    }
+
+    public int getRoutineId() {
+        return columns.routines[position];
+    }
+
+    public String getRoutine() {
+        return columns.string(columns.routines[position]);
+    }
+
+    public int getExerciseId() {
+        return columns.exercises[position];
+    }
+
+    public String getExercise() {
+        return columns.string(columns.exercises[position]);
+    }
+
+    public String getText() {
+        return columns.string(columns.texts[position]);
+    }
+
+    public int getOldValue() {
+        return columns.oldValues[position];
+    }
+
+    public int getNewValue() {
+        return columns.newValues[position];
+    }
+
+    /*
+    EFFECTS: returns the current event as a new Event object
+     */
+    public Event toEvent() {
+        return columns.event(position);
+    }
+}
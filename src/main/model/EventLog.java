@@ -3,25 +3,45 @@ package model;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a log of workout tracker events.
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ * Events are held by a pluggable EventStore: by default a RingBufferEventStore,
+ * which is unbounded unless given a capacity and OverflowPolicy, or a
+ * ColumnarEventStore for long-running logs, or a ThreadLocalEventStore when
+ * many threads log at once.
+ * Every logged event is also handed to the registered EventSinks, on the
+ * thread that logged it.
  * Inspired by AlarmSystem
  */
 public class EventLog implements Iterable<Event> {
-    /** the only EventLog in the system (Singleton Design Pattern) */
-    private static EventLog theLog;
-    private Collection<Event> events;
+    /** capacity value meaning the log grows without limit */
+    public static final int UNBOUNDED = RingBufferEventStore.UNBOUNDED;
+
+    private volatile EventStore store;
+    private final List<EventSink> sinks;
 
     /**
      * Prevent external construction.
      * (Singleton Design Pattern).
      */
     private EventLog() {
-        events = new ArrayList<>();
+        store = new RingBufferEventStore();
+        sinks = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Holds the only EventLog in the system (Singleton Design Pattern).
+     * The class is only initialized on first use, and class initialization
+     * publishes the log safely to every thread without locking on each call.
+     */
+    private static final class Holder {
+        private static final EventLog THE_LOG = new EventLog();
     }
 
     /**
@@ -31,31 +51,161 @@ public class EventLog implements Iterable<Event> {
      * @return  instance of EventLog
      */
     public static EventLog getInstance() {
-        if (theLog == null) {
-            theLog = new EventLog();
+        return Holder.THE_LOG;
+    }
+
+    /**
+     * Replaces the storage engine, moving every event held so far into the new store.
+     * Events logged by other threads while the store is being replaced may be lost,
+     * so choose the store before logging from several threads.
+     * @param newStore  the store to keep events in from now on
+     */
+    public synchronized void setStore(EventStore newStore) {
+        List<Event> held = new ArrayList<>();
+        store.drainTo(held);
+        for (Event e : held) {
+            newStore.append(e);
+        }
+        store = newStore;
+    }
+
+    public EventStore getStore() {
+        return store;
+    }
+
+    /**
+     * Bounds the log to a fixed number of events, keeping the newest ones.
+     * Events that no longer fit are dropped or spilled according to policy.
+     * Switches back to a ring buffer if another store is in use.
+     * @param capacity  maximum number of events held in memory, or UNBOUNDED
+     * @param policy    what to do when an event is logged into a full log
+     */
+    public synchronized void setCapacity(int capacity, OverflowPolicy policy) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be non-negative: " + capacity);
+        }
+        if (!(store instanceof RingBufferEventStore)) {
+            setStore(new RingBufferEventStore());
         }
+        ringBuffer().setCapacity(capacity, policy);
+    }
 
-        return theLog;
+    /**
+     * Gets the capacity of the log.
+     * @return  maximum number of events held in memory, or UNBOUNDED
+     */
+    public int getCapacity() {
+        return store instanceof RingBufferEventStore ? ringBuffer().getCapacity() : UNBOUNDED;
     }
 
     /**
-     * Adds an event to the event log.
+     * Gets the overflow policy of the log.
+     * @return  the overflow policy, or null if the log is not a ring buffer
+     */
+    public OverflowPolicy getPolicy() {
+        return store instanceof RingBufferEventStore ? ringBuffer().getPolicy() : null;
+    }
+
+    /**
+     * Sets the file that evicted events are appended to under SPILL_TO_DISK.
+     * Has no effect unless the log is a ring buffer.
+     * @param spillFile  path of the spill file
+     */
+    public void setSpillFile(String spillFile) {
+        if (store instanceof RingBufferEventStore) {
+            ringBuffer().setSpillFile(spillFile);
+        }
+    }
+
+    /**
+     * Registers a sink that receives every event logged from now on.
+     * @param sink  the sink to add
+     */
+    public void addSink(EventSink sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * Stops sending events to the given sink.
+     * @param sink  the sink to remove
+     */
+    public void removeSink(EventSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Gets the number of events currently held in memory.
+     * @return  number of events in the log
+     */
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * Adds an event to the event log. If a bounded log is full the oldest event is
+     * dropped or spilled to disk, or under BLOCK the caller waits until
+     * drainTo or clear makes room. The event is then passed to every sink.
      * @param e the event to be added
      */
     public void logEvent(Event e) {
-        events.add(e);
+        store.append(e);
+        for (EventSink sink : sinks) {
+            sink.accept(e);
+        }
+    }
+
+    /**
+     * Removes every event from the log, oldest first, and adds them to the given collection.
+     * Wakes up any loggers blocked on a full log.
+     * @param target  collection receiving the events
+     * @return  number of events drained
+     */
+    public int drainTo(Collection<? super Event> target) {
+        return store.drainTo(target);
+    }
+
+    /**
+     * Gets the events logged within a time range.
+     * @param fromNanos  start of the range in nanoseconds since the epoch, inclusive
+     * @param toNanos    end of the range in nanoseconds since the epoch, inclusive
+     * @return  the events in the range, oldest first
+     */
+    public List<Event> between(long fromNanos, long toNanos) {
+        return store.between(fromNanos, toNanos);
+    }
+
+    /**
+     * Looks up events by routine, exercise, kind and time range.
+     * @param query  the criteria events must meet
+     * @return  the matching events, oldest first
+     */
+    public List<Event> query(EventQuery query) {
+        return store.query(query);
     }
 
     /**
      * Clears the event log and logs the event.
      */
     public void clear() {
-        events.clear();
-        logEvent(new Event("Event log cleared."));
+        store.clear();
+        logEvent(new Event(EventType.LOG_CLEARED));
     }
 
+    /**
+     * Iterates over a copy of the log taken when this is called, so logging
+     * while iterating neither fails nor shows up in the iteration.
+     * @return  iterator over a consistent snapshot of the log
+     */
     @Override
     public Iterator<Event> iterator() {
-        return events.iterator();
+        return store.iterator();
+    }
+
+    /*
+    REQUIRES: store is a RingBufferEventStore
+    EFFECTS: returns the store as a ring buffer
+     */
+    private RingBufferEventStore ringBuffer() {
+        return (RingBufferEventStore) store;
     }
 }
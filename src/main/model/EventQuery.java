@@ -0,0 +1,111 @@
+package model;
+
+import java.util.Objects;
+
+/**
+ * Criteria for looking up events in the EventLog: any combination of routine name, exercise name,
+ * event kind and time range. Criteria left unset match every event.
+ * e.g. new EventQuery().exercise("Deadlift").type(EventType.WEIGHT_CHANGED).between(from, to)
+ */
+public class EventQuery {
+    private String routine;
+    private String exercise;
+    private EventType type;
+    private long fromNanos;
+    private long toNanos;
+
+    /*
+    EFFECTS: constructs a query matching every event
+     */
+    public EventQuery() {
+        fromNanos = Long.MIN_VALUE;
+        toNanos = Long.MAX_VALUE;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: restricts query to events about the named routine and returns this
+     */
+    public EventQuery routine(String routine) {
+        this.routine = routine;
+        return this;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: restricts query to events about the named exercise and returns this
+     */
+    public EventQuery exercise(String exercise) {
+        this.exercise = exercise;
+        return this;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: restricts query to events of the given kind and returns this
+     */
+    public EventQuery type(EventType type) {
+        this.type = type;
+        return this;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: restricts query to events logged between fromNanos and toNanos inclusive (nanoseconds since the
+             epoch) and returns this
+     */
+    public EventQuery between(long fromNanos, long toNanos) {
+        this.fromNanos = fromNanos;
+        this.toNanos = toNanos;
+        return this;
+    }
+
+    /*
+    EFFECTS: returns true if e meets every criterion of this query
+     */
+    public boolean matches(Event e) {
+        return (routine == null || routine.equals(e.getRoutine()))
+                && (exercise == null || exercise.equals(e.getExercise()))
+                && (type == null || type == e.getType())
+                && e.getTimeNanos() >= fromNanos
+                && e.getTimeNanos() <= toNanos;
+    }
+
+    public String getRoutine() {
+        return routine;
+    }
+
+    public String getExercise() {
+        return exercise;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    public long getFromNanos() {
+        return fromNanos;
+    }
+
+    public long getToNanos() {
+        return toNanos;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        EventQuery other = (EventQuery) o;
+        return fromNanos == other.fromNanos && toNanos == other.toNanos && Objects.equals(routine, other.routine)
+                && Objects.equals(exercise, other.exercise) && type == other.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(routine, exercise, type, fromNanos, toNanos);
+    }
+}
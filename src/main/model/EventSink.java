@@ -0,0 +1,12 @@
+package model;
+
+/**
+ * Receives every event logged to the EventLog, e.g. to persist it.
+ * Sinks are called on the logging thread, so they must return quickly.
+ */
+public interface EventSink {
+    /*
+    EFFECTS: handles an event that was just logged
+     */
+    void accept(Event e);
+}
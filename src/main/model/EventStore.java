@@ -0,0 +1,51 @@
+package model;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Storage engine behind the EventLog. Implementations keep events in the order they were
+ * appended and must be safe to call from several threads.
+ */
+public interface EventStore extends Iterable<Event> {
+    /*
+    MODIFIES: this
+    EFFECTS: appends event to the store
+     */
+    void append(Event e);
+
+    /*
+    EFFECTS: returns number of events held
+     */
+    int size();
+
+    /*
+    MODIFIES: this, target
+    EFFECTS: removes every event, oldest first, adds them to target and returns how many there were
+     */
+    int drainTo(Collection<? super Event> target);
+
+    /*
+    MODIFIES: this
+    EFFECTS: removes every event
+     */
+    void clear();
+
+    /*
+    EFFECTS: returns the events logged between fromNanos and toNanos (both inclusive, nanoseconds since
+             the epoch), oldest first
+     */
+    List<Event> between(long fromNanos, long toNanos);
+
+    /*
+    EFFECTS: returns the events meeting every criterion of query, oldest first
+     */
+    List<Event> query(EventQuery query);
+
+    /*
+    EFFECTS: returns an iterator over a snapshot of the store, oldest first
+     */
+    @Override
+    Iterator<Event> iterator();
+}
@@ -0,0 +1,41 @@
+package model;
+
+/**
+ * Kinds of Workout Tracker events, each with the template used to render its description.
+ * Placeholders are filled from the event's payload: {routine}, {exercise}, {text}, {old}, {new},
+ * and {oldEquipment}/{newEquipment} for values holding an Equipment ordinal.
+ * Most kinds carry a value changing from old to new; SET_COMPLETED has no such change and overloads the two.
+ */
+public enum EventType {
+    MESSAGE("{text}"),
+    LOG_CLEARED("Event log cleared."),
+    EXERCISE_RENAMED("Changed exercise name from {text} to {exercise}"),
+    SETS_CHANGED("Changed {exercise} sets from {old} to {new}"),
+    REPS_CHANGED("Changed {exercise} reps from {old} to {new}"),
+    WEIGHT_CHANGED("Changed {exercise} weight from {old} to {new}"),
+    EQUIPMENT_CHANGED("Changed {exercise} equipment from {oldEquipment} to {newEquipment}"),
+    EXERCISE_ADDED("{exercise} added to {routine}"),
+    EXERCISE_REMOVED("{exercise} removed from {routine}"),
+    ROUTINE_EDITED("{routine} edited, exercises changed from {old} to {new}"),
+    ROUTINE_RENAMED("Routine name changed from {text} to {routine}"),
+    SESSION_BEGUN("{routine} session initiated with {exercise}"),
+    // the reps done are kept as the new value and the weight as the old value; see Event.setCompleted
+    SET_COMPLETED("One set of {exercise} completed in {routine}"),
+    EXERCISE_COMPLETED("{exercise} completed, {text} begun"),
+    EXERCISE_SKIPPED("{exercise} skipped"),
+    EXERCISE_SELECTED("Moved to {exercise} in {routine}"),
+    ROUTINE_COMPLETED("All exercises in {routine} completed"),
+    SESSION_ENDED("{routine} session terminated"),
+    FILE_READ("Read from file {text}"),
+    FILE_WRITTEN("Wrote to file {text}");
+
+    private final String template;
+
+    EventType(String template) {
+        this.template = template;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+}
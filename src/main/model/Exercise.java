@@ -1,30 +1,47 @@
 package model;
 
-import org.json.JSONObject;
+import persistence.JsonEmitter;
 import persistence.Writeable;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Represents an individual exercise with its name, number of goal sets and reps, the weight it was completed with in
- * lb, the equipment used, and the number of sets actually completed
+ * lb, the equipment used, the number of sets actually completed, and a log of the reps and weight of every set done.
+ * The name and equipment are held as an ExerciseDefinition from the ExerciseCatalog, shared with every other
+ * exercise of the same name and equipment; the exercise itself only holds the plan and progress.
+ * Once the exercise is in a routine, its sets completed are the routine's session progress at the first position
+ * it holds there; the exercise only keeps its own count while it is in no routine.
   */
 public class Exercise implements Writeable {
-    private String name;
+    private ExerciseDefinition definition;
     private int sets;
     private int reps;
     private int weight;
-    private Equipment equipment;
     private int setsCompleted;
+    private final SetLog setLog = new SetLog();
+    private ExerciseSnapshot snapshot;
+    private Routine routine;
+    private final List<ExerciseListener> listeners = new ArrayList<>();
 
     /*
      REQUIRES: equipment must be barbell, dumbbell, machine, or none
      EFFECTS: creates a new exercise with the given name and sets number of sets, reps, and weight to 0
      */
     public Exercise(String name, Equipment equipment) {
-        this.name = name;
+        this(ExerciseCatalog.getInstance().intern(name, equipment));
+    }
+
+    /*
+     EFFECTS: creates a new exercise of definition and sets number of sets, reps, and weight to 0
+     */
+    public Exercise(ExerciseDefinition definition) {
+        this.definition = definition;
         this.sets = 0;
         this.reps = 0;
         this.weight = 0;
-        this.equipment = equipment;
         this.setsCompleted = 0;
     }
 
@@ -34,11 +51,10 @@ public class Exercise implements Writeable {
      EFFECTS: creates a new exercise with the given name, sets, and reps, and sets weight to 0
      */
     public Exercise(String name, Equipment equipment, int sets, int reps) {
-        this.name = name;
+        this.definition = ExerciseCatalog.getInstance().intern(name, equipment);
         this.sets = sets;
         this.reps = reps;
         this.weight = 0;
-        this.equipment = equipment;
         this.setsCompleted = 0;
     }
 
@@ -46,30 +62,38 @@ public class Exercise implements Writeable {
     EFFECTS: returns true if number of sets completed is the same as the goal sets, false otherwise
      */
     public boolean hasMetGoal() {
-        return sets == setsCompleted; // stub
+        return sets == getSetsCompleted();
     }
 
     /*
     EFFECTS: returns a string representation of the exercise.
      */
     public String viewExercise() {
-        return "|   | 0 |"
-                + String.format("%-25s|%-4s|%-4s|%-5s|%-3s|",
-                " " + name,
-                " " + sets,
-                " " + reps,
-                " " + weight,
-                " " + setsCompleted);
+        StringBuilder view = new StringBuilder("|   | 0 |");
+        WorkoutRenderer.appendColumns(view, this, getSetsCompleted());
+        return view.toString();
+    }
+
+    public ExerciseDefinition getDefinition() {
+        return definition;
+    }
+
+    /*
+    EFFECTS: returns the catalog id of this exercise's name and equipment
+     */
+    public int getDefinitionId() {
+        return definition.getId();
     }
 
     public String getName() {
-        return name;
+        return definition.getName();
     }
 
     public void setName(String name) {
-        String prev = this.name;
-        this.name = name;
-        EventLog.getInstance().logEvent(new Event("Changed exercise name from " + prev + " to " + name));
+        String prev = definition.getName();
+        definition = ExerciseCatalog.getInstance().intern(name, definition.getEquipment());
+        log(new Event(EventType.EXERCISE_RENAMED, routineName(), name, prev, 0, 0));
+        fireChanged(ExerciseField.NAME);
     }
 
     public int getSets() {
@@ -82,12 +106,23 @@ public class Exercise implements Writeable {
      EFFECTS: sets the number of sets
      */
     public void setSets(int sets) {
-        String prev = Integer.toString(this.sets);
+        int prev = this.sets;
+        boolean wasMet = hasMetGoal();
+        this.sets = sets;
+        logChange(EventType.SETS_CHANGED, prev, sets);
+        fireChanged(ExerciseField.SETS);
+        fireGoalChanged(wasMet);
+    }
+
+    /*
+    REQUIRES: this is being put in a routine by a RoutineBatch, which reports the change itself
+    MODIFIES: this
+    EFFECTS: sets the goal sets and reps without logging them or telling listeners
+     */
+    void setPlan(int sets, int reps) {
         this.sets = sets;
-        EventLog.getInstance().logEvent(new Event("Changed " + this.name + " sets from "
-                + prev
-                + " to "
-                + sets));
+        this.reps = reps;
+        snapshot = null;
     }
 
     public int getReps() {
@@ -100,12 +135,10 @@ public class Exercise implements Writeable {
     EFFECTS: sets the number of reps
      */
     public void setReps(int reps) {
-        String prev = Integer.toString(this.reps);
+        int prev = this.reps;
         this.reps = reps;
-        EventLog.getInstance().logEvent(new Event("Changed " + this.name + " reps from "
-                + prev
-                + " to "
-                + reps));
+        logChange(EventType.REPS_CHANGED, prev, reps);
+        fireChanged(ExerciseField.REPS);
     }
 
     public int getWeight() {
@@ -118,51 +151,169 @@ public class Exercise implements Writeable {
     EFFECTS: sets the weight
      */
     public void setWeight(int weight) {
-        String prev = Integer.toString(this.weight);
+        int prev = this.weight;
         this.weight = weight;
-        EventLog.getInstance().logEvent(new Event("Changed " + this.name + " weight from "
-                + prev
-                + " to "
-                + weight));
+        logChange(EventType.WEIGHT_CHANGED, prev, weight);
+        fireChanged(ExerciseField.WEIGHT);
     }
 
     public Equipment getEquipment() {
-        return equipment;
+        return definition.getEquipment();
     }
 
     public void setEquipment(Equipment equipment) {
-        Equipment prev = this.equipment;
-        this.equipment = equipment;
-        EventLog.getInstance().logEvent(new Event("Changed " + this.name + " equipment from "
-                + prev
-                + " to "
-                + equipment));
+        int prev = ordinalOf(definition.getEquipment());
+        definition = ExerciseCatalog.getInstance().intern(definition.getName(), equipment);
+        logChange(EventType.EQUIPMENT_CHANGED, prev, ordinalOf(equipment));
+        fireChanged(ExerciseField.EQUIPMENT);
+    }
+
+    /*
+    EFFECTS: logs a change of one of this exercise's values, tagged with the routine it belongs to
+     */
+    private void logChange(EventType type, int prev, int value) {
+        log(new Event(type, routineName(), definition.getName(), null, prev, value));
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: drops the cached snapshots of this exercise and its routine, so a sink snapshotting on e sees the change,
+             then logs e as an event of the routine this exercise belongs to
+     */
+    private void log(Event e) {
+        snapshot = null;
+        if (routine != null) {
+            routine.invalidateSnapshot();
+        }
+        EventLog.getInstance().logEvent(e.from(routine));
+    }
+
+    /*
+    EFFECTS: returns name of the routine this exercise belongs to, or null if it is in none
+     */
+    private String routineName() {
+        return routine == null ? null : routine.getName();
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: records the routine this exercise belongs to, or null once it is removed
+     */
+    void setRoutine(Routine routine) {
+        this.routine = routine;
+    }
+
+    /*
+    EFFECTS: returns ordinal of equipment, or -1 if it is null
+     */
+    private static int ordinalOf(Equipment equipment) {
+        return equipment == null ? -1 : equipment.ordinal();
     }
 
+    /*
+    EFFECTS: returns the sets completed: the routine's session progress at the first position this exercise holds
+             if it is in a routine, otherwise its own count
+     */
     public int getSetsCompleted() {
-        return setsCompleted;
+        return routine == null ? setsCompleted : routine.getProgressOf(this);
     }
 
     /*
     REQUIRES: completed must be non-zero positive integer
     MODIFIES: this
-    EFFECTS: sets the number of sets completed
+    EFFECTS: sets the number of sets completed: the routine's session progress at the first position this exercise
+             holds if it is in a routine, otherwise its own count
      */
     public void setSetsCompleted(int setsCompleted) {
+        if (routine != null) {
+            routine.setProgressOf(this, setsCompleted);
+            return;
+        }
+        boolean wasMet = hasMetGoal();
         this.setsCompleted = setsCompleted;
+        fireChanged(ExerciseField.SETS_COMPLETED);
+        fireGoalChanged(wasMet);
+    }
+
+    /*
+    EFFECTS: tells listeners the goal is met or no longer met if that changed from wasMet; an exercise in a routine
+             leaves that to the routine, which knows the progress at each position
+     */
+    private void fireGoalChanged(boolean wasMet) {
+        if (routine == null && hasMetGoal() != wasMet) {
+            fireChanged(ExerciseField.GOAL_MET);
+        }
+    }
+
+    public SetLog getSetLog() {
+        return setLog;
     }
 
-    @Override
     /*
-    EFFECTS: returns this as a JSON object
+    REQUIRES: reps >= 0
+    MODIFIES: this
+    EFFECTS: records a set of reps done at the current weight, completed now
+     */
+    public void logSet(int reps) {
+        logSet(reps, weight, System.currentTimeMillis());
+    }
+
+    /*
+    REQUIRES: reps >= 0, weight >= 0
+    MODIFIES: this
+    EFFECTS: records a set of reps done at weight, completed at time (milliseconds since the epoch)
      */
-    public JSONObject toJson() {
-        JSONObject json = new JSONObject();
-        json.put("name", name);
-        json.put("sets", sets);
-        json.put("reps", reps);
-        json.put("equipment", equipment);
+    public void logSet(int reps, int weight, long time) {
+        setLog.add(reps, weight, time);
+        snapshot = null;
+        if (routine != null) {
+            routine.invalidateSnapshot();
+        }
+    }
 
-        return json;
+    /*
+    EFFECTS: returns an immutable snapshot of this exercise as it is now; the same snapshot is returned until this
+             exercise changes
+     */
+    public ExerciseSnapshot snapshot() {
+        if (snapshot == null) {
+            snapshot = new ExerciseSnapshot(this);
+        }
+        return snapshot;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: registers listener to be told about every change to this exercise
+     */
+    public void addListener(ExerciseListener listener) {
+        listeners.add(listener);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: stops telling listener about changes to this exercise
+     */
+    public void removeListener(ExerciseListener listener) {
+        listeners.remove(listener);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: drops the cached snapshot and tells every listener that field has changed
+     */
+    private void fireChanged(ExerciseField field) {
+        snapshot = null;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).exerciseChanged(this, field);
+        }
+    }
+
+    @Override
+    /*
+    EFFECTS: writes this as a JSON object
+     */
+    public void writeJson(JsonEmitter out) throws IOException {
+        snapshot().writeJson(out);
     }
 }
@@ -0,0 +1,156 @@
+package model;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The catalog of every exercise definition in use, with one ExerciseDefinition per name and equipment.
+ * Exercises get their definition here, so every routine containing the same exercise shares one definition
+ * and one name string, and exercises can be matched across routines by id. Ids are given out in order from 0
+ * and never reused.
+ * The catalog only holds its definitions weakly: once no exercise or snapshot uses a definition it is dropped,
+ * so names typed once and renamed away do not pile up, and interning the name again gives it a new id.
+ * We use the Singleton Design Pattern so there is only one catalog and ids mean the same thing everywhere.
+ * Looking up a known definition does not lock; adding a new one, and dropping those no longer used, does.
+ */
+public final class ExerciseCatalog {
+    private final List<ConcurrentMap<String, Entry>> byEquipment;
+    private final Map<Integer, Entry> byId;
+    private final ReferenceQueue<ExerciseDefinition> dropped;
+    private int nextId;
+
+    /**
+     * Prevent external construction.
+     * (Singleton Design Pattern).
+     */
+    private ExerciseCatalog() {
+        // one map per equipment, plus one for exercises without equipment set
+        byEquipment = new ArrayList<>(Equipment.values().length + 1);
+        for (int i = 0; i <= Equipment.values().length; i++) {
+            byEquipment.add(new ConcurrentHashMap<>());
+        }
+        byId = new HashMap<>();
+        dropped = new ReferenceQueue<>();
+    }
+
+    /**
+     * Holds the only ExerciseCatalog in the system (Singleton Design Pattern).
+     */
+    private static final class Holder {
+        private static final ExerciseCatalog THE_CATALOG = new ExerciseCatalog();
+    }
+
+    /*
+    EFFECTS: returns the only catalog
+     */
+    public static ExerciseCatalog getInstance() {
+        return Holder.THE_CATALOG;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: returns the definition of name done with equipment, adding it under the next id if it is new or was
+             dropped; throws IllegalArgumentException if name is null
+     */
+    public ExerciseDefinition intern(String name, Equipment equipment) {
+        if (name == null) {
+            throw new IllegalArgumentException("Exercise name must not be null");
+        }
+        ConcurrentMap<String, Entry> definitions = byEquipment.get(slotOf(equipment));
+        ExerciseDefinition definition = live(definitions.get(name));
+        if (definition != null) {
+            return definition;
+        }
+        synchronized (byId) {
+            expunge();
+            definition = live(definitions.get(name));
+            if (definition == null) {
+                definition = new ExerciseDefinition(nextId++, name, equipment);
+                Entry entry = new Entry(definition, dropped);
+                byId.put(definition.getId(), entry);
+                definitions.put(name, entry);
+            }
+            return definition;
+        }
+    }
+
+    /*
+    EFFECTS: returns the definition with id, or null if there is none or it has been dropped
+     */
+    public ExerciseDefinition get(int id) {
+        synchronized (byId) {
+            return live(byId.get(id));
+        }
+    }
+
+    /*
+    EFFECTS: returns the definition of name done with equipment, or null if it has not been interned or has been
+             dropped
+     */
+    public ExerciseDefinition find(String name, Equipment equipment) {
+        return live(byEquipment.get(slotOf(equipment)).get(name));
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: drops the definitions no longer used, then returns the number of definitions in the catalog
+     */
+    public int size() {
+        synchronized (byId) {
+            expunge();
+            return byId.size();
+        }
+    }
+
+    /*
+    REQUIRES: the caller holds the lock on byId
+    MODIFIES: this
+    EFFECTS: removes the entries of every definition that has been collected since this was last called
+     */
+    private void expunge() {
+        Reference<? extends ExerciseDefinition> ref;
+        while ((ref = dropped.poll()) != null) {
+            Entry entry = (Entry) ref;
+            byId.remove(entry.id);
+            byEquipment.get(entry.slot).remove(entry.name, entry);
+        }
+    }
+
+    /*
+    EFFECTS: returns the definition entry refers to, or null if entry is null or its definition was collected
+     */
+    private static ExerciseDefinition live(Entry entry) {
+        return entry == null ? null : entry.get();
+    }
+
+    /*
+    EFFECTS: returns the map index holding definitions done with equipment
+     */
+    private static int slotOf(Equipment equipment) {
+        return equipment == null ? Equipment.values().length : equipment.ordinal();
+    }
+
+    /**
+     * A weak reference to a definition that keeps the keys it is filed under, so its entries can be found and
+     * removed once the definition is collected.
+     */
+    private static final class Entry extends WeakReference<ExerciseDefinition> {
+        private final int id;
+        private final String name;
+        private final int slot;
+
+        private Entry(ExerciseDefinition definition, ReferenceQueue<ExerciseDefinition> queue) {
+            super(definition, queue);
+            this.id = definition.getId();
+            this.name = definition.getName();
+            this.slot = slotOf(definition.getEquipment());
+        }
+    }
+}
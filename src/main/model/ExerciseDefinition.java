@@ -0,0 +1,38 @@
+package model;
+
+/**
+ * What an exercise is, apart from any plan for doing it: its name and the equipment it uses, under a stable id.
+ * Definitions are interned by the ExerciseCatalog, so there is one per name and equipment, shared by every
+ * Exercise that uses them, and they can be compared by id or by reference.
+ */
+public final class ExerciseDefinition {
+    private final int id;
+    private final String name;
+    private final Equipment equipment;
+
+    /*
+    EFFECTS: constructs definition id of name done with equipment
+     */
+    ExerciseDefinition(int id, String name, Equipment equipment) {
+        this.id = id;
+        this.name = name;
+        this.equipment = equipment;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Equipment getEquipment() {
+        return equipment;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + equipment + ")";
+    }
+}
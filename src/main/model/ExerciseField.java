@@ -0,0 +1,16 @@
+package model;
+
+/**
+ * Fields of an Exercise that change notifications can refer to. GOAL_MET is derived from the goal sets and the
+ * sets completed, and is only reported when it flips. A Routine reports SETS_COMPLETED and GOAL_MET for the sets
+ * done at one of its positions; an Exercise only reports them for its own count, while it is in no routine.
+ */
+public enum ExerciseField {
+    NAME,
+    EQUIPMENT,
+    SETS,
+    REPS,
+    WEIGHT,
+    SETS_COMPLETED,
+    GOAL_MET
+}
@@ -0,0 +1,11 @@
+package model;
+
+/**
+ * Notified whenever a field of an Exercise it is registered with changes
+ */
+public interface ExerciseListener {
+    /*
+    EFFECTS: handles field of exercise having just changed
+     */
+    void exerciseChanged(Exercise exercise, ExerciseField field);
+}
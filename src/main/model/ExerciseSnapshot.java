@@ -0,0 +1,80 @@
+package model;
+
+import persistence.JsonEmitter;
+import persistence.Writeable;
+
+import java.io.IOException;
+
+/**
+ * Immutable view of an Exercise as it was when the snapshot was taken: its plan, weight and a read-only copy
+ * of its set log. Sets completed belong to a position in a routine, so they are in the RoutineSnapshot.
+ * Exercises cache their snapshot until they change, so snapshots of an unchanged exercise are the same object
+ * and routine snapshots share them.
+ * All fields are final, so a snapshot can be handed to another thread and read there without locking.
+ */
+public final class ExerciseSnapshot implements Writeable {
+    private final ExerciseDefinition definition;
+    private final int sets;
+    private final int reps;
+    private final int weight;
+    private final SetLog setLog;
+
+    /*
+    EFFECTS: constructs a snapshot of exercise as it is now
+     */
+    ExerciseSnapshot(Exercise exercise) {
+        this.definition = exercise.getDefinition();
+        this.sets = exercise.getSets();
+        this.reps = exercise.getReps();
+        this.weight = exercise.getWeight();
+        this.setLog = exercise.getSetLog().snapshot();
+    }
+
+    public ExerciseDefinition getDefinition() {
+        return definition;
+    }
+
+    public String getName() {
+        return definition.getName();
+    }
+
+    public Equipment getEquipment() {
+        return definition.getEquipment();
+    }
+
+    public int getSets() {
+        return sets;
+    }
+
+    public int getReps() {
+        return reps;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /*
+    EFFECTS: returns the read-only log of sets done
+     */
+    public SetLog getSetLog() {
+        return setLog;
+    }
+
+    @Override
+    /*
+    EFFECTS: writes this as a JSON object, with the set log only if it is not empty
+     */
+    public void writeJson(JsonEmitter out) throws IOException {
+        out.beginObject();
+        out.name("name").value(definition.getName());
+        out.name("sets").value(sets);
+        out.name("reps").value(reps);
+        out.name("equipment").value(definition.getEquipment());
+        if (setLog.size() > 0) {
+            out.name("log");
+            setLog.writeJson(out);
+        }
+        out.endObject();
+    }
+}
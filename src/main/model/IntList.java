@@ -0,0 +1,76 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, used where a List of boxed Integers would cost an object per element.
+ */
+public class IntList {
+    private static final int INITIAL_SIZE = 8;
+
+    private int[] values;
+    private int size;
+
+    /*
+    EFFECTS: constructs an empty list
+     */
+    public IntList() {
+        values = new int[INITIAL_SIZE];
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: adds value to the end of the list
+     */
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /*
+    REQUIRES: 0 <= index < size()
+    EFFECTS: returns the value at index
+     */
+    public int get(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: removes every value
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /*
+    REQUIRES: values are in ascending order
+    EFFECTS: returns the index of the first value >= key, or size() if there is none
+     */
+    public int lowerBound(int key) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /*
+    EFFECTS: returns a copy of the values as an array
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,10 @@
+package model;
+
+/**
+ * What a bounded EventLog does with a new event once it is full
+ */
+public enum OverflowPolicy {
+    DROP_OLDEST,
+    SPILL_TO_DISK,
+    BLOCK
+}
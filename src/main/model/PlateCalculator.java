@@ -0,0 +1,212 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Works out how to load a barbell: given a bar weight and an inventory of plates (how many of each plate weight
+ * can go on each side), finds the fewest plates per side that make a target total. Answers come from a table
+ * built once per inventory by dynamic programming over every weight the inventory can load on one side, so
+ * looking one up does no search. Tables are shared by every calculator with the same inventory, whatever its bar.
+ */
+public final class PlateCalculator {
+    private static final ConcurrentMap<Inventory, PlateTable> TABLES = new ConcurrentHashMap<>();
+    public static final int STANDARD_BAR_WEIGHT = 45;
+    private static final int[] STANDARD_PLATES = {45, 35, 25, 10, 5};
+    private static final int[] STANDARD_COUNTS = {8, 2, 2, 2, 2};
+    public static final PlateCalculator STANDARD =
+            new PlateCalculator(STANDARD_BAR_WEIGHT, STANDARD_PLATES, STANDARD_COUNTS);
+
+    private final int barWeight;
+    private final Inventory inventory;
+    private final PlateTable table;
+
+    /*
+    REQUIRES: barWeight >= 0, plates and counts have the same length, every plate > 0 and every count >= 0
+    EFFECTS: constructs calculator for a bar of barWeight loaded with up to counts[i] plates of plates[i]
+             on each side
+     */
+    public PlateCalculator(int barWeight, int[] plates, int[] counts) {
+        this.barWeight = barWeight;
+        this.inventory = new Inventory(plates, counts);
+        this.table = TABLES.computeIfAbsent(inventory, PlateTable::new);
+    }
+
+    /*
+    EFFECTS: returns a calculator with the same plates on a bar of barWeight
+     */
+    public PlateCalculator withBarWeight(int barWeight) {
+        return new PlateCalculator(barWeight, inventory.plates, inventory.counts);
+    }
+
+    /*
+    EFFECTS: returns the total weight of the bar loaded with perSide on each side
+     */
+    public int totalFor(int perSide) {
+        return 2 * perSide + barWeight;
+    }
+
+    /*
+    EFFECTS: returns true if total can be loaded exactly with these plates on this bar
+     */
+    public boolean canLoad(int total) {
+        return platesFor(total) != null;
+    }
+
+    /*
+    EFFECTS: returns how many of each plate (in the order of getPlates) go on each side to make total with the
+             fewest plates, or null if total cannot be loaded exactly
+     */
+    public int[] platesPerSide(int total) {
+        int[] load = platesFor(total);
+        return load == null ? null : load.clone();
+    }
+
+    /*
+    EFFECTS: returns the heaviest total no more than total that can be loaded, or -1 if the bar alone is heavier
+     */
+    public int nearestLoadable(int total) {
+        int excess = total - barWeight;
+        if (excess < 0) {
+            return -1;
+        }
+        return totalFor(table.floor(excess / 2));
+    }
+
+    public int getBarWeight() {
+        return barWeight;
+    }
+
+    public int[] getPlates() {
+        return inventory.plates.clone();
+    }
+
+    public int[] getCounts() {
+        return inventory.counts.clone();
+    }
+
+    /*
+    EFFECTS: returns the table's plates per side for total, or null if total cannot be loaded exactly
+     */
+    private int[] platesFor(int total) {
+        int excess = total - barWeight;
+        if (excess < 0 || excess % 2 != 0) {
+            return null;
+        }
+        return table.get(excess / 2);
+    }
+
+    /**
+     * A plate inventory, compared by value so calculators with the same plates share a table.
+     */
+    private static final class Inventory {
+        private final int[] plates;
+        private final int[] counts;
+
+        private Inventory(int[] plates, int[] counts) {
+            if (plates.length != counts.length) {
+                throw new IllegalArgumentException("Need one count per plate");
+            }
+            this.plates = plates.clone();
+            this.counts = counts.clone();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Inventory)) {
+                return false;
+            }
+            Inventory other = (Inventory) o;
+            return Arrays.equals(plates, other.plates) && Arrays.equals(counts, other.counts);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(plates) + Arrays.hashCode(counts);
+        }
+    }
+
+    /**
+     * For every weight from 0 to the most an inventory can load on one side, the fewest plates that make it,
+     * or null where no combination does; and for every weight, the heaviest loadable weight at or below it.
+     * Built as a bounded knapsack: plates are taken one kind at a time, each weight keeping the fewest plates
+     * that reach it using the kinds seen so far and remembering how many of the newest kind it used.
+     */
+    private static final class PlateTable {
+        private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+        private final int[][] loads;
+        private final int[] floors;
+
+        /*
+        EFFECTS: builds the table for inventory
+         */
+        private PlateTable(Inventory inventory) {
+            int kinds = inventory.plates.length;
+            int max = 0;
+            for (int i = 0; i < kinds; i++) {
+                max += inventory.plates[i] * inventory.counts[i];
+            }
+
+            int[] fewest = new int[max + 1];
+            Arrays.fill(fewest, UNREACHABLE);
+            fewest[0] = 0;
+            int[][] used = new int[kinds][max + 1];
+            for (int i = 0; i < kinds; i++) {
+                addKind(fewest, used[i], inventory.plates[i], inventory.counts[i]);
+            }
+
+            loads = new int[max + 1][];
+            floors = new int[max + 1];
+            for (int w = 0; w <= max; w++) {
+                if (fewest[w] != UNREACHABLE) {
+                    loads[w] = trace(used, inventory.plates, w);
+                }
+                floors[w] = loads[w] != null ? w : floors[w - 1];
+            }
+        }
+
+        /*
+        MODIFIES: fewest, used
+        EFFECTS: lets each weight also use up to count plates of plate, recording in used how many it takes
+         */
+        private static void addKind(int[] fewest, int[] used, int plate, int count) {
+            for (int w = fewest.length - 1; w > 0; w--) {
+                for (int k = 1; k <= count && k * plate <= w; k++) {
+                    int before = fewest[w - k * plate];
+                    if (before != UNREACHABLE && before + k < fewest[w]) {
+                        fewest[w] = before + k;
+                        used[w] = k;
+                    }
+                }
+            }
+        }
+
+        /*
+        EFFECTS: returns how many of each plate make up the fewest-plate load of w, walking back from the last kind
+         */
+        private static int[] trace(int[][] used, int[] plates, int w) {
+            int[] load = new int[plates.length];
+            for (int i = plates.length - 1; i >= 0; i--) {
+                load[i] = used[i][w];
+                w -= load[i] * plates[i];
+            }
+            return load;
+        }
+
+        /*
+        EFFECTS: returns the load for perSide, or null if it cannot be loaded
+         */
+        private int[] get(int perSide) {
+            return perSide < loads.length ? loads[perSide] : null;
+        }
+
+        /*
+        EFFECTS: returns the heaviest loadable weight per side at or below perSide
+         */
+        private int floor(int perSide) {
+            return floors[Math.min(perSide, floors.length - 1)];
+        }
+    }
+}
@@ -0,0 +1,479 @@
+package model;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event store keeping Event objects in a ring buffer which is unbounded by default, or
+ * fixed-capacity with an OverflowPolicy deciding what happens once it is full.
+ * Events are stamped when they are made but may be appended later, from several threads, so each is filed
+ * under a time kept beside it that never goes back: an event appended with an earlier stamp than the one
+ * before it is filed at that one's time. Time ranges are found by binary search over the filed times.
+ * Every event is also given a sequence number as it is appended, and the sequence numbers are indexed by
+ * routine, exercise and event kind, so a query only visits the events in its most selective index. An evicted
+ * event is always the oldest in each of its indexes, so it is dropped from their fronts.
+ */
+public class RingBufferEventStore implements EventStore {
+    /** capacity value meaning the store grows without limit */
+    public static final int UNBOUNDED = 0;
+    private static final int INITIAL_SIZE = 16;
+    private static final String DEFAULT_SPILL_FILE = "./data/events.spill";
+
+    private Event[] events;
+    private long[] times;
+    private int head;
+    private int size;
+    private int capacity;
+    private OverflowPolicy policy;
+    private String spillFile;
+    private Writer spillWriter;
+    private long appended;
+    private final Map<String, Positions> routineIndex;
+    private final Map<String, Positions> exerciseIndex;
+    private final Positions[] typeIndex;
+
+    /*
+    EFFECTS: constructs an empty, unbounded store
+     */
+    public RingBufferEventStore() {
+        events = new Event[INITIAL_SIZE];
+        times = new long[INITIAL_SIZE];
+        capacity = UNBOUNDED;
+        policy = OverflowPolicy.DROP_OLDEST;
+        spillFile = DEFAULT_SPILL_FILE;
+        routineIndex = new HashMap<>();
+        exerciseIndex = new HashMap<>();
+        typeIndex = new Positions[EventType.values().length];
+    }
+
+    /*
+    REQUIRES: capacity >= 0
+    MODIFIES: this
+    EFFECTS: bounds the store to capacity events (or UNBOUNDED), keeping the newest ones; events that no
+             longer fit are dropped or spilled according to policy
+     */
+    public synchronized void setCapacity(int capacity, OverflowPolicy policy) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be non-negative: " + capacity);
+        }
+        this.policy = policy;
+        this.capacity = capacity;
+
+        if (capacity != UNBOUNDED) {
+            while (size > capacity) {
+                evictOldest();
+            }
+            resize(capacity);
+        }
+        notifyAll();
+    }
+
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: sets the file that evicted events are appended to under SPILL_TO_DISK
+     */
+    public synchronized void setSpillFile(String spillFile) {
+        closeSpill();
+        this.spillFile = spillFile;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: stores event, first making room if the store is full: the oldest event is dropped or spilled
+             to disk, or under BLOCK the caller waits until drainTo or clear makes room
+     */
+    @Override
+    public synchronized void append(Event e) {
+        if (isFull()) {
+            makeRoom();
+        }
+        if (size == events.length) {
+            resize(events.length * 2);
+        }
+
+        long time = e.getTimeNanos();
+        if (size > 0) {
+            time = Math.max(time, timeAt(size - 1));
+        }
+        events[(head + size) % events.length] = e;
+        times[(head + size) % events.length] = time;
+        size++;
+        index(e, appended++);
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /*
+    MODIFIES: this, target
+    EFFECTS: removes every event, oldest first, and adds them to target; wakes up any loggers blocked on a
+             full store
+     */
+    @Override
+    public synchronized int drainTo(Collection<? super Event> target) {
+        int drained = size;
+        while (size > 0) {
+            target.add(events[head]);
+            events[head] = null;
+            head = (head + 1) % events.length;
+            size--;
+        }
+        head = 0;
+        clearIndexes();
+        notifyAll();
+
+        return drained;
+    }
+
+    @Override
+    public synchronized void clear() {
+        Arrays.fill(events, null);
+        head = 0;
+        size = 0;
+        clearIndexes();
+        notifyAll();
+    }
+
+    /*
+    EFFECTS: returns events filed between fromNanos and toNanos inclusive, found by binary search
+     */
+    @Override
+    public synchronized List<Event> between(long fromNanos, long toNanos) {
+        List<Event> found = new ArrayList<>();
+        for (int i = firstAtOrAfter(fromNanos); i < size && timeAt(i) <= toNanos; i++) {
+            found.add(get(i));
+        }
+        return found;
+    }
+
+    /*
+    EFFECTS: returns events meeting every criterion of query; only the positions in the smallest of the
+             matching routine, exercise and kind indexes are checked, starting from the first one in the
+             time range
+     */
+    @Override
+    public synchronized List<Event> query(EventQuery query) {
+        List<Event> found = new ArrayList<>();
+        int from = firstAtOrAfter(query.getFromNanos());
+        int to = query.getToNanos() == Long.MAX_VALUE ? size : firstAtOrAfter(query.getToNanos() + 1);
+        Positions positions = candidates(query);
+        if (positions == null) {
+            for (int i = from; i < to; i++) {
+                found.add(get(i));
+            }
+            return found;
+        }
+        long first = appended - size;
+        for (int k = positions.lowerBound(first + from); k < positions.size() && positions.get(k) < first + to; k++) {
+            Event e = get((int) (positions.get(k) - first));
+            if (matchesKind(query, e)) {
+                found.add(e);
+            }
+        }
+        return found;
+    }
+
+    /*
+    EFFECTS: iterates over a copy of the store taken when this is called, so logging while iterating
+             neither fails nor shows up in the iteration
+     */
+    @Override
+    public synchronized Iterator<Event> iterator() {
+        Event[] snapshot = new Event[size];
+        for (int i = 0; i < size; i++) {
+            snapshot[i] = get(i);
+        }
+
+        return Arrays.asList(snapshot).iterator();
+    }
+
+    /*
+    REQUIRES: 0 <= i < size
+    EFFECTS: returns the i-th oldest event
+     */
+    private Event get(int i) {
+        return events[(head + i) % events.length];
+    }
+
+    /*
+    REQUIRES: 0 <= i < size
+    EFFECTS: returns the time the i-th oldest event is filed under
+     */
+    private long timeAt(int i) {
+        return times[(head + i) % events.length];
+    }
+
+    /*
+    EFFECTS: returns position of the first event filed at or after timeNanos, or size if there is none
+     */
+    private int firstAtOrAfter(long timeNanos) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timeAt(mid) < timeNanos) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /*
+    EFFECTS: returns the shortest index for the criteria query sets, an empty one if one of them matches no
+             event, or null if query sets none of them
+     */
+    private Positions candidates(EventQuery query) {
+        Positions smallest = null;
+        if (query.getRoutine() != null) {
+            smallest = shorter(smallest, routineIndex.get(query.getRoutine()));
+        }
+        if (query.getExercise() != null) {
+            smallest = shorter(smallest, exerciseIndex.get(query.getExercise()));
+        }
+        if (query.getType() != null) {
+            smallest = shorter(smallest, typeIndex[query.getType().ordinal()]);
+        }
+        return smallest;
+    }
+
+    /*
+    EFFECTS: returns the shorter of current and next, treating a missing next as an empty index
+     */
+    private static Positions shorter(Positions current, Positions next) {
+        if (next == null) {
+            return new Positions();
+        }
+        return current == null || next.size() < current.size() ? next : current;
+    }
+
+    /*
+    EFFECTS: returns true if e has the routine, exercise and kind query asks for
+     */
+    private static boolean matchesKind(EventQuery query, Event e) {
+        return (query.getRoutine() == null || query.getRoutine().equals(e.getRoutine()))
+                && (query.getExercise() == null || query.getExercise().equals(e.getExercise()))
+                && (query.getType() == null || query.getType() == e.getType());
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: adds sequence number seq of e to the routine, exercise and kind indexes
+     */
+    private void index(Event e, long seq) {
+        if (e.getRoutine() != null) {
+            routineIndex.computeIfAbsent(e.getRoutine(), k -> new Positions()).add(seq);
+        }
+        if (e.getExercise() != null) {
+            exerciseIndex.computeIfAbsent(e.getExercise(), k -> new Positions()).add(seq);
+        }
+        int type = e.getType().ordinal();
+        if (typeIndex[type] == null) {
+            typeIndex[type] = new Positions();
+        }
+        typeIndex[type].add(seq);
+    }
+
+    /*
+    REQUIRES: e is the oldest event in the store
+    MODIFIES: this
+    EFFECTS: drops e from the front of its routine, exercise and kind indexes, forgetting names left with no
+             events
+     */
+    private void unindex(Event e) {
+        if (e.getRoutine() != null) {
+            dropFirst(routineIndex, e.getRoutine());
+        }
+        if (e.getExercise() != null) {
+            dropFirst(exerciseIndex, e.getExercise());
+        }
+        typeIndex[e.getType().ordinal()].removeFirst();
+    }
+
+    /*
+    MODIFIES: index
+    EFFECTS: drops the oldest position indexed under key, and key itself if that was its last
+     */
+    private static void dropFirst(Map<String, Positions> index, String key) {
+        Positions positions = index.get(key);
+        positions.removeFirst();
+        if (positions.size() == 0) {
+            index.remove(key);
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: empties the indexes
+     */
+    private void clearIndexes() {
+        routineIndex.clear();
+        exerciseIndex.clear();
+        Arrays.fill(typeIndex, null);
+    }
+
+    /*
+    EFFECTS: returns true if the store is bounded and holds capacity events
+     */
+    private boolean isFull() {
+        return capacity != UNBOUNDED && size >= capacity;
+    }
+
+    /*
+    REQUIRES: store is full
+    MODIFIES: this
+    EFFECTS: frees one slot according to the overflow policy; under BLOCK waits until another thread frees it,
+             falling back to dropping the oldest event if interrupted
+     */
+    private void makeRoom() {
+        if (policy == OverflowPolicy.BLOCK) {
+            try {
+                while (isFull()) {
+                    wait();
+                }
+                return;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        while (isFull()) {
+            evictOldest();
+        }
+    }
+
+    /*
+    REQUIRES: size > 0
+    MODIFIES: this
+    EFFECTS: removes the oldest event, appending it to the spill file under SPILL_TO_DISK
+     */
+    private void evictOldest() {
+        Event oldest = events[head];
+        unindex(oldest);
+        events[head] = null;
+        head = (head + 1) % events.length;
+        size--;
+
+        if (policy == OverflowPolicy.SPILL_TO_DISK) {
+            spill(oldest);
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: appends event to spill file; the event is dropped if the file cannot be written
+     */
+    private void spill(Event e) {
+        try {
+            if (spillWriter == null) {
+                spillWriter = new BufferedWriter(new FileWriter(spillFile, true));
+            }
+            spillWriter.write(e.toString());
+            spillWriter.write("\n\n");
+            spillWriter.flush();
+        } catch (IOException ex) {
+            closeSpill();
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: closes spill file if it is open
+     */
+    private void closeSpill() {
+        if (spillWriter != null) {
+            try {
+                spillWriter.close();
+            } catch (IOException ex) {
+                // nothing left to flush to
+            }
+            spillWriter = null;
+        }
+    }
+
+    /*
+    REQUIRES: newLength >= size
+    MODIFIES: this
+    EFFECTS: copies events and their times into new arrays of length newLength with the oldest event at index 0
+     */
+    private void resize(int newLength) {
+        Event[] resized = new Event[Math.max(newLength, 1)];
+        long[] resizedTimes = new long[resized.length];
+        for (int i = 0; i < size; i++) {
+            resized[i] = get(i);
+            resizedTimes[i] = timeAt(i);
+        }
+        events = resized;
+        times = resizedTimes;
+        head = 0;
+    }
+
+    /**
+     * The sequence numbers indexed under one key, oldest first. New numbers are added at the back and evicted
+     * ones dropped from the front, the array being compacted or grown when the back reaches its end.
+     */
+    private static final class Positions {
+        private long[] values = new long[INITIAL_SIZE];
+        private int start;
+        private int size;
+
+        private void add(long value) {
+            if (start + size == values.length) {
+                long[] to = size * 2 > values.length ? new long[values.length * 2] : values;
+                System.arraycopy(values, start, to, 0, size);
+                values = to;
+                start = 0;
+            }
+            values[start + size++] = value;
+        }
+
+        private void removeFirst() {
+            start++;
+            size--;
+        }
+
+        private long get(int k) {
+            return values[start + k];
+        }
+
+        private int size() {
+            return size;
+        }
+
+        /*
+        EFFECTS: returns the index of the first number >= key, or size() if there is none
+         */
+        private int lowerBound(long key) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (get(mid) < key) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -1,23 +1,43 @@
 package model;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
+import persistence.JsonEmitter;
 import persistence.Writeable;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A workout routine with its associated workout list, whether the user is currently in session, the current exercise
- * being done, and the current sets progress.
+ * being done, and the current sets progress. Session state is kept by position in a SessionEngine, so an exercise
+ * may appear in the routine more than once, and the sets done and goal status of each position are its own. The
+ * positions every exercise holds are kept in an identity map, so a change to an exercise is relayed to its positions
+ * without searching the list, and the engine keeps the number of positions short of their goal up to date, so goal
+ * queries need not visit every exercise. An immutable RoutineSnapshot is cached
+ * until the routine changes, for saving or reading the routine off the thread using it. Registered RoutineListeners
+ * are told about every change to the exercises and every move of the current exercise. Barbell weights are worked
+ * out with the routine's PlateCalculator, which sets the bar weight and the plates on hand. Many changes to the
+ * exercises can be made together through a RoutineBatch, which is logged and notified once. Every change to the
+ * routine or its exercises gives it a new version, drawn from a counter shared by all routines, so two routines
+ * never share a version and an unchanged version means unchanged content.
   */
 public class Routine implements Writeable {
-    private static final int WEIGHT_OF_BAR = 45;
+    private static final AtomicLong VERSIONS = new AtomicLong();
 
     private String name;
     private ArrayList<Exercise> exercises;
-    private boolean inSession;
-    private Exercise current;
-    private int progress;
+    private final SessionEngine session;
+    private final Map<Exercise, List<Integer>> positions = new IdentityHashMap<>();
+    private WorkoutRenderer renderer;
+    private RoutineSnapshot snapshot;
+    private long version = VERSIONS.incrementAndGet();
+    private PlateCalculator plates = PlateCalculator.STANDARD;
+    private final List<RoutineListener> listeners = new ArrayList<>();
+    private final ExerciseListener exerciseRelay = this::relayExerciseChange;
 
     /*
     EFFECTS: initializes a workout routine that is not in session with empty exercise list, no currently selected
@@ -26,9 +46,7 @@ public class Routine implements Writeable {
     public Routine() {
         this.name = "Default Routine";
         exercises = new ArrayList<>();
-        inSession = false;
-        current = null;
-        progress = 0;
+        session = new SessionEngine(exercises);
     }
 
     /*
@@ -38,36 +56,86 @@ public class Routine implements Writeable {
     public Routine(String name) {
         this.name = name;
         exercises = new ArrayList<>();
-        inSession = false;
-        current = null;
-        progress = 0;
+        session = new SessionEngine(exercises);
     }
 
     /*
-    REQUIRES: Exercise should not be in the current routine.
-    MODIFIES: this
-    EFFECTS: adds an exercise to the exercise list with indicated sets and reps
+    MODIFIES: this, e
+    EFFECTS: adds an exercise to the exercise list with indicated sets and reps; e may already be in the routine,
+             in which case it holds another position with progress of its own, and the sets and reps become the
+             plan at every position it holds
      */
     public void addExercise(Exercise e, int sets, int reps) {
+        e.setRoutine(this);
         e.setSets(sets);
         e.setReps(reps);
 
+        boolean wasMet = hasMetAllGoals();
         exercises.add(e);
+        session.inserted(exercises.size() - 1);
+        changed();
+        if (addPosition(e, exercises.size() - 1)) {
+            e.addListener(exerciseRelay);
+        }
+        fireGoalStatus(wasMet);
 
-        EventLog.getInstance().logEvent(new Event(e.getName() + " added to " + this.name));
+        log(new Event(EventType.EXERCISE_ADDED, this.name, e.getName()));
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).exerciseAdded(this, exercises.size() - 1);
+        }
     }
 
     /*
     REQUIRES: Exercise must be in the list
     MODIFIES: this
-    EFFECTS: removes exercise from exercise list
+    EFFECTS: removes exercise from exercise list; if it was current, the exercise taking its place becomes current,
+             and the session ends, logging SESSION_ENDED, if there is none
      */
     public void removeExercise(int index) {
         Exercise remExercise = exercises.get(index);
+        int wasCurrent = session.getCursor();
+        boolean wasMet = hasMetAllGoals();
 
         exercises.remove(index);
+        session.removed(index);
+        changed();
+        reattach(reindex());
+        fireGoalStatus(wasMet);
+
+        log(new Event(EventType.EXERCISE_REMOVED, this.name, remExercise.getName()));
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).exerciseRemoved(this, index);
+        }
+        if (wasCurrent == index) {
+            fireCurrentMoved(SessionEngine.NO_EXERCISE, session.getCursor());
+            logIfEnded(true);
+        }
+    }
 
-        EventLog.getInstance().logEvent(new Event(remExercise.getName() + " removed from " + this.name));
+    /*
+    EFFECTS: logs SESSION_ENDED if the session was on and removing exercises has ended it
+     */
+    private void logIfEnded(boolean wasInSession) {
+        if (wasInSession && !getInSession()) {
+            log(new Event(EventType.SESSION_ENDED, this.name, null));
+        }
+    }
+
+    /*
+    EFFECTS: returns a new routine with the same name and a copy of every exercise's name, equipment, goal sets and
+             reps, and weight, not in session and with no sets done
+     */
+    public Routine copyPlan() {
+        Routine copy = new Routine(name);
+        copy.plates = plates;
+        for (Exercise e : exercises) {
+            Exercise exercise = new Exercise(e.getDefinition());
+            copy.addExercise(exercise, e.getSets(), e.getReps());
+            if (e.getWeight() != 0) {
+                exercise.setWeight(e.getWeight());
+            }
+        }
+        return copy;
     }
 
     /*
@@ -76,10 +144,13 @@ public class Routine implements Writeable {
     EFFECTS: begins a session by setting inSession to true and first exercise as current
      */
     public void beginSession() {
-        inSession = true;
-        current = exercises.get(0);
+        boolean wasMet = hasMetAllGoals();
+        int[] before = copyProgress();
+        session.begin();
+        fireProgressReset(wasMet, before);
+        fireCurrentMoved(SessionEngine.NO_EXERCISE, 0);
 
-        EventLog.getInstance().logEvent(new Event(this.name + "session initiated with " + current.getName()));
+        log(new Event(EventType.SESSION_BEGUN, this.name, session.current().getName()));
     }
 
     /*
@@ -88,23 +159,68 @@ public class Routine implements Writeable {
     EFFECTS: ends a session by setting inSession to false, current as null, and progress as 0
      */
     public void endSession() {
-        inSession = false;
-        current = null;
-        progress = 0;
+        moveCurrent(SessionEngine.NO_EXERCISE);
+
+        log(new Event(EventType.SESSION_ENDED, this.name, null));
+    }
+
+    /*
+    REQUIRES: currentIndex is -1 or a valid index, progress has one non-negative entry per exercise
+    MODIFIES: this
+    EFFECTS: puts the routine back into a previously recorded session state: in session at the exercise at
+             currentIndex with progress[i] sets done at position i, or out of session if currentIndex is -1
+     */
+    public void restoreSession(int currentIndex, int[] progress) {
+        int from = session.getCursor();
+        boolean wasMet = hasMetAllGoals();
+        int[] before = copyProgress();
+        session.restore(currentIndex, progress);
+        fireProgressReset(wasMet, before);
+        fireCurrentMoved(from, currentIndex);
+    }
+
+    /*
+    REQUIRES: 0 <= index < number of exercises, sets >= 0
+    MODIFIES: this
+    EFFECTS: sets the sets done at position index, as when correcting them by hand
+     */
+    public void setProgress(int index, int sets) {
+        boolean wasMet = hasMetAllGoals();
+        boolean flipped = session.setProgress(index, sets);
+        changed();
+        fireProgressChanged(index, flipped);
+        fireGoalStatus(wasMet);
+    }
+
+    /*
+    EFFECTS: returns the sets done in this session at the first position e holds, or 0 if it holds none
+     */
+    int getProgressOf(Exercise e) {
+        List<Integer> held = positions.get(e);
+        return held == null ? 0 : session.getProgress(held.get(0));
+    }
 
-        EventLog.getInstance().logEvent(new Event(this.name + " session terminated"));
+    /*
+    REQUIRES: e holds a position in this routine, sets >= 0
+    MODIFIES: this
+    EFFECTS: sets the sets done at the first position e holds
+     */
+    void setProgressOf(Exercise e, int sets) {
+        setProgress(positions.get(e).get(0), sets);
     }
 
     /*
     REQUIRES: weight is non-zero positive integer and must be in session
     MODIFIES: this
     EFFECTS: adds weight based on type of equipment:
-             - if equipment is barbell -> calculates total weight based on input plate and bar
+             - if equipment is barbell -> calculates total weight based on input plate and the bar of the
+               routine's plate calculator
              - if machine or dumbbell -> sets weight normally
      */
     public void addWeightToCurrent(int weight) {
+        Exercise current = session.current();
         if (current.getEquipment() == Equipment.BARBELL) {
-            int total = 2 * weight + WEIGHT_OF_BAR;
+            int total = plates.totalFor(weight);
             current.setWeight(total);
         } else {
             current.setWeight(weight);
@@ -114,30 +230,62 @@ public class Routine implements Writeable {
     /*
     REQUIRES: must be in session
     MODIFIES: this
-    EFFECTS: adds 1 to current number of sets
+    EFFECTS: adds 1 to current number of sets, logging it as done with the goal reps
              - if The goal sets are met, move on to the next exercise in routine
              - if final set of workout, sets inSession to false and removes current
      */
     public void addSetToProgress() {
-        EventLog.getInstance().logEvent(new Event(
-                "One set of " + current.getName() + " completed in " + this.name));
-
-        if (progress == current.getSets() - 1) {
-            current.setSetsCompleted(progress + 1);
-            progress = 0;
-            if (exercises.indexOf(current) == exercises.size() - 1) {
-                EventLog.getInstance().logEvent(new Event("All exercises in " + this.name + " completed"));
+        addSetToProgress(session.current().getReps());
+    }
+
+    /*
+    REQUIRES: must be in session, reps >= 0
+    MODIFIES: this
+    EFFECTS: adds 1 to current number of sets, logging it as done now with reps reps at the current weight
+             - if The goal sets are met, move on to the next exercise in routine
+             - if final set of workout, sets inSession to false and removes current
+     */
+    public void addSetToProgress(int reps) {
+        Exercise done = session.current();
+        Event event = Event.setCompleted(this.name, done.getName(), reps, done.getWeight());
+        log(event);
+        finishSet(done, reps, done.getWeight(), EventClock.toMillis(event.getTimeNanos()));
+    }
+
+    /*
+    REQUIRES: must be in session, reps >= 0
+    MODIFIES: this
+    EFFECTS: as addSetToProgress(reps), but the set is logged as done at weight at time (milliseconds since the
+             epoch); used to replay sets recorded earlier
+     */
+    public void addSetToProgress(int reps, int weight, long time) {
+        Exercise done = session.current();
+        log(Event.setCompleted(this.name, done.getName(), reps, weight));
+        finishSet(done, reps, weight, time);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: logs the set done, then moves on or ends the session if that met the current goal
+     */
+    private void finishSet(Exercise done, int reps, int weight, long time) {
+        done.logSet(reps, weight, time);
+        boolean wasMet = hasMetAllGoals();
+        int index = session.getCursor();
+        boolean metBefore = session.isGoalMet(index);
+        boolean met = session.completeSet();
+        changed();
+        fireProgressChanged(index, met != metBefore);
+        fireGoalStatus(wasMet);
+        if (met) {
+            if (session.atLast()) {
+                log(new Event(EventType.ROUTINE_COMPLETED, this.name, null));
                 endSession();
             } else {
-                int indexOfCurrent = exercises.indexOf(current);
-                Exercise prev = current;
-                current = exercises.get(indexOfCurrent + 1);
-                EventLog.getInstance().logEvent(new Event(
-                        prev.getName() + " completed, " + current.getName() + " begun"));
+                moveCurrent(session.getCursor() + 1);
+                log(new Event(
+                        EventType.EXERCISE_COMPLETED, this.name, done.getName(), session.current().getName(), 0, 0));
             }
-        } else {
-            progress++;
-            current.setSetsCompleted(progress);
         }
     }
 
@@ -146,73 +294,361 @@ public class Routine implements Writeable {
     EFFECTS: moves on to the next exercise in routine or completes workout if none left
      */
     public void skipExercise() {
-        EventLog.getInstance().logEvent(new Event(current.getName() + " skipped"));
+        log(new Event(EventType.EXERCISE_SKIPPED, this.name, session.current().getName()));
 
-        progress = 0;
-        if (exercises.indexOf(current) == exercises.size() - 1) {
-            EventLog.getInstance().logEvent(new Event("All exercises in " + this.name + " completed"));
+        if (session.atLast()) {
+            log(new Event(EventType.ROUTINE_COMPLETED, this.name, null));
             endSession();
         } else {
-            int indexOfCurrent = exercises.indexOf(current);
-            current = exercises.get(indexOfCurrent + 1);
+            moveCurrent(session.getCursor() + 1);
         }
     }
 
     /*
-    EFFECTS: returns true if all the goal sets and reps have been met, false otherwise
+    REQUIRES: must be in session
+    MODIFIES: this
+    EFFECTS: moves on to the next exercise, keeping the sets done on this one; stays put on the last exercise
      */
-    public boolean hasMetAllGoals() {
-        for (Exercise e : exercises) {
-            if (!e.hasMetGoal()) {
-                return false;
+    public void nextExercise() {
+        if (!session.atLast()) {
+            jumpToExercise(session.getCursor() + 1);
+        }
+    }
+
+    /*
+    REQUIRES: must be in session
+    MODIFIES: this
+    EFFECTS: goes back to the previous exercise, resuming from the sets already done on it; stays put on the
+             first exercise
+     */
+    public void previousExercise() {
+        if (session.getCursor() > 0) {
+            jumpToExercise(session.getCursor() - 1);
+        }
+    }
+
+    /*
+    REQUIRES: must be in session, 0 <= index < number of exercises
+    MODIFIES: this
+    EFFECTS: makes the exercise at index current, resuming from the sets already done on it
+     */
+    public void jumpToExercise(int index) {
+        int from = session.getCursor();
+        moveCurrent(index);
+
+        log(new Event(
+                EventType.EXERCISE_SELECTED, this.name, exercises.get(index).getName(), null, from, index));
+    }
+
+    /*
+    EFFECTS: returns an empty batch of changes to this routine's exercises, made together when it is applied
+     */
+    public RoutineBatch batch() {
+        return new RoutineBatch(this);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: makes each change in ops in order without logging or notifying it, then attaches to exercises that
+             joined, detaches from exercises that left, recounts unmet goals, logs one ROUTINE_EDITED event (and
+             SESSION_ENDED if the current exercise was removed with none after it) and tells listeners once that
+             the exercises were edited;
+             throws IndexOutOfBoundsException, before anything is changed, if an index in ops is not valid when
+             its change would be made
+     */
+    void apply(List<RoutineBatch.Op> ops) {
+        checkIndexes(ops);
+        int sizeBefore = exercises.size();
+        boolean wasInSession = getInSession();
+        for (RoutineBatch.Op op : ops) {
+            applyOp(op);
+        }
+
+        reattach(reindex());
+        session.recount();
+        changed();
+
+        log(new Event(EventType.ROUTINE_EDITED, name, null, null,
+                sizeBefore, exercises.size()));
+        logIfEnded(wasInSession);
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).exercisesEdited(this);
+        }
+    }
+
+    /*
+    EFFECTS: throws IndexOutOfBoundsException if an index in ops is not valid for the number of exercises there
+             will be when its change is made
+     */
+    private void checkIndexes(List<RoutineBatch.Op> ops) {
+        int size = exercises.size();
+        for (RoutineBatch.Op op : ops) {
+            if (op.kind == RoutineBatch.Op.Kind.ADD) {
+                size++;
+                continue;
+            }
+            if (!isIndex(op.index, size) || op.kind == RoutineBatch.Op.Kind.MOVE && !isIndex(op.to, size)) {
+                throw new IndexOutOfBoundsException(op.kind + " at " + op.index + " in a routine of " + size);
+            }
+            if (op.kind == RoutineBatch.Op.Kind.REMOVE) {
+                size--;
             }
         }
-        return true;
+    }
+
+    private static boolean isIndex(int index, int size) {
+        return index >= 0 && index < size;
     }
 
     /*
-    REQUIRES: this.exercises must be not empty
-    EFFECTS: returns a string representation of the workout
+    REQUIRES: op's index is valid
+    MODIFIES: this
+    EFFECTS: makes the change op describes to the exercise list and session, without logging or notifying it
      */
-    public String viewWorkout() {
-        StringBuilder view = new StringBuilder();
-        view.append(generateHeader());
+    private void applyOp(RoutineBatch.Op op) {
+        switch (op.kind) {
+            case ADD:
+                applyAdd(op.exercise, op.sets, op.reps);
+                break;
+            case REMOVE:
+                applyRemove(op.index);
+                break;
+            case MOVE:
+                applyMove(op.index, op.to);
+                break;
+            case REPLACE:
+                applyReplace(op.index, op.exercise, op.sets, op.reps);
+                break;
+        }
+    }
 
-        int num = 1;
-        for (Exercise e : exercises) {
-            StringBuilder exercise = new StringBuilder(e.viewExercise());
-            exercise.replace(6,7,String.valueOf(num));
-            if (e == current) {
-                exercise.replace(2,3, "*");
+    /*
+    MODIFIES: this, e
+    EFFECTS: adds e with the given plan to the end of the list, with no sets done
+     */
+    private void applyAdd(Exercise e, int sets, int reps) {
+        e.setPlan(sets, reps);
+        exercises.add(e);
+        session.inserted(exercises.size() - 1);
+    }
+
+    /*
+    REQUIRES: 0 <= index < number of exercises
+    MODIFIES: this
+    EFFECTS: removes the exercise at index and its session slot
+     */
+    private void applyRemove(int index) {
+        exercises.remove(index);
+        session.removed(index);
+    }
+
+    /*
+    REQUIRES: 0 <= from, to < number of exercises
+    MODIFIES: this
+    EFFECTS: moves the exercise at from, with its session slot, to to
+     */
+    private void applyMove(int from, int to) {
+        exercises.add(to, exercises.remove(from));
+        session.moved(from, to);
+    }
+
+    /*
+    REQUIRES: 0 <= index < number of exercises
+    MODIFIES: this, e
+    EFFECTS: puts e with the given plan at index in place of the exercise there, with no sets done
+     */
+    private void applyReplace(int index, Exercise e, int sets, int reps) {
+        e.setPlan(sets, reps);
+        exercises.set(index, e);
+        session.replaced(index);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: registers listener to be told about changes to this routine and its exercises
+     */
+    public void addListener(RoutineListener listener) {
+        listeners.add(listener);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: stops telling listener about changes to this routine
+     */
+    public void removeListener(RoutineListener listener) {
+        listeners.remove(listener);
+    }
+
+    /*
+    REQUIRES: to is -1 or a valid index
+    MODIFIES: this
+    EFFECTS: makes the exercise at to current (ending the session if to is -1) and tells listeners
+     */
+    private void moveCurrent(int to) {
+        int from = session.getCursor();
+        session.moveTo(to);
+        fireCurrentMoved(from, to);
+    }
+
+    /*
+    EFFECTS: tells listeners the current exercise moved from position from to position to
+     */
+    private void fireCurrentMoved(int from, int to) {
+        changed();
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).currentMoved(this, from, to);
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: tells listeners that field changed at every position exercise holds in this routine; if its goal sets
+             changed, works out again whether each of those positions meets its goal
+     */
+    private void relayExerciseChange(Exercise exercise, ExerciseField field) {
+        changed();
+        boolean wasMet = hasMetAllGoals();
+        for (int index : positions.get(exercise)) {
+            fireExerciseChanged(index, field);
+            if (field == ExerciseField.SETS && session.refreshGoal(index)) {
+                fireExerciseChanged(index, ExerciseField.GOAL_MET);
             }
-            view.append(exercise + "\n");
-            num++;
         }
+        fireGoalStatus(wasMet);
+    }
 
-        view.append(new String(new char[55]).replace("\0", "=") + "\n");
-        view.append("Met Goal: ");
-        if (hasMetAllGoals()) {
-            view.append("Yes");
-        } else {
-            view.append("No");
+    /*
+    EFFECTS: tells listeners the sets done at index changed, and that its goal status did if flipped
+     */
+    private void fireProgressChanged(int index, boolean flipped) {
+        fireExerciseChanged(index, ExerciseField.SETS_COMPLETED);
+        if (flipped) {
+            fireExerciseChanged(index, ExerciseField.GOAL_MET);
+        }
+    }
+
+    /*
+    REQUIRES: before has an entry per exercise
+    MODIFIES: this
+    EFFECTS: tells listeners the sets done changed at every position where they are no longer before, and whether
+             all goals are met if that changed from wasMet
+     */
+    private void fireProgressReset(boolean wasMet, int[] before) {
+        changed();
+        for (int index = 0; index < before.length; index++) {
+            if (before[index] != session.getProgress(index)) {
+                fireExerciseChanged(index, ExerciseField.SETS_COMPLETED);
+            }
+        }
+        fireGoalStatus(wasMet);
+    }
+
+    /*
+    EFFECTS: returns the sets done at every position
+     */
+    private int[] copyProgress() {
+        int[] progress = new int[exercises.size()];
+        for (int i = 0; i < progress.length; i++) {
+            progress[i] = session.getProgress(i);
+        }
+        return progress;
+    }
+
+    /*
+    EFFECTS: tells listeners that field changed at position index
+     */
+    private void fireExerciseChanged(int index, ExerciseField field) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).exerciseChanged(this, index, field);
+        }
+    }
+
+    /*
+    EFFECTS: tells listeners if all goals became met or unmet since they were wasMet
+     */
+    private void fireGoalStatus(boolean wasMet) {
+        boolean met = hasMetAllGoals();
+        if (met != wasMet) {
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).goalStatusChanged(this, met);
+            }
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: records that exercise is at index, after every position it already holds; returns true if it
+             held none before
+     */
+    private boolean addPosition(Exercise exercise, int index) {
+        List<Integer> held = positions.get(exercise);
+        if (held == null) {
+            held = new ArrayList<>(1);
+            positions.put(exercise, held);
+        }
+        held.add(index);
+        return held.size() == 1;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: records again the positions of every exercise, after positions shifted; returns the exercises that
+             held a position before
+     */
+    private Set<Exercise> reindex() {
+        Set<Exercise> before = new IdentityHashMap<>(positions).keySet();
+        positions.clear();
+        for (int index = 0; index < exercises.size(); index++) {
+            addPosition(exercises.get(index), index);
+        }
+        return before;
+    }
+
+    /*
+    MODIFIES: this, exercises that joined or left
+    EFFECTS: attaches to every exercise now in the routine that was not in before, and detaches from every
+             exercise in before that has left
+     */
+    private void reattach(Set<Exercise> before) {
+        for (Exercise e : positions.keySet()) {
+            if (!before.contains(e)) {
+                e.setRoutine(this);
+                e.addListener(exerciseRelay);
+            }
         }
+        for (Exercise e : before) {
+            if (!positions.containsKey(e)) {
+                e.removeListener(exerciseRelay);
+                e.setRoutine(null);
+            }
+        }
+    }
+
+    /*
+    EFFECTS: returns true if all the goal sets and reps have been met, false otherwise
+     */
+    public boolean hasMetAllGoals() {
+        return session.getUnmetCount() == 0;
+    }
 
-        return view.toString();
+    /*
+    EFFECTS: returns number of positions in the routine whose exercise has not met its goal sets
+     */
+    public int getUnmetGoalCount() {
+        return session.getUnmetCount();
     }
 
     /*
-    EFFECTS: generates header for Routine table
+    REQUIRES: this.exercises must be not empty
+    MODIFIES: this
+    EFFECTS: returns a string representation of the workout; the renderer is kept between calls so only rows that
+             changed since the last call are rendered again
      */
-    private String generateHeader() {
-        return getName() + "\n"
-                + "|Cur|Num|"
-                + String.format("%-25s|%-4s|%-4s|%-5s|%-3s|",
-                " Name",
-                "Sets",
-                "Reps",
-                " Wgt ",
-                "Prg") + "\n"
-                + new String(new char[55]).replace("\0", "=") + "\n";
+    public String viewWorkout() {
+        if (renderer == null) {
+            renderer = new WorkoutRenderer(this);
+        }
+        return renderer.render();
     }
 
     public String getName() {
@@ -223,8 +659,35 @@ public class Routine implements Writeable {
         String prev = this.name;
 
         this.name = name;
+        changed();
+
+        log(new Event(EventType.ROUTINE_RENAMED, name, null, prev, 0, 0));
+    }
+
+    /*
+    EFFECTS: logs e as an event of this routine
+     */
+    private void log(Event e) {
+        EventLog.getInstance().logEvent(e.from(this));
+    }
+
+    public PlateCalculator getPlateCalculator() {
+        return plates;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: sets the bar and plates used to work out barbell weights
+     */
+    public void setPlateCalculator(PlateCalculator plates) {
+        this.plates = plates;
+    }
 
-        EventLog.getInstance().logEvent(new Event("Routine name changed from " + prev + " to " + name));
+    /*
+    EFFECTS: returns this routine's version, which changes whenever the routine or one of its exercises does
+     */
+    public long getVersion() {
+        return version;
     }
 
     public ArrayList<Exercise> getExercises() {
@@ -232,39 +695,70 @@ public class Routine implements Writeable {
     }
 
     public boolean getInSession() {
-        return inSession;
+        return session.isActive();
     }
 
     public Exercise getCurrent() {
-        return current;
+        return session.current();
+    }
+
+    /*
+    EFFECTS: returns position of the current exercise, or -1 if not in session
+     */
+    public int getCurrentIndex() {
+        return session.getCursor();
     }
 
     public int getProgress() {
-        return progress;
+        return session.getProgress();
     }
 
-    @Override
     /*
-    EFFECTS: returns this as a JSON object
+    REQUIRES: 0 <= index < number of exercises
+    EFFECTS: returns the sets done in this session at position index
      */
-    public JSONObject toJson() {
-        JSONObject json = new JSONObject();
-        json.put("name", name);
-        json.put("exercises", exercisesToJson());
+    public int getProgress(int index) {
+        return session.getProgress(index);
+    }
 
-        return json;
+    /*
+    EFFECTS: returns an immutable snapshot of this routine as it is now; it reuses the cached snapshot of every
+             exercise that has not changed, and the same snapshot is returned until this routine changes
+     */
+    public RoutineSnapshot snapshot() {
+        if (snapshot == null) {
+            ExerciseSnapshot[] exerciseSnapshots = new ExerciseSnapshot[exercises.size()];
+            for (int i = 0; i < exercises.size(); i++) {
+                exerciseSnapshots[i] = exercises.get(i).snapshot();
+            }
+            snapshot = new RoutineSnapshot(name, exerciseSnapshots, session.getCursor(), copyProgress(),
+                    hasMetAllGoals(), version);
+        }
+        return snapshot;
     }
 
     /*
-    EFFECTS: returns exercises in this routine as a JSON array
+    MODIFIES: this
+    EFFECTS: drops the cached snapshot after a change this routine is not otherwise told about
      */
-    private JSONArray exercisesToJson() {
-        JSONArray jsonArray = new JSONArray();
+    void invalidateSnapshot() {
+        changed();
+    }
 
-        for (Exercise e : exercises) {
-            jsonArray.put(e.toJson());
-        }
+    /*
+    MODIFIES: this
+    EFFECTS: drops the cached snapshot and moves this routine on to a new version
+     */
+    private void changed() {
+        snapshot = null;
+        version = VERSIONS.incrementAndGet();
+    }
 
-        return jsonArray;
+    @Override
+    /*
+    EFFECTS: writes this as a JSON object
+     */
+    public void writeJson(JsonEmitter out) throws IOException {
+        snapshot().writeJson(out);
     }
 }
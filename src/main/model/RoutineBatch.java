@@ -0,0 +1,118 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A list of changes to a routine's exercises (adding, removing, moving and replacing) applied together.
+ * Nothing happens to the routine until apply is called; the changes are then made in the order they were
+ * added, without logging or notifying each one, and the routine logs one ROUTINE_EDITED event and tells its
+ * listeners once through RoutineListener.exercisesEdited. Indexes refer to the exercise list as it stands after
+ * the changes before them.
+ */
+public class RoutineBatch {
+    private final Routine routine;
+    private final List<Op> ops;
+    private boolean applied;
+
+    /*
+    EFFECTS: constructs an empty batch of changes to routine
+     */
+    RoutineBatch(Routine routine) {
+        this.routine = routine;
+        this.ops = new ArrayList<>();
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: adds an exercise to the end of the routine with the given sets and reps
+     */
+    public RoutineBatch add(Exercise e, int sets, int reps) {
+        return queue(new Op(Op.Kind.ADD, -1, -1, e, sets, reps));
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: removes the exercise at index
+     */
+    public RoutineBatch remove(int index) {
+        return queue(new Op(Op.Kind.REMOVE, index, -1, null, 0, 0));
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: moves the exercise at from to to, keeping its progress this session
+     */
+    public RoutineBatch move(int from, int to) {
+        return queue(new Op(Op.Kind.MOVE, from, to, null, 0, 0));
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: puts e with the given sets and reps in place of the exercise at index, with no sets done this session
+     */
+    public RoutineBatch replace(int index, Exercise e, int sets, int reps) {
+        return queue(new Op(Op.Kind.REPLACE, index, -1, e, sets, reps));
+    }
+
+    public int size() {
+        return ops.size();
+    }
+
+    /*
+    MODIFIES: this, routine
+    EFFECTS: makes every change to the routine, then logs and notifies once;
+             throws IllegalStateException if this batch has already been applied;
+             throws IndexOutOfBoundsException, leaving the routine and this batch as they were, if an index is not
+             valid when its change would be made
+     */
+    public void apply() {
+        if (applied) {
+            throw new IllegalStateException("Batch already applied");
+        }
+        routine.apply(ops);
+        applied = true;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: adds op to the end of the batch and returns this;
+             throws IllegalStateException if this batch has already been applied
+     */
+    private RoutineBatch queue(Op op) {
+        if (applied) {
+            throw new IllegalStateException("Batch already applied");
+        }
+        ops.add(op);
+        return this;
+    }
+
+    /**
+     * One change in a batch: its kind, the index it applies at, where a moved exercise goes, and the exercise
+     * with its sets and reps for additions and replacements.
+     */
+    static final class Op {
+        enum Kind {
+            ADD,
+            REMOVE,
+            MOVE,
+            REPLACE
+        }
+
+        final Kind kind;
+        final int index;
+        final int to;
+        final Exercise exercise;
+        final int sets;
+        final int reps;
+
+        private Op(Kind kind, int index, int to, Exercise exercise, int sets, int reps) {
+            this.kind = kind;
+            this.index = index;
+            this.to = to;
+            this.exercise = exercise;
+            this.sets = sets;
+            this.reps = reps;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package model;
+
+/**
+ * Notified of changes to a Routine it is registered with: which exercise changed and how, where
+ * the current exercise pointer moved, and when the routine starts or stops meeting all its goals.
+ * A RoutineBatch is reported once through exercisesEdited instead. Positions are indexes into
+ * Routine.getExercises(); -1 means no exercise. Every method does nothing by default so listeners only
+ * implement what they need.
+ */
+public interface RoutineListener {
+    /*
+    EFFECTS: handles field of the exercise at index having just changed
+     */
+    default void exerciseChanged(Routine routine, int index, ExerciseField field) {
+    }
+
+    /*
+    EFFECTS: handles an exercise having just been inserted at index
+     */
+    default void exerciseAdded(Routine routine, int index) {
+    }
+
+    /*
+    EFFECTS: handles the exercise at index having just been removed
+     */
+    default void exerciseRemoved(Routine routine, int index) {
+    }
+
+    /*
+    EFFECTS: handles the current exercise having just moved from oldIndex to newIndex
+     */
+    default void currentMoved(Routine routine, int oldIndex, int newIndex) {
+    }
+
+    /*
+    EFFECTS: handles the routine having just started (allMet) or stopped meeting the goals of all its exercises
+     */
+    default void goalStatusChanged(Routine routine, boolean allMet) {
+    }
+
+    /*
+    EFFECTS: handles a batch of changes having just been made to the exercises; any position, the current
+             exercise and the goal status may all have changed, and are not reported separately
+     */
+    default void exercisesEdited(Routine routine) {
+    }
+}
@@ -0,0 +1,103 @@
+package model;
+
+import persistence.JsonEmitter;
+import persistence.Writeable;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable view of a Routine as it was when the snapshot was taken: its name, a snapshot of every exercise
+ * and the session state. Taking one only copies what changed since the last snapshot; exercises that have
+ * not changed contribute the snapshot they already had.
+ * All fields are final, so a snapshot can be saved, rendered or analysed on another thread while the session
+ * goes on changing the routine. A snapshot carries the version of the routine it was taken from.
+ */
+public final class RoutineSnapshot implements Writeable {
+    private final String name;
+    private final List<ExerciseSnapshot> exercises;
+    private final int currentIndex;
+    private final int[] progress;
+    private final boolean metAllGoals;
+    private final long version;
+
+    /*
+    REQUIRES: progress has an entry per exercise
+    EFFECTS: constructs a snapshot from already taken exercise snapshots and session state
+     */
+    RoutineSnapshot(String name, ExerciseSnapshot[] exercises, int currentIndex, int[] progress,
+                    boolean metAllGoals, long version) {
+        this.name = name;
+        this.exercises = Collections.unmodifiableList(Arrays.asList(exercises));
+        this.currentIndex = currentIndex;
+        this.progress = progress;
+        this.metAllGoals = metAllGoals;
+        this.version = version;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /*
+    EFFECTS: returns the exercise snapshots in routine order; the list cannot be modified
+     */
+    public List<ExerciseSnapshot> getExercises() {
+        return exercises;
+    }
+
+    public boolean getInSession() {
+        return currentIndex >= 0;
+    }
+
+    /*
+    EFFECTS: returns position of the current exercise, or -1 if not in session
+     */
+    public int getCurrentIndex() {
+        return currentIndex;
+    }
+
+    /*
+    REQUIRES: 0 <= index < number of exercises
+    EFFECTS: returns the sets done in the session at position index
+     */
+    public int getProgress(int index) {
+        return progress[index];
+    }
+
+    public boolean hasMetAllGoals() {
+        return metAllGoals;
+    }
+
+    /*
+    EFFECTS: returns the version of the routine when this snapshot was taken
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    /*
+    EFFECTS: writes this as a JSON object
+     */
+    public void writeJson(JsonEmitter out) throws IOException {
+        out.beginObject();
+        out.name("name").value(name);
+        out.name("exercises");
+        writeExercises(out);
+        out.endObject();
+    }
+
+    /*
+    EFFECTS: writes exercises in this snapshot as a JSON array
+     */
+    private void writeExercises(JsonEmitter out) throws IOException {
+        out.beginArray();
+        for (ExerciseSnapshot e : exercises) {
+            e.writeJson(out);
+        }
+        out.endArray();
+    }
+}
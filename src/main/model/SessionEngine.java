@@ -0,0 +1,266 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Session state of a routine: the position of the current exercise in the routine's list, how many sets
+ * have been done at every position, and whether each position has met its goal sets. Positions are tracked by
+ * index rather than by exercise, so the same exercise can appear more than once (as in a superset) and each
+ * appearance keeps its own progress and goal; the exercises themselves are never written to. The number of
+ * positions short of their goal is kept up to date, so goal queries need not visit every position.
+ * Moving between exercises and completing sets never searches the list or allocates.
+ */
+final class SessionEngine {
+    /** cursor value meaning no session is in progress */
+    static final int NO_EXERCISE = -1;
+    private static final int INITIAL_SLOTS = 8;
+
+    private final List<Exercise> exercises;
+    private int cursor;
+    private int[] progress;
+    private boolean[] met;
+    private int unmet;
+
+    /*
+    EFFECTS: constructs engine for the given exercise list, not in session
+     */
+    SessionEngine(List<Exercise> exercises) {
+        this.exercises = exercises;
+        this.cursor = NO_EXERCISE;
+        this.progress = new int[Math.max(INITIAL_SLOTS, exercises.size())];
+        this.met = new boolean[progress.length];
+        recount();
+    }
+
+    /*
+    REQUIRES: exercises is not empty
+    MODIFIES: this
+    EFFECTS: starts a session at the first exercise with no sets done anywhere
+     */
+    void begin() {
+        Arrays.fill(progress, 0);
+        recount();
+        cursor = 0;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: ends the session
+     */
+    void end() {
+        cursor = NO_EXERCISE;
+    }
+
+    boolean isActive() {
+        return cursor != NO_EXERCISE;
+    }
+
+    int getCursor() {
+        return cursor;
+    }
+
+    /*
+    EFFECTS: returns the current exercise, or null if not in session
+     */
+    Exercise current() {
+        return cursor == NO_EXERCISE ? null : exercises.get(cursor);
+    }
+
+    boolean atLast() {
+        return cursor == exercises.size() - 1;
+    }
+
+    /*
+    EFFECTS: returns the sets done at the current position, or 0 if not in session
+     */
+    int getProgress() {
+        return cursor == NO_EXERCISE ? 0 : progress[cursor];
+    }
+
+    /*
+    REQUIRES: 0 <= index < number of exercises
+    EFFECTS: returns the sets done at position index in this session
+     */
+    int getProgress(int index) {
+        return progress[index];
+    }
+
+    /*
+    REQUIRES: in session
+    MODIFIES: this
+    EFFECTS: records one more set done at the current position and returns true if that meets its goal sets
+     */
+    boolean completeSet() {
+        progress[cursor]++;
+        refreshGoal(cursor);
+        return met[cursor];
+    }
+
+    /*
+    REQUIRES: 0 <= index < number of exercises, sets >= 0
+    MODIFIES: this
+    EFFECTS: sets the sets done at position index; returns true if whether it meets its goal changed
+     */
+    boolean setProgress(int index, int sets) {
+        progress[index] = sets;
+        return refreshGoal(index);
+    }
+
+    /*
+    REQUIRES: 0 <= index < number of exercises
+    EFFECTS: returns true if the sets done at position index meet its exercise's goal sets
+     */
+    boolean isGoalMet(int index) {
+        return met[index];
+    }
+
+    /*
+    EFFECTS: returns number of positions whose sets done fall short of their exercise's goal sets
+     */
+    int getUnmetCount() {
+        return unmet;
+    }
+
+    /*
+    REQUIRES: 0 <= index < number of exercises
+    MODIFIES: this
+    EFFECTS: works out again whether position index meets its goal, as after its exercise's goal sets changed;
+             returns true if that changed
+     */
+    boolean refreshGoal(int index) {
+        boolean now = progress[index] >= exercises.get(index).getSets();
+        if (now == met[index]) {
+            return false;
+        }
+        met[index] = now;
+        unmet += now ? -1 : 1;
+        return true;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: works out again whether every position meets its goal, as after many exercises changed at once
+     */
+    void recount() {
+        unmet = 0;
+        for (int i = 0; i < exercises.size(); i++) {
+            met[i] = progress[i] >= exercises.get(i).getSets();
+            if (!met[i]) {
+                unmet++;
+            }
+        }
+    }
+
+    /*
+    REQUIRES: index is NO_EXERCISE or a valid position
+    MODIFIES: this
+    EFFECTS: makes index the current position, ending the session if it is NO_EXERCISE
+     */
+    void moveTo(int index) {
+        cursor = index;
+    }
+
+    /*
+    REQUIRES: index is NO_EXERCISE or a valid position, done has an entry per exercise
+    MODIFIES: this
+    EFFECTS: puts the session back at index with done sets at each position
+     */
+    void restore(int index, int[] done) {
+        Arrays.fill(progress, 0);
+        ensureSlots(done.length);
+        System.arraycopy(done, 0, progress, 0, done.length);
+        recount();
+        cursor = index;
+    }
+
+    /*
+    REQUIRES: an exercise has just been inserted at index
+    MODIFIES: this
+    EFFECTS: opens an empty slot at index, counting it unmet if its exercise has goal sets, keeping the cursor
+             on the same exercise
+     */
+    void inserted(int index) {
+        int size = exercises.size();
+        ensureSlots(size);
+        System.arraycopy(progress, index, progress, index + 1, size - 1 - index);
+        System.arraycopy(met, index, met, index + 1, size - 1 - index);
+        progress[index] = 0;
+        met[index] = true;
+        refreshGoal(index);
+        if (cursor != NO_EXERCISE && index <= cursor) {
+            cursor++;
+        }
+    }
+
+    /*
+    REQUIRES: the exercise at index has just been removed
+    MODIFIES: this
+    EFFECTS: closes the slot at index; the cursor stays on the same exercise, or moves to the one that took
+             the removed exercise's place, ending the session if there is none
+     */
+    void removed(int index) {
+        int size = exercises.size();
+        if (!met[index]) {
+            unmet--;
+        }
+        System.arraycopy(progress, index + 1, progress, index, size - index);
+        System.arraycopy(met, index + 1, met, index, size - index);
+        progress[size] = 0;
+        if (cursor == NO_EXERCISE) {
+            return;
+        }
+        if (index < cursor) {
+            cursor--;
+        } else if (index == cursor && cursor == size) {
+            cursor = NO_EXERCISE;
+        }
+    }
+
+    /*
+    REQUIRES: the exercise at from has just been moved to to
+    MODIFIES: this
+    EFFECTS: moves the slot at from to to, keeping the cursor on the same exercise
+     */
+    void moved(int from, int to) {
+        int done = progress[from];
+        boolean doneMet = met[from];
+        if (from < to) {
+            System.arraycopy(progress, from + 1, progress, from, to - from);
+            System.arraycopy(met, from + 1, met, from, to - from);
+        } else {
+            System.arraycopy(progress, to, progress, to + 1, from - to);
+            System.arraycopy(met, to, met, to + 1, from - to);
+        }
+        progress[to] = done;
+        met[to] = doneMet;
+        if (cursor == from) {
+            cursor = to;
+        } else if (from < cursor && cursor <= to) {
+            cursor--;
+        } else if (to <= cursor && cursor < from) {
+            cursor++;
+        }
+    }
+
+    /*
+    REQUIRES: the exercise at index has just been replaced
+    MODIFIES: this
+    EFFECTS: empties the slot at index; the cursor stays at index if it was there
+     */
+    void replaced(int index) {
+        progress[index] = 0;
+        refreshGoal(index);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: grows the progress array to hold at least slots positions
+     */
+    private void ensureSlots(int slots) {
+        if (slots > progress.length) {
+            progress = Arrays.copyOf(progress, Math.max(slots, progress.length * 2));
+            met = Arrays.copyOf(met, progress.length);
+        }
+    }
+}
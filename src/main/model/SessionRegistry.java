@@ -0,0 +1,307 @@
+package model;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Hosts many live workout sessions at once, one per member, for the same or different routines. Each session
+ * works on its own copy of the routine plan, so sessions never share state. Work on a session is queued and run
+ * in order on a shared pool of worker threads, one sized to the number of cores by default: a session's actions
+ * never run at the same time as each other, but different sessions run in parallel.
+ * Sessions log their events from many workers at once; useThreadLocalEventStore switches an unbounded event log
+ * to a ThreadLocalEventStore, where each worker appends without taking a lock. It changes the log for the whole
+ * program, so it is a separate call to make at startup, before anything else logs, and never a side effect of
+ * making a registry.
+ * An action that throws, even an Error, completes its future with what it threw, and actions queued once the
+ * registry has shut down complete with a RejectedExecutionException.
+ * Everything is reached by member id; the routines themselves never leave their session's queue.
+ */
+public class SessionRegistry {
+    /** most actions a session runs before letting other sessions have the worker thread */
+    private static final int BATCH_SIZE = 32;
+
+    private final ConcurrentMap<String, LiveSession> sessions;
+    private final ExecutorService workers;
+
+    /*
+    EFFECTS: constructs an empty registry with one worker thread per available core
+     */
+    public SessionRegistry() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /*
+    REQUIRES: threads > 0
+    EFFECTS: constructs an empty registry running sessions on the given number of worker threads
+     */
+    public SessionRegistry(int threads) {
+        sessions = new ConcurrentHashMap<>();
+        workers = Executors.newFixedThreadPool(threads, new WorkerFactory());
+    }
+
+    /*
+    REQUIRES: nothing else is logging events
+    MODIFIES: EventLog
+    EFFECTS: keeps the event log in a ThreadLocalEventStore if it is unbounded and not already in one, so session
+             workers log without contending for a lock; a log bounded to a capacity is kept as it is
+     */
+    public static void useThreadLocalEventStore() {
+        EventLog log = EventLog.getInstance();
+        if (log.getCapacity() == EventLog.UNBOUNDED && !(log.getStore() instanceof ThreadLocalEventStore)) {
+            log.setStore(new ThreadLocalEventStore());
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: starts a session of a copy of plan for member and returns when it has begun;
+             throws IllegalStateException if member already has a live session
+     */
+    public CompletableFuture<Void> start(String member, Routine plan) {
+        LiveSession session = new LiveSession(plan.copyPlan());
+        if (sessions.putIfAbsent(member, session) != null) {
+            throw new IllegalStateException("Session already live for " + member);
+        }
+        return session.run(Routine::beginSession);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: ends member's session and removes it, completing with the routine as it ended;
+             throws IllegalArgumentException if member has no live session
+     */
+    public CompletableFuture<Routine> end(String member) {
+        LiveSession session = sessions.remove(member);
+        if (session == null) {
+            throw new IllegalArgumentException("No live session for " + member);
+        }
+        return session.call(r -> {
+            if (r.getInSession()) {
+                r.endSession();
+            }
+            return r;
+        });
+    }
+
+    /*
+    EFFECTS: queues action to run on member's routine after everything already queued for member, and returns
+             what it returns; throws IllegalArgumentException if member has no live session
+     */
+    public <T> CompletableFuture<T> call(String member, Function<Routine, T> action) {
+        return session(member).call(action);
+    }
+
+    /*
+    EFFECTS: queues action to run on member's routine after everything already queued for member;
+             throws IllegalArgumentException if member has no live session
+     */
+    public CompletableFuture<Void> run(String member, Consumer<Routine> action) {
+        return session(member).run(action);
+    }
+
+    /*
+    EFFECTS: queues a completed set of reps for member's current exercise; does nothing once the session is over
+     */
+    public CompletableFuture<Void> completeSet(String member, int reps) {
+        return run(member, r -> {
+            if (r.getInSession()) {
+                r.addSetToProgress(reps);
+            }
+        });
+    }
+
+    /*
+    EFFECTS: queues skipping member's current exercise; does nothing once the session is over
+     */
+    public CompletableFuture<Void> skipExercise(String member) {
+        return run(member, r -> {
+            if (r.getInSession()) {
+                r.skipExercise();
+            }
+        });
+    }
+
+    /*
+    EFFECTS: queues setting the weight of member's current exercise; does nothing once the session is over
+     */
+    public CompletableFuture<Void> addWeight(String member, int weight) {
+        return run(member, r -> {
+            if (r.getInSession()) {
+                r.addWeightToCurrent(weight);
+            }
+        });
+    }
+
+    /*
+    EFFECTS: returns member's workout as text once everything already queued for member has run
+     */
+    public CompletableFuture<String> view(String member) {
+        return call(member, Routine::viewWorkout);
+    }
+
+    public boolean isLive(String member) {
+        return sessions.containsKey(member);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /*
+    EFFECTS: returns the members with live sessions; the set reflects sessions started and ended later
+     */
+    public Set<String> members() {
+        return sessions.keySet();
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: runs every action already queued, then stops the worker threads; waits at most timeoutMillis and
+             returns true if everything finished
+     */
+    public boolean shutdown(long timeoutMillis) throws InterruptedException {
+        workers.shutdown();
+        return workers.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /*
+    EFFECTS: returns member's live session; throws IllegalArgumentException if there is none
+     */
+    private LiveSession session(String member) {
+        LiveSession session = sessions.get(member);
+        if (session == null) {
+            throw new IllegalArgumentException("No live session for " + member);
+        }
+        return session;
+    }
+
+    /**
+     * One member's routine and the queue of actions waiting to run on it. At most one worker drains the queue
+     * at a time; handing the queue from one worker to the next goes through the running flag, so each action
+     * sees everything earlier actions did to the routine.
+     */
+    private final class LiveSession {
+        private final Routine routine;
+        private final Queue<Step<?>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        private LiveSession(Routine routine) {
+            this.routine = routine;
+        }
+
+        /*
+        EFFECTS: queues action and returns a future completed with its result, or with what it threw
+         */
+        private <T> CompletableFuture<T> call(Function<Routine, T> action) {
+            Step<T> step = new Step<>(action);
+            queue.add(step);
+            schedule();
+            return step.result;
+        }
+
+        /*
+        EFFECTS: queues action and returns a future completed once it has run
+         */
+        private CompletableFuture<Void> run(Consumer<Routine> action) {
+            return call(r -> {
+                action.accept(r);
+                return null;
+            });
+        }
+
+        /*
+        EFFECTS: hands the queue to a worker unless one already has it; if the registry has shut down, completes
+                 everything queued with the rejection instead
+         */
+        private void schedule() {
+            if (!queue.isEmpty() && running.compareAndSet(false, true)) {
+                try {
+                    workers.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    rejectQueued(e);
+                }
+            }
+        }
+
+        /*
+        MODIFIES: this
+        EFFECTS: completes every queued action with e without running it, then gives the queue back
+         */
+        private void rejectQueued(RejectedExecutionException e) {
+            Step<?> step;
+            while ((step = queue.poll()) != null) {
+                step.result.completeExceptionally(e);
+            }
+            running.set(false);
+        }
+
+        /*
+        EFFECTS: runs up to BATCH_SIZE queued actions (all of them once the registry is shutting down), then gives
+                 the queue back and reschedules if more arrived
+         */
+        private void drain() {
+            try {
+                Step<?> step;
+                int ran = 0;
+                while ((ran < BATCH_SIZE || workers.isShutdown()) && (step = queue.poll()) != null) {
+                    step.run(routine);
+                    ran++;
+                }
+            } finally {
+                running.set(false);
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * One queued action and the future its result, or whatever it threw, completes.
+     */
+    private static final class Step<T> {
+        private final Function<Routine, T> action;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Step(Function<Routine, T> action) {
+            this.action = action;
+        }
+
+        /*
+        MODIFIES: routine
+        EFFECTS: runs the action on routine and completes the result with what it returns or throws
+         */
+        private void run(Routine routine) {
+            try {
+                result.complete(action.apply(routine));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }
+    }
+
+    /**
+     * Makes named daemon worker threads, so an idle registry does not keep the program running.
+     */
+    private static final class WorkerFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "session-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
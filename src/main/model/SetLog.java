@@ -0,0 +1,153 @@
+package model;
+
+import persistence.JsonEmitter;
+import persistence.Writeable;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The sets completed for one exercise, each with the reps done, the weight used in lb and the time it was
+ * completed in milliseconds since the epoch. The three values are kept in parallel growable primitive arrays,
+ * so a log of hundreds of sets is three arrays rather than hundreds of objects.
+ * A snapshot shares the arrays of the log it was taken from: sets are only ever written past the end of what
+ * earlier snapshots can see, and clearing starts new arrays, so a snapshot never changes.
+ */
+public class SetLog implements Writeable {
+    private static final int INITIAL_SIZE = 8;
+
+    private int[] reps;
+    private int[] weights;
+    private long[] times;
+    private int size;
+    private final boolean readOnly;
+
+    /*
+    EFFECTS: constructs an empty log
+     */
+    public SetLog() {
+        this(new int[INITIAL_SIZE], new int[INITIAL_SIZE], new long[INITIAL_SIZE], 0, false);
+    }
+
+    /*
+    EFFECTS: constructs a log of the first size sets in the given arrays
+     */
+    private SetLog(int[] reps, int[] weights, long[] times, int size, boolean readOnly) {
+        this.reps = reps;
+        this.weights = weights;
+        this.times = times;
+        this.size = size;
+        this.readOnly = readOnly;
+    }
+
+    /*
+    EFFECTS: returns a read-only log of the sets recorded so far, sharing this log's arrays
+     */
+    public SetLog snapshot() {
+        return readOnly ? this : new SetLog(reps, weights, times, size, true);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: records a set of reps at weight completed at time (milliseconds since the epoch);
+             throws UnsupportedOperationException if this is a snapshot
+     */
+    public void add(int reps, int weight, long time) {
+        checkWritable();
+        if (size == times.length) {
+            int grown = size * 2;
+            this.reps = Arrays.copyOf(this.reps, grown);
+            this.weights = Arrays.copyOf(this.weights, grown);
+            this.times = Arrays.copyOf(this.times, grown);
+        }
+        this.reps[size] = reps;
+        this.weights[size] = weight;
+        this.times[size] = time;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /*
+    REQUIRES: 0 <= index < size()
+    EFFECTS: returns the reps done in the set at index
+     */
+    public int getReps(int index) {
+        return reps[index];
+    }
+
+    /*
+    REQUIRES: 0 <= index < size()
+    EFFECTS: returns the weight used in the set at index
+     */
+    public int getWeight(int index) {
+        return weights[index];
+    }
+
+    /*
+    REQUIRES: 0 <= index < size()
+    EFFECTS: returns the time the set at index was completed, in milliseconds since the epoch
+     */
+    public long getTime(int index) {
+        return times[index];
+    }
+
+    /*
+    EFFECTS: returns the total weight moved over every set (reps times weight)
+     */
+    public long getVolume() {
+        long volume = 0;
+        for (int i = 0; i < size; i++) {
+            volume += (long) reps[i] * weights[i];
+        }
+        return volume;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: removes every set, starting new arrays so snapshots keep theirs;
+             throws UnsupportedOperationException if this is a snapshot
+     */
+    public void clear() {
+        checkWritable();
+        reps = new int[INITIAL_SIZE];
+        weights = new int[INITIAL_SIZE];
+        times = new long[INITIAL_SIZE];
+        size = 0;
+    }
+
+    /*
+    EFFECTS: throws UnsupportedOperationException if this is a snapshot
+     */
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Set log snapshot is read-only");
+        }
+    }
+
+    @Override
+    /*
+    EFFECTS: writes this as a JSON object holding one array per column
+     */
+    public void writeJson(JsonEmitter out) throws IOException {
+        out.beginObject();
+        out.name("reps").beginArray();
+        for (int i = 0; i < size; i++) {
+            out.value(reps[i]);
+        }
+        out.endArray();
+        out.name("weights").beginArray();
+        for (int i = 0; i < size; i++) {
+            out.value(weights[i]);
+        }
+        out.endArray();
+        out.name("times").beginArray();
+        for (int i = 0; i < size; i++) {
+            out.value(times[i]);
+        }
+        out.endArray();
+        out.endObject();
+    }
+}
@@ -0,0 +1,281 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Event store for logging from many threads at once. Each logging thread appends to a buffer of its own
+ * without taking any lock: the buffer is a chain of fixed-size chunks only its thread writes to, and a
+ * volatile count publishes each event to readers once it is fully written.
+ * Readers take the published part of every buffer and merge the buffers in time stamp order. Reading,
+ * draining and clearing lock the store against each other, but never against loggers.
+ * Buffers of threads that have died are dropped once everything in them has been drained or cleared.
+ */
+public class ThreadLocalEventStore implements EventStore {
+    private static final int CHUNK_SIZE = 256;
+
+    private final List<ThreadBuffer> buffers;
+    private final ThreadLocal<ThreadBuffer> localBuffer;
+
+    /*
+    EFFECTS: constructs an empty store
+     */
+    public ThreadLocalEventStore() {
+        buffers = new CopyOnWriteArrayList<>();
+        localBuffer = ThreadLocal.withInitial(this::register);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: appends e to the calling thread's buffer; never blocks
+     */
+    @Override
+    public void append(Event e) {
+        localBuffer.get().append(e);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (ThreadBuffer buffer : buffers) {
+            int start = buffer.start;
+            size += buffer.published - start;
+        }
+        return size;
+    }
+
+    /*
+    MODIFIES: this, target
+    EFFECTS: removes every event published so far and adds them to target in time stamp order; events
+             appended while draining stay in the store
+     */
+    @Override
+    public synchronized int drainTo(Collection<? super Event> target) {
+        List<Event> drained = merge(true);
+        target.addAll(drained);
+        return drained.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (ThreadBuffer buffer : buffers) {
+            buffer.discardTo(buffer.published);
+        }
+        dropDeadBuffers();
+    }
+
+    @Override
+    public List<Event> between(long fromNanos, long toNanos) {
+        List<Event> found = new ArrayList<>();
+        for (Event e : snapshot()) {
+            if (e.getTimeNanos() >= fromNanos && e.getTimeNanos() <= toNanos) {
+                found.add(e);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<Event> query(EventQuery query) {
+        List<Event> found = new ArrayList<>();
+        for (Event e : snapshot()) {
+            if (query.matches(e)) {
+                found.add(e);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Iterator<Event> iterator() {
+        return snapshot().iterator();
+    }
+
+    /*
+    EFFECTS: returns every event published so far, in time stamp order
+     */
+    private synchronized List<Event> snapshot() {
+        return merge(false);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: creates and registers the buffer of the calling thread
+     */
+    private ThreadBuffer register() {
+        ThreadBuffer buffer = new ThreadBuffer(Thread.currentThread());
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    /*
+    REQUIRES: caller holds the lock on this
+    MODIFIES: this if consume
+    EFFECTS: returns the events published in every buffer merged in time stamp order, each buffer being
+             in the order its thread logged; if consume, removes them from the buffers
+     */
+    private List<Event> merge(boolean consume) {
+        List<Event> merged = new ArrayList<>();
+        List<BufferCursor> cursors = new ArrayList<>();
+        for (ThreadBuffer buffer : buffers) {
+            cursors.add(new BufferCursor(buffer));
+        }
+        mergeInto(merged, cursors);
+
+        if (consume) {
+            for (BufferCursor cursor : cursors) {
+                cursor.buffer.discardTo(cursor.end);
+            }
+            dropDeadBuffers();
+        }
+        return merged;
+    }
+
+    /*
+    MODIFIES: merged
+    EFFECTS: appends the events left under every cursor to merged in time stamp order
+     */
+    private static void mergeInto(List<Event> merged, List<BufferCursor> cursors) {
+        PriorityQueue<BufferCursor> heads = new PriorityQueue<>();
+        for (BufferCursor cursor : cursors) {
+            if (cursor.hasEvent()) {
+                heads.add(cursor);
+            }
+        }
+        while (!heads.isEmpty()) {
+            BufferCursor cursor = heads.poll();
+            merged.add(cursor.event);
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+    }
+
+    /*
+    REQUIRES: caller holds the lock on this
+    MODIFIES: this
+    EFFECTS: forgets the buffers of threads that have died once they hold no events
+     */
+    private void dropDeadBuffers() {
+        for (ThreadBuffer buffer : buffers) {
+            if (!buffer.owner.isAlive() && buffer.published == buffer.start) {
+                buffers.remove(buffer);
+            }
+        }
+    }
+
+    /**
+     * A fixed-size run of events within one thread's buffer.
+     */
+    private static final class Chunk {
+        private final int base;
+        private final Event[] events = new Event[CHUNK_SIZE];
+        private volatile Chunk next;
+
+        private Chunk(int base) {
+            this.base = base;
+        }
+    }
+
+    /**
+     * The events logged by one thread. Only the owner writes tail and count; it then publishes the new
+     * count so other threads see every event up to it. Readers move start and head forward, dropping
+     * chunks the owner has finished with.
+     */
+    private static final class ThreadBuffer {
+        private final Thread owner;
+        private Chunk tail;
+        private int count;
+        private volatile int published;
+        private volatile Chunk head;
+        private volatile int start;
+
+        private ThreadBuffer(Thread owner) {
+            this.owner = owner;
+            this.tail = new Chunk(0);
+            this.head = tail;
+        }
+
+        /*
+        REQUIRES: called only by owner
+        MODIFIES: this
+        EFFECTS: appends e and publishes it
+         */
+        private void append(Event e) {
+            if (count == tail.base + CHUNK_SIZE) {
+                Chunk next = new Chunk(count);
+                tail.next = next;
+                tail = next;
+            }
+            tail.events[count - tail.base] = e;
+            count++;
+            published = count;
+        }
+
+        /*
+        REQUIRES: start <= index <= published, caller holds the store's lock
+        MODIFIES: this
+        EFFECTS: discards the events before index, unlinking chunks that hold none of the rest
+         */
+        private void discardTo(int index) {
+            Chunk first = head;
+            while (first.next != null && first.next.base <= index) {
+                first = first.next;
+            }
+            head = first;
+            start = index;
+        }
+    }
+
+    /**
+     * Position within the published part of a buffer, ordered by the time of the event it is at.
+     */
+    private static final class BufferCursor implements Comparable<BufferCursor> {
+        private final ThreadBuffer buffer;
+        private final int end;
+        private Chunk chunk;
+        private int index;
+        private Event event;
+
+        /*
+        EFFECTS: constructs cursor at the first live event of buffer, stopping at the events published so far
+         */
+        private BufferCursor(ThreadBuffer buffer) {
+            this.buffer = buffer;
+            this.end = buffer.published;
+            this.chunk = buffer.head;
+            this.index = buffer.start - 1;
+            advance();
+        }
+
+        private boolean hasEvent() {
+            return event != null;
+        }
+
+        /*
+        MODIFIES: this
+        EFFECTS: moves to the next event, returning false (and leaving no event) if there is none
+         */
+        private boolean advance() {
+            index++;
+            if (index >= end) {
+                event = null;
+                return false;
+            }
+            while (index >= chunk.base + CHUNK_SIZE) {
+                chunk = chunk.next;
+            }
+            event = chunk.events[index - chunk.base];
+            return true;
+        }
+
+        @Override
+        public int compareTo(BufferCursor other) {
+            return Long.compare(event.getTimeNanos(), other.event.getTimeNanos());
+        }
+    }
+}
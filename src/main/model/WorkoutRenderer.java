@@ -0,0 +1,185 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Renders a routine as the text table shown by the console. The header and every row are cached; as a
+ * RoutineListener the renderer marks rows dirty when their exercise changes, when the current exercise moves
+ * onto or off them, or when rows before them are inserted or removed, and only dirty rows are rendered again.
+ * Columns are padded by hand into one reused buffer instead of going through String.format.
+ */
+public class WorkoutRenderer implements RoutineListener {
+    private static final int TABLE_WIDTH = 55;
+    private static final String SEPARATOR = repeat('=', TABLE_WIDTH);
+    private static final String COLUMN_TITLES = "|Cur|Num| Name                    |Sets|Reps| Wgt |Prg|";
+    private static final int NAME_WIDTH = 25;
+    private static final int SETS_WIDTH = 4;
+    private static final int REPS_WIDTH = 4;
+    private static final int WEIGHT_WIDTH = 5;
+    private static final int PROGRESS_WIDTH = 3;
+    private static final int INITIAL_ROWS = 16;
+
+    private final Routine routine;
+    private final StringBuilder buffer;
+    private String header;
+    private String headerName;
+    private String[] rows;
+    private int rowCount;
+
+    /*
+    MODIFIES: routine
+    EFFECTS: constructs renderer for routine and registers it to be told about changes
+     */
+    public WorkoutRenderer(Routine routine) {
+        this.routine = routine;
+        this.buffer = new StringBuilder();
+        this.rows = new String[Math.max(INITIAL_ROWS, routine.getExercises().size())];
+        this.rowCount = routine.getExercises().size();
+        routine.addListener(this);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: returns the routine as a text table with a header, a row per exercise (the current one starred) and
+             whether all goals are met, rendering only what changed since the last call
+     */
+    public String render() {
+        buffer.setLength(0);
+        buffer.append(header());
+        for (int i = 0; i < rowCount; i++) {
+            if (rows[i] == null) {
+                rows[i] = renderRow(i);
+            }
+            buffer.append(rows[i]).append('\n');
+        }
+        buffer.append(SEPARATOR).append('\n');
+        buffer.append("Met Goal: ").append(routine.hasMetAllGoals() ? "Yes" : "No");
+
+        return buffer.toString();
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: stops listening to the routine
+     */
+    public void detach() {
+        routine.removeListener(this);
+    }
+
+    @Override
+    public void exerciseChanged(Routine routine, int index, ExerciseField field) {
+        rows[index] = null;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: opens a dirty row at index; rows after it are renumbered so they are dirty too
+     */
+    @Override
+    public void exerciseAdded(Routine routine, int index) {
+        if (rowCount == rows.length) {
+            rows = Arrays.copyOf(rows, rowCount * 2);
+        }
+        rowCount++;
+        Arrays.fill(rows, index, rowCount, null);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: closes the row at index; rows after it are renumbered so they are dirty
+     */
+    @Override
+    public void exerciseRemoved(Routine routine, int index) {
+        rowCount--;
+        Arrays.fill(rows, index, rowCount + 1, null);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: resizes to the routine's exercises and marks every row dirty
+     */
+    @Override
+    public void exercisesEdited(Routine routine) {
+        rowCount = routine.getExercises().size();
+        if (rowCount > rows.length) {
+            rows = new String[Math.max(rowCount, rows.length * 2)];
+        } else {
+            Arrays.fill(rows, null);
+        }
+    }
+
+    @Override
+    public void currentMoved(Routine routine, int oldIndex, int newIndex) {
+        if (oldIndex >= 0 && oldIndex < rowCount) {
+            rows[oldIndex] = null;
+        }
+        if (newIndex >= 0 && newIndex < rowCount) {
+            rows[newIndex] = null;
+        }
+    }
+
+    /*
+    EFFECTS: appends the name, sets, reps and weight columns of e and completed as its sets completed to sb, each
+             padded to its width
+     */
+    static void appendColumns(StringBuilder sb, Exercise e, int completed) {
+        int start = sb.length();
+        pad(sb.append(' ').append(e.getName()), start, NAME_WIDTH).append('|');
+        padColumn(sb, e.getSets(), SETS_WIDTH);
+        padColumn(sb, e.getReps(), REPS_WIDTH);
+        padColumn(sb, e.getWeight(), WEIGHT_WIDTH);
+        padColumn(sb, completed, PROGRESS_WIDTH);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: returns the cached header, rebuilding it if the routine has been renamed
+     */
+    private String header() {
+        if (header == null || !routine.getName().equals(headerName)) {
+            headerName = routine.getName();
+            header = headerName + "\n" + COLUMN_TITLES + "\n" + SEPARATOR + "\n";
+        }
+        return header;
+    }
+
+    /*
+    EFFECTS: returns the row for the exercise at index, numbered from 1 and starred if it is current
+     */
+    private String renderRow(int index) {
+        int start = buffer.length();
+        buffer.append("| ").append(index == routine.getCurrentIndex() ? '*' : ' ').append(" | ")
+                .append(index + 1).append(" |");
+        appendColumns(buffer, routine.getExercises().get(index), routine.getProgress(index));
+        String row = buffer.substring(start);
+        buffer.setLength(start);
+        return row;
+    }
+
+    /*
+    EFFECTS: appends a space and value to sb, padded to width, then a column bar
+     */
+    private static void padColumn(StringBuilder sb, int value, int width) {
+        int start = sb.length();
+        pad(sb.append(' ').append(value), start, width).append('|');
+    }
+
+    /*
+    EFFECTS: appends spaces to sb until what was appended since start is at least width characters long
+     */
+    private static StringBuilder pad(StringBuilder sb, int start, int width) {
+        for (int i = sb.length() - start; i < width; i++) {
+            sb.append(' ');
+        }
+        return sb;
+    }
+
+    /*
+    EFFECTS: returns c repeated count times
+     */
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,304 @@
+package persistence;
+
+import model.Event;
+import model.EventLog;
+import model.ExerciseField;
+import model.Routine;
+import model.RoutineListener;
+import model.RoutineSnapshot;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves a routine in the background while it is in session, so progress is kept without pressing save.
+ * The service listens to the routine it watches, and every change during a session (and the change ending it)
+ * only marks the routine as waiting to be saved. Bursts of changes are saved once: the routine is saved when it
+ * has been quiet for quietMillis, or maxDelayMillis after the first unsaved change if changes keep coming, so
+ * there is at most one snapshot and one write per quiet period however fast sets are logged. A routine is not
+ * safe to read while it is being changed, so the snapshot is taken on the thread that changes it, by handing
+ * a task to the executor given for that thread; the write is then done by a JsonWriter on one background
+ * thread, so the thread changing the routine never waits for the disk, and saves that would not change the
+ * file are skipped. A save that fails is logged as an event and the next change tries again. Once the service
+ * is closed it watches nothing more.
+ */
+public class AutosaveService implements RoutineListener {
+    public static final long DEFAULT_QUIET_MILLIS = 2000;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 10000;
+
+    private final long quietNanos;
+    private final long maxDelayNanos;
+    private final Executor routineThread;
+    private final ScheduledThreadPoolExecutor executor;
+    private final JsonWriter writer;
+
+    private Routine routine;
+    private String path;
+    private Routine dirty;
+    private String dirtyPath;
+    private long firstChange;
+    private long lastChange;
+    private boolean scheduled;
+    private boolean closed;
+    private int saves;
+    private int failures;
+
+    /*
+    EFFECTS: constructs service saving DEFAULT_QUIET_MILLIS after the last change, and at most
+             DEFAULT_MAX_DELAY_MILLIS after the first unsaved one, taking snapshots on routineThread
+     */
+    public AutosaveService(Executor routineThread) {
+        this(DEFAULT_QUIET_MILLIS, DEFAULT_MAX_DELAY_MILLIS, routineThread);
+    }
+
+    /*
+    REQUIRES: 0 < quietMillis <= maxDelayMillis
+    EFFECTS: constructs service saving quietMillis after the last change, and at most maxDelayMillis after the
+             first unsaved one, taking snapshots on the background thread; only for routines that are not
+             changed while a save is due
+     */
+    public AutosaveService(long quietMillis, long maxDelayMillis) {
+        this(quietMillis, maxDelayMillis, Runnable::run);
+    }
+
+    /*
+    REQUIRES: 0 < quietMillis <= maxDelayMillis
+    EFFECTS: constructs service saving quietMillis after the last change, and at most maxDelayMillis after the
+             first unsaved one; routineThread runs tasks where the watched routine is safe to read
+     */
+    public AutosaveService(long quietMillis, long maxDelayMillis, Executor routineThread) {
+        this.quietNanos = TimeUnit.MILLISECONDS.toNanos(quietMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.routineThread = routineThread;
+        this.executor = new ScheduledThreadPoolExecutor(1, new AutosaveFactory());
+        this.writer = new JsonWriter();
+    }
+
+    /*
+    MODIFIES: this, r
+    EFFECTS: stops watching the routine watched before, then saves r to path whenever it changes in session;
+             does nothing more once the service is closed
+     */
+    public void watch(Routine r, String path) {
+        unwatch();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            this.routine = r;
+            this.path = path;
+        }
+        r.addListener(this);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: stops watching the routine; a save already waiting is still written, without waiting for quiet;
+             call on the thread that changes the routine
+     */
+    public void unwatch() {
+        Routine watched;
+        synchronized (this) {
+            watched = routine;
+            routine = null;
+            path = null;
+        }
+        if (watched != null) {
+            watched.removeListener(this);
+            saveDirty();
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: writes the waiting save now, if there is one, and returns once it and every earlier save are done;
+             call on the thread that changes the routine
+     */
+    public void flush() {
+        saveDirty();
+        try {
+            executor.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            // saves report their own failures, and a closed service has nothing left to write
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: stops watching, writes the waiting save and stops the background thread
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        unwatch();
+        flush();
+        executor.shutdown();
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: sets the index updated after each save; call before watching a routine
+     */
+    public void setIndex(RoutineIndex index) {
+        writer.setIndex(index);
+    }
+
+    /*
+    EFFECTS: returns how many saves have been written or found already on disk
+     */
+    public synchronized int getSaveCount() {
+        return saves;
+    }
+
+    /*
+    EFFECTS: returns how many saves could not be written
+     */
+    public synchronized int getFailureCount() {
+        return failures;
+    }
+
+    @Override
+    public void exerciseChanged(Routine routine, int index, ExerciseField field) {
+        changed(routine, false);
+    }
+
+    @Override
+    public void exerciseAdded(Routine routine, int index) {
+        changed(routine, false);
+    }
+
+    @Override
+    public void exerciseRemoved(Routine routine, int index) {
+        changed(routine, false);
+    }
+
+    @Override
+    public void currentMoved(Routine routine, int oldIndex, int newIndex) {
+        changed(routine, newIndex < 0);
+    }
+
+    @Override
+    public void exercisesEdited(Routine routine) {
+        changed(routine, false);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: if r is the watched routine and is in session (or ending it), marks it as waiting to be saved and,
+             unless a check is already due, checks again after the quiet period
+     */
+    private synchronized void changed(Routine r, boolean ending) {
+        if (r != routine || !(ending || r.getInSession())) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (dirty == null) {
+            firstChange = now;
+        }
+        lastChange = now;
+        dirty = r;
+        dirtyPath = path;
+        if (!scheduled) {
+            scheduled = true;
+            executor.schedule(this::check, quietNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: on the background thread, has the waiting save taken on the routine's thread if the routine has
+             been quiet long enough or the first unsaved change is old enough, otherwise checks again when it
+             will be
+     */
+    private void check() {
+        synchronized (this) {
+            if (dirty == null) {
+                scheduled = false;
+                return;
+            }
+            long due = Math.min(lastChange + quietNanos, firstChange + maxDelayNanos);
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                executor.schedule(this::check, wait, TimeUnit.NANOSECONDS);
+                return;
+            }
+            scheduled = false;
+        }
+        routineThread.execute(this::saveDirty);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: on the routine's thread, snapshots the routine waiting to be saved, if there is one, and queues the
+             snapshot to be written to its file on the background thread
+     */
+    private void saveDirty() {
+        Routine r;
+        String destination;
+        synchronized (this) {
+            r = dirty;
+            destination = dirtyPath;
+            dirty = null;
+            dirtyPath = null;
+        }
+        if (r == null) {
+            return;
+        }
+        RoutineSnapshot snapshot = r.snapshot();
+        try {
+            executor.execute(() -> save(snapshot, destination));
+        } catch (RejectedExecutionException e) {
+            // closed: close wrote the last save before stopping the background thread
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: on the background thread, writes snapshot to destination and counts the save or its failure
+     */
+    private void save(RoutineSnapshot snapshot, String destination) {
+        try {
+            writer.setDestination(destination);
+            writer.open();
+            writer.write(snapshot);
+            writer.close();
+            count(true);
+        } catch (IOException e) {
+            EventLog.getInstance().logEvent(new Event("Unable to autosave to " + destination));
+            count(false);
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: counts a save written, or one that failed
+     */
+    private synchronized void count(boolean saved) {
+        if (saved) {
+            saves++;
+        } else {
+            failures++;
+        }
+    }
+
+    /**
+     * Makes the named daemon thread saves are written on, so a service left open does not keep the program
+     * running.
+     */
+    private static final class AutosaveFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "autosave");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package persistence;
+
+import model.Event;
+import model.EventSink;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends logged events to a rotating journal file on a background thread, so logging never waits on disk.
+ * Events are written in batches and flushed once batchSize events are pending or flushInterval has passed.
+ * When the journal grows past maxFileBytes it is renamed to journal.1 (shifting older files up) and a new
+ * journal is started, keeping at most maxFiles old journals. File sizes are counted in UTF-8 bytes. Events
+ * accepted after the journal is closed are dropped.
+ */
+public class EventJournal implements EventSink {
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final long DEFAULT_FLUSH_INTERVAL = 1000;
+    public static final long DEFAULT_MAX_FILE_BYTES = 1024 * 1024;
+    public static final int DEFAULT_MAX_FILES = 5;
+
+    private final String path;
+    private final int batchSize;
+    private final long flushInterval;
+    private final long maxFileBytes;
+    private final int maxFiles;
+
+    private final LinkedBlockingQueue<Event> queue;
+    private final Thread writerThread;
+    private volatile boolean running;
+
+    private Writer writer;
+    private long fileBytes;
+    private int pending;
+    private long lastFlush;
+
+    /*
+    EFFECTS: constructs journal writing to path with default batching and rotation, and starts its writer thread
+     */
+    public EventJournal(String path) {
+        this(path, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL, DEFAULT_MAX_FILE_BYTES, DEFAULT_MAX_FILES);
+    }
+
+    /*
+    REQUIRES: batchSize > 0, flushInterval > 0, maxFileBytes > 0, maxFiles >= 0
+    EFFECTS: constructs journal writing to path, flushing every batchSize events or flushInterval ms and rotating
+             once a file exceeds maxFileBytes, and starts its writer thread
+     */
+    public EventJournal(String path, int batchSize, long flushInterval, long maxFileBytes, int maxFiles) {
+        this.path = path;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.queue = new LinkedBlockingQueue<>();
+        this.running = true;
+
+        writerThread = new Thread(this::run, "event-journal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /*
+    EFFECTS: queues event to be written by the writer thread, or drops it if the journal is closed; never blocks
+     */
+    @Override
+    public void accept(Event e) {
+        if (running) {
+            queue.offer(e);
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: stops accepting events, writes everything still queued in one batch and closes the journal
+     */
+    public void close() {
+        running = false;
+        writerThread.interrupt();
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: writes queued events until closed, then drains whatever is left
+     */
+    private void run() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        lastFlush = System.currentTimeMillis();
+        try {
+            while (running) {
+                Event first = queue.poll(flushInterval, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    writeBatch(batch);
+                }
+                flushIfDue();
+            }
+        } catch (InterruptedException e) {
+            // close() was called; fall through to the final drain
+        }
+        drain(batch);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: writes every remaining queued event, flushes and closes the file
+     */
+    private void drain(List<Event> batch) {
+        batch.clear();
+        queue.drainTo(batch);
+        writeBatch(batch);
+        dropWriter();
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: writes batch to the journal, rotating first if the file is full, and clears batch;
+             events are dropped if the journal cannot be written
+     */
+    private void writeBatch(List<Event> batch) {
+        try {
+            for (Event e : batch) {
+                if (writer == null || fileBytes >= maxFileBytes) {
+                    rotate();
+                }
+                String line = e.getDate().getTime() + "\t" + e.getDescription() + "\n";
+                writer.write(line);
+                fileBytes += utf8Length(line);
+                pending++;
+            }
+        } catch (IOException ex) {
+            dropWriter();
+        }
+        batch.clear();
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: flushes the journal if batchSize events are pending or flushInterval has passed since last flush
+     */
+    private void flushIfDue() {
+        long now = System.currentTimeMillis();
+        if (writer != null && pending > 0 && (pending >= batchSize || now - lastFlush >= flushInterval)) {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                dropWriter();
+            }
+            pending = 0;
+            lastFlush = now;
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: closes the current journal, shifts full journals to path.1 ... path.maxFiles and opens a new one;
+             the very first call only opens (appending to) the existing journal
+     */
+    private void rotate() throws IOException {
+        File current = new File(path);
+        if (writer != null) {
+            writer.close();
+            new File(path + "." + maxFiles).delete();
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                new File(path + "." + i).renameTo(new File(path + "." + (i + 1)));
+            }
+            if (maxFiles > 0) {
+                current.renameTo(new File(path + ".1"));
+            } else {
+                current.delete();
+            }
+        } else if (current.getParentFile() != null) {
+            current.getParentFile().mkdirs();
+        }
+
+        fileBytes = current.length();
+        writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(current, true), StandardCharsets.UTF_8));
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: closes the journal file, if open, ignoring any error, so the next write opens it again
+     */
+    private void dropWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                // the file is being given up on anyway
+            }
+            writer = null;
+        }
+    }
+
+    /*
+    EFFECTS: returns the number of bytes s takes in UTF-8
+     */
+    private static int utf8Length(String s) {
+        int bytes = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                // a surrogate pair is one four-byte character
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    public String getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,233 @@
+package persistence;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Writes JSON to a Writer as it is produced, one name or value at a time, instead of building a JSONObject tree
+ * and printing it afterwards. Commas, colons and (when an indent is given) line breaks and indentation are
+ * added as needed; callers only open and close objects and arrays, and give names and values in order.
+ * Nothing is buffered here beyond what the Writer itself buffers. JsonTreeEmitter takes the same calls and builds
+ * a JSONObject from them instead.
+ */
+public class JsonEmitter {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final String ESCAPED_CHARS = "\"\\\n\r\t";
+    private static final String ESCAPE_CODES = "\"\\nrt";
+
+    private final Writer out;
+    private final int indent;
+    private char[] lineStart;
+    private int depth;
+    private boolean first;
+    private boolean afterName;
+
+    /*
+    EFFECTS: constructs emitter writing compact JSON to out
+     */
+    public JsonEmitter(Writer out) {
+        this(out, 0);
+    }
+
+    /*
+    REQUIRES: indent >= 0
+    EFFECTS: constructs emitter writing JSON to out, with each member on its own line indented by indent
+             spaces per level, or compact JSON if indent is 0
+     */
+    public JsonEmitter(Writer out, int indent) {
+        this.out = out;
+        this.indent = indent;
+        this.first = true;
+        this.lineStart = new char[0];
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: opens an object
+     */
+    public JsonEmitter beginObject() throws IOException {
+        return open('{');
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: closes the object opened last
+     */
+    public JsonEmitter endObject() throws IOException {
+        return close('}');
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: opens an array
+     */
+    public JsonEmitter beginArray() throws IOException {
+        return open('[');
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: closes the array opened last
+     */
+    public JsonEmitter endArray() throws IOException {
+        return close(']');
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: writes the name of the next member of the open object; its value must follow
+     */
+    public JsonEmitter name(String name) throws IOException {
+        beforeMember();
+        string(name);
+        out.write(indent > 0 ? ": " : ":");
+        afterName = true;
+        return this;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: writes a string value, or null
+     */
+    public JsonEmitter value(String value) throws IOException {
+        beforeValue();
+        if (value == null) {
+            out.write("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: writes the name of an enum constant as a string value, or null
+     */
+    public JsonEmitter value(Enum<?> value) throws IOException {
+        return value(value == null ? null : value.name());
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: writes a number value
+     */
+    public JsonEmitter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: writes a boolean value
+     */
+    public JsonEmitter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: writes bracket and goes a level deeper
+     */
+    private JsonEmitter open(char bracket) throws IOException {
+        beforeValue();
+        out.write(bracket);
+        depth++;
+        first = true;
+        return this;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: comes back up a level and writes bracket, on its own line if the object or array was not empty
+     */
+    private JsonEmitter close(char bracket) throws IOException {
+        depth--;
+        if (!first) {
+            newLine();
+        }
+        out.write(bracket);
+        first = false;
+        return this;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: writes what goes before a value: nothing after a name, otherwise what goes before any member
+     */
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+        } else {
+            beforeMember();
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: writes the comma before every member but the first, and starts a new line inside an object or array
+     */
+    private void beforeMember() throws IOException {
+        if (!first) {
+            out.write(',');
+        }
+        if (depth > 0) {
+            newLine();
+        }
+        first = false;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: starts a new line indented to the current depth, if indenting; the line break and indentation are
+             kept in one array, grown as the depth grows, and written in one call
+     */
+    private void newLine() throws IOException {
+        if (indent > 0) {
+            int length = 1 + depth * indent;
+            if (length > lineStart.length) {
+                lineStart = new char[length * 2];
+                Arrays.fill(lineStart, ' ');
+                lineStart[0] = '\n';
+            }
+            out.write(lineStart, 0, length);
+        }
+    }
+
+    /*
+    EFFECTS: writes s as a quoted string, escaping quotes, backslashes and control characters
+     */
+    private void string(String s) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            out.write(s, start, i - start);
+            start = i + 1;
+            escape(c);
+        }
+        out.write(s, start, s.length() - start);
+        out.write('"');
+    }
+
+    /*
+    EFFECTS: writes the escape for c: its short form if it has one, otherwise a unicode escape
+     */
+    private void escape(char c) throws IOException {
+        out.write('\\');
+        int code = ESCAPED_CHARS.indexOf(c);
+        if (code >= 0) {
+            out.write(ESCAPE_CODES.charAt(code));
+        } else {
+            out.write("u00");
+            out.write(HEX[c >> 4]);
+            out.write(HEX[c & 0xF]);
+        }
+    }
+}
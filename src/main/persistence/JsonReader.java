@@ -2,20 +2,30 @@ package persistence;
 
 import model.*;
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.stream.Stream;
 
 /**
  * Represents a reader that reads routine from JSON data stored in file
+ * By default the whole file is read into a JSONObject and then walked to build the routine. In streaming mode
+ * the file is read a value at a time by a JsonStreamReader and exercises are built as they are reached, so the
+ * file is never held in memory whole; both modes build the same routine and log the same events, and both throw
+ * a JSONException for a missing key or a set log whose columns differ in length.
+ * Files in the binary LiftFormat are recognized by their header, whatever their name, and decoded instead.
  * Inspired by JsonSerializationDemo
  */
 public class JsonReader {
     private String source;
+    private boolean streaming;
 
     /*
     EFFECTS: constructs reader to read from source file
@@ -28,14 +38,154 @@ public class JsonReader {
              throws IOException if an error occurs reading data from file
      */
     public Routine read() throws IOException {
+        if (isLiftFile(source)) {
+            Routine r = LiftFormat.decode(Files.readAllBytes(Paths.get(source)));
+            EventLog.getInstance().logEvent(new Event(EventType.FILE_READ, null, null, source, 0, 0));
+            return r;
+        }
+        if (streaming) {
+            return readStreaming();
+        }
         String jsonData = readFile(source);
         JSONObject jsonObject = new JSONObject(jsonData);
 
-        EventLog.getInstance().logEvent(new Event("Read from file " + source));
+        EventLog.getInstance().logEvent(new Event(EventType.FILE_READ, null, null, source, 0, 0));
 
         return parseRoutine(jsonObject);
     }
 
+    /*
+    EFFECTS: returns true if the file at source starts with the LiftFormat header
+             throws IOException if an error occurs reading data from file
+     */
+    private static boolean isLiftFile(String source) throws IOException {
+        byte[] header = new byte[LiftFormat.HEADER_SIZE];
+        try (InputStream in = new FileInputStream(source)) {
+            int read = 0;
+            int n;
+            while (read < header.length && (n = in.read(header, read, header.length - read)) > 0) {
+                read += n;
+            }
+            return LiftFormat.hasHeader(header, read);
+        }
+    }
+
+    /*
+    EFFECTS: reads Routine from file a value at a time, building each exercise as it is read, and returns it
+             throws IOException if an error occurs reading data from file
+     */
+    private Routine readStreaming() throws IOException {
+        Routine r = new Routine();
+        RoutineBatch batch = r.batch();
+        String name;
+        try (JsonStreamReader in = new JsonStreamReader(source)) {
+            name = readRoutine(in, batch);
+        }
+
+        EventLog.getInstance().logEvent(new Event(EventType.FILE_READ, null, null, source, 0, 0));
+
+        r.setName(name);
+        batch.apply();
+        return r;
+    }
+
+    /*
+    MODIFIES: batch
+    EFFECTS: reads the routine object, adding its exercises to batch, and returns its name;
+             throws JSONException if it has no name or no exercises
+     */
+    private String readRoutine(JsonStreamReader in, RoutineBatch batch) throws IOException {
+        String name = null;
+        boolean hasExercises = false;
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            if (key.equals("name")) {
+                name = in.nextString();
+            } else if (key.equals("exercises")) {
+                readExercises(in, batch);
+                hasExercises = true;
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        require(name != null, "name");
+        require(hasExercises, "exercises");
+        return name;
+    }
+
+    /*
+    MODIFIES: batch
+    EFFECTS: reads the array of exercise objects and adds each to batch
+     */
+    private void readExercises(JsonStreamReader in, RoutineBatch batch) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            ExerciseFields fields = new ExerciseFields();
+            in.beginObject();
+            while (in.hasNext()) {
+                fields.read(in.nextName(), in);
+            }
+            in.endObject();
+            fields.addTo(batch);
+        }
+        in.endArray();
+    }
+
+    /*
+    EFFECTS: throws the JSONException tree mode throws for a missing key, unless present
+     */
+    private static void require(boolean present, String key) {
+        if (!present) {
+            throw new JSONException("JSONObject[\"" + key + "\"] not found.");
+        }
+    }
+
+    /*
+    EFFECTS: throws JSONException unless the reps, weights and times of a set log have one entry per set
+     */
+    private static void checkSetLog(int reps, int weights, int times) {
+        if (reps != weights || reps != times) {
+            throw new JSONException("Set log has " + reps + " reps, " + weights + " weights and " + times
+                    + " times");
+        }
+    }
+
+    /*
+    EFFECTS: reads an array of whole numbers that fit in an int
+     */
+    private static int[] readInts(JsonStreamReader in) throws IOException {
+        int[] values = new int[8];
+        int size = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = in.nextInt();
+        }
+        in.endArray();
+        return Arrays.copyOf(values, size);
+    }
+
+    /*
+    EFFECTS: reads an array of whole numbers
+     */
+    private static long[] readLongs(JsonStreamReader in) throws IOException {
+        long[] values = new long[8];
+        int size = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = in.nextLong();
+        }
+        in.endArray();
+        return Arrays.copyOf(values, size);
+    }
+
     /*
     EFFECTS: reads source file as string and returns it
      */
@@ -62,21 +212,23 @@ public class JsonReader {
 
     /*
     MODIFIES: r
-    EFFECTS: parses thingies from JSON object and adds them to routine
+    EFFECTS: parses thingies from JSON object and adds them to routine in one batch
      */
     private void addExercises(Routine r, JSONObject jsonObject) {
         JSONArray jsonArray = jsonObject.getJSONArray("exercises");
+        RoutineBatch batch = r.batch();
         for (Object json : jsonArray) {
             JSONObject nextExercise = (JSONObject) json;
-            addExercise(r, nextExercise);
+            addExercise(batch, nextExercise);
         }
+        batch.apply();
     }
 
     /*
-    MODIFIES: r
-    EFFECTS: parses thingy from JSON object and adds it to routine
+    MODIFIES: batch
+    EFFECTS: parses thingy from JSON object and adds it to batch
      */
-    private void addExercise(Routine r, JSONObject jsonObject) {
+    private void addExercise(RoutineBatch batch, JSONObject jsonObject) {
         String name = jsonObject.getString("name");
         Equipment equipment = Equipment.valueOf(jsonObject.getString("equipment"));
         int sets = jsonObject.getInt("sets");
@@ -84,11 +236,141 @@ public class JsonReader {
 
         Exercise exercise = new Exercise(name, equipment);
 
-        r.addExercise(exercise, sets, reps);
+        batch.add(exercise, sets, reps);
+        addSetLog(exercise, jsonObject);
+    }
+
+    /*
+    MODIFIES: e
+    EFFECTS: parses the log of sets done from JSON object, if it has one, and adds them to exercise
+     */
+    static void addSetLog(Exercise e, JSONObject jsonObject) {
+        if (!jsonObject.has("log")) {
+            return;
+        }
+        JSONObject log = jsonObject.getJSONObject("log");
+        JSONArray reps = log.getJSONArray("reps");
+        JSONArray weights = log.getJSONArray("weights");
+        JSONArray times = log.getJSONArray("times");
+        checkSetLog(reps.length(), weights.length(), times.length());
+        for (int i = 0; i < reps.length(); i++) {
+            e.getSetLog().add(reps.getInt(i), weights.getInt(i), times.getLong(i));
+        }
     }
 
     public void setSource(String source) {
         this.source = source;
     }
-}
 
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: sets whether files are read a value at a time instead of whole
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * The fields of one exercise object as they are read in streaming mode, in whatever order they come.
+     */
+    private static final class ExerciseFields {
+        private String name;
+        private Equipment equipment;
+        private Integer sets;
+        private Integer reps;
+        private SetLogColumns log;
+
+        /*
+        MODIFIES: this
+        EFFECTS: reads the value of key, keeping it if it is a field of an exercise and skipping it otherwise
+         */
+        private void read(String key, JsonStreamReader in) throws IOException {
+            if (key.equals("name")) {
+                name = in.nextString();
+            } else if (key.equals("equipment")) {
+                equipment = Equipment.valueOf(in.nextString());
+            } else if (key.equals("sets")) {
+                sets = in.nextInt();
+            } else if (key.equals("reps")) {
+                reps = in.nextInt();
+            } else if (key.equals("log")) {
+                log = SetLogColumns.read(in);
+            } else {
+                in.skipValue();
+            }
+        }
+
+        /*
+        MODIFIES: batch
+        EFFECTS: adds the exercise read to batch with its set log;
+                 throws JSONException if its name, equipment, sets or reps are missing
+         */
+        private void addTo(RoutineBatch batch) {
+            require(name != null, "name");
+            require(equipment != null, "equipment");
+            require(sets != null, "sets");
+            require(reps != null, "reps");
+            Exercise exercise = new Exercise(name, equipment);
+            batch.add(exercise, sets, reps);
+            if (log != null) {
+                log.addTo(exercise.getSetLog());
+            }
+        }
+    }
+
+    /**
+     * The columns of a set log object as they are read in streaming mode, in whatever order they come.
+     */
+    private static final class SetLogColumns {
+        private int[] reps;
+        private int[] weights;
+        private long[] times;
+
+        /*
+        EFFECTS: reads a set log object; throws JSONException if a column is missing or they differ in length
+         */
+        private static SetLogColumns read(JsonStreamReader in) throws IOException {
+            SetLogColumns columns = new SetLogColumns();
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (key.equals("reps")) {
+                    columns.reps = readInts(in);
+                } else if (key.equals("weights")) {
+                    columns.weights = readInts(in);
+                } else if (key.equals("times")) {
+                    columns.times = readLongs(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            columns.check();
+            return columns;
+        }
+
+        /*
+        EFFECTS: throws JSONException if a column is missing or they differ in length
+         */
+        private void check() {
+            require(reps != null, "reps");
+            require(weights != null, "weights");
+            require(times != null, "times");
+            checkSetLog(reps.length, weights.length, times.length);
+        }
+
+        /*
+        MODIFIES: log
+        EFFECTS: adds every set in these columns to log
+         */
+        private void addTo(SetLog log) {
+            for (int i = 0; i < reps.length; i++) {
+                log.add(reps[i], weights[i], times[i]);
+            }
+        }
+    }
+}
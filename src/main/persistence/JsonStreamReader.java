@@ -0,0 +1,355 @@
+package persistence;
+
+import org.json.JSONException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a JSON file one value at a time, pulling bytes from a FileChannel through a fixed buffer, so only the
+ * value being read is ever held in memory. Objects and arrays are walked with begin, hasNext and end calls;
+ * names and values are read with nextName, nextString, nextInt and nextLong, and anything not wanted is skipped
+ * with skipValue. Malformed JSON throws a JSONException, as it does when the whole file is parsed at once.
+ */
+final class JsonStreamReader implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int END = -1;
+    private static final int MAX_DIGITS = 19;
+    // the character after a backslash in a string, and what it stands for at the same place
+    private static final String ESCAPE_CODES = "bfnrt\"\\/";
+    private static final String ESCAPED_CHARS = "\b\f\n\r\t\"\\/";
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final StringBuilder text;
+    private long offset;
+    // true until the first member of the object or array opened last is found
+    private boolean first;
+
+    /*
+    EFFECTS: opens path for reading; throws IOException if it cannot be opened
+     */
+    JsonStreamReader(String path) throws IOException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+        text = new StringBuilder();
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: reads the opening brace of an object
+     */
+    void beginObject() throws IOException {
+        expect('{');
+        first = true;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: reads the closing brace of an object
+     */
+    void endObject() throws IOException {
+        expect('}');
+        first = false;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: reads the opening bracket of an array
+     */
+    void beginArray() throws IOException {
+        expect('[');
+        first = true;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: reads the closing bracket of an array
+     */
+    void endArray() throws IOException {
+        expect(']');
+        first = false;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: returns true if the object or array being read has another member, reading the comma before it;
+             throws JSONException if a member after the first is not preceded by a comma, or a comma is not
+             followed by a member
+     */
+    boolean hasNext() throws IOException {
+        int c = peekToken();
+        if (c == '}' || c == ']' || c == END) {
+            return false;
+        }
+        if (!first) {
+            expect(',');
+            c = peekToken();
+            if (c == '}' || c == ']' || c == END) {
+                throw syntaxError("Expected a value after ','");
+            }
+        }
+        first = false;
+        return true;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: reads the name of the next member of an object and the colon after it
+     */
+    String nextName() throws IOException {
+        String name = nextString();
+        expect(':');
+        return name;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: reads a string value
+     */
+    String nextString() throws IOException {
+        expect('"');
+        text.setLength(0);
+        int c;
+        while ((c = next()) != '"') {
+            if (c == END) {
+                throw syntaxError("Unterminated string");
+            } else if (c == '\\') {
+                readEscape();
+            } else if (c < 0x80) {
+                text.append((char) c);
+            } else {
+                readMultiByte(c);
+            }
+        }
+        return text.toString();
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: reads a whole number value that fits in an int
+     */
+    int nextInt() throws IOException {
+        long value = nextLong();
+        if (value != (int) value) {
+            throw syntaxError("Number out of int range: " + value);
+        }
+        return (int) value;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: reads a whole number value; throws JSONException if it has more than MAX_DIGITS digits or its
+             magnitude is past Long.MAX_VALUE
+     */
+    long nextLong() throws IOException {
+        int c = peekToken();
+        boolean negative = c == '-';
+        if (negative) {
+            next();
+        }
+        long value = 0;
+        int digits = 0;
+        while ((c = peek()) >= '0' && c <= '9') {
+            next();
+            if (++digits > MAX_DIGITS || value > (Long.MAX_VALUE - (c - '0')) / 10) {
+                throw syntaxError("Number out of long range");
+            }
+            value = value * 10 + (c - '0');
+        }
+        if (digits == 0 || c == '.' || c == 'e' || c == 'E') {
+            throw syntaxError("Expected a whole number");
+        }
+        return negative ? -value : value;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: reads past the next value of any kind without keeping it
+     */
+    void skipValue() throws IOException {
+        int c = peekToken();
+        if (c == '"') {
+            nextString();
+        } else if (c == '{' || c == '[') {
+            skipContainer();
+        } else {
+            // a number or literal runs until the next separator
+            while ((c = peek()) != ',' && c != '}' && c != ']' && c != END && !isWhitespace(c)) {
+                next();
+            }
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: reads past the object or array starting at the next token, and everything nested in it, checking
+             its commas and colons as a member that is read would be
+     */
+    private void skipContainer() throws IOException {
+        boolean object = peekToken() == '{';
+        if (object) {
+            beginObject();
+        } else {
+            beginArray();
+        }
+        while (hasNext()) {
+            if (object) {
+                nextName();
+            }
+            skipValue();
+        }
+        if (object) {
+            endObject();
+        } else {
+            endArray();
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: closes the file
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: reads the character after a backslash in a string and appends what it stands for
+     */
+    private void readEscape() throws IOException {
+        int c = next();
+        if (c == 'u') {
+            text.append(readUnicodeEscape());
+            return;
+        }
+        int at = ESCAPE_CODES.indexOf(c);
+        if (at < 0) {
+            throw syntaxError("Bad escape");
+        }
+        text.append(ESCAPED_CHARS.charAt(at));
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: reads the four hex digits of a unicode escape and returns the UTF-16 unit they stand for
+     */
+    private char readUnicodeEscape() throws IOException {
+        int unit = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(next(), 16);
+            if (digit < 0) {
+                throw syntaxError("Bad unicode escape");
+            }
+            unit = unit * 16 + digit;
+        }
+        return (char) unit;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: decodes the UTF-8 sequence starting with lead and appends its character
+     */
+    private void readMultiByte(int lead) throws IOException {
+        int extra;
+        int codePoint;
+        if ((lead & 0xE0) == 0xC0) {
+            extra = 1;
+            codePoint = lead & 0x1F;
+        } else if ((lead & 0xF0) == 0xE0) {
+            extra = 2;
+            codePoint = lead & 0x0F;
+        } else if ((lead & 0xF8) == 0xF0) {
+            extra = 3;
+            codePoint = lead & 0x07;
+        } else {
+            throw syntaxError("Bad UTF-8 byte");
+        }
+        for (int i = 0; i < extra; i++) {
+            int c = next();
+            if ((c & 0xC0) != 0x80) {
+                throw syntaxError("Bad UTF-8 byte");
+            }
+            codePoint = (codePoint << 6) | (c & 0x3F);
+        }
+        text.appendCodePoint(codePoint);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: skips whitespace and reads c; throws JSONException if the next character is anything else
+     */
+    private void expect(char c) throws IOException {
+        if (peekToken() != c) {
+            throw syntaxError("Expected '" + c + "'");
+        }
+        next();
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: skips whitespace and returns the next byte without consuming it, or END at the end of the file
+     */
+    private int peekToken() throws IOException {
+        int c;
+        while (isWhitespace(c = peek())) {
+            next();
+        }
+        return c;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: returns the next byte without consuming it, or END at the end of the file
+     */
+    private int peek() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return END;
+        }
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: consumes and returns the next byte, or END at the end of the file
+     */
+    private int next() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return END;
+        }
+        offset++;
+        return buffer.get() & 0xFF;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: reads more of the file into the buffer and returns false if there is none left
+     */
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+        return read > 0;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    /*
+    EFFECTS: returns an exception describing what was wrong and where
+     */
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at byte " + offset);
+    }
+}
@@ -0,0 +1,103 @@
+package persistence;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * An emitter that builds a JSONObject tree from the names and values it is given, instead of writing them out as
+ * text, so code that wants a tree gets one without the text being written and parsed again.
+ * Objects and arrays still open are kept on a stack; each value goes into the one opened last, under the name
+ * given before it if that is an object.
+ */
+final class JsonTreeEmitter extends JsonEmitter {
+    private final Deque<Object> open;
+    private String pendingName;
+    private Object root;
+
+    /*
+    EFFECTS: constructs emitter with nothing built yet
+     */
+    JsonTreeEmitter() {
+        super(null);
+        open = new ArrayDeque<>();
+    }
+
+    @Override
+    public JsonEmitter beginObject() {
+        JSONObject object = new JSONObject();
+        add(object);
+        open.push(object);
+        return this;
+    }
+
+    @Override
+    public JsonEmitter endObject() {
+        open.pop();
+        return this;
+    }
+
+    @Override
+    public JsonEmitter beginArray() {
+        JSONArray array = new JSONArray();
+        add(array);
+        open.push(array);
+        return this;
+    }
+
+    @Override
+    public JsonEmitter endArray() {
+        open.pop();
+        return this;
+    }
+
+    @Override
+    public JsonEmitter name(String name) {
+        pendingName = name;
+        return this;
+    }
+
+    @Override
+    public JsonEmitter value(String value) {
+        add(value == null ? JSONObject.NULL : value);
+        return this;
+    }
+
+    @Override
+    public JsonEmitter value(long value) {
+        add(value);
+        return this;
+    }
+
+    @Override
+    public JsonEmitter value(boolean value) {
+        add(value);
+        return this;
+    }
+
+    /*
+    REQUIRES: the object or array written first has been closed
+    EFFECTS: returns the object that was built
+     */
+    JSONObject getObject() {
+        return (JSONObject) root;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: puts value into the object or array opened last, under the pending name if it is an object, or makes
+             it the root if nothing is open
+     */
+    private void add(Object value) {
+        Object parent = open.peek();
+        if (parent == null) {
+            root = value;
+        } else if (parent instanceof JSONObject) {
+            ((JSONObject) parent).put(pendingName, value);
+        } else {
+            ((JSONArray) parent).put(value);
+        }
+    }
+}
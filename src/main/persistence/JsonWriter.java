@@ -2,19 +2,66 @@ package persistence;
 
 import model.Event;
 import model.EventLog;
+import model.EventType;
 import model.Routine;
-import org.json.JSONObject;
+import model.RoutineSnapshot;
 
-import java.io.*;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 /**
  * Represents a writer that writes JSON representation of routine to file
+ * Destinations ending in .lift are written in the compact binary LiftFormat instead; everything else is
+ * written as indented JSON for people to read. Output is streamed field by field through a JsonEmitter and a
+ * buffer into a file channel, without building a JSON tree or string first.
+ * By default writes are atomic: the routine is written to a temporary file next to the destination, which is
+ * forced to disk and then renamed over the destination on close, so a crash part way through leaves the old
+ * file as it was. With atomic writes off the destination is truncated on open and written in place.
+ * Atomic writes of a routine that has not changed since it was last saved to the destination are skipped: the
+ * SaveTracker knows the routine version and content hash last written there, so an unchanged version is not
+ * written at all, and a new version whose content hashes the same as the file's is dropped before it replaces it.
+ * A writer given a RoutineIndex updates the destination's entry in it after every save that is written.
  * Inspired by JsonSerializationDemo
  */
 public class JsonWriter {
+    public static final String JSON_EXTENSION = ".json";
     private static final int TAB = 4;
-    private PrintWriter writer;
+    private static final int BUFFER_SIZE = 8192;
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String HASH_ALGORITHM = "SHA-256";
+
     private String destination;
+    private boolean atomic = true;
+    private boolean skipUnchanged = true;
+
+    private Path target;
+    private Path temp;
+    private FileChannel channel;
+    private OutputStream out;
+    private Writer text;
+    private MessageDigest digest;
+    private long version;
+    private boolean skipped;
+    private RoutineIndex index;
+    private RoutineSnapshot written;
 
     /*
     EFFECTS: constructs writer to write to destination file
@@ -22,43 +69,230 @@ public class JsonWriter {
     public JsonWriter() {
     }
 
+    /*
+    EFFECTS: returns the extension of the format a routine read from fileName is written back in: .lift for a
+             .lift file, .json for anything else
+     */
+    public static String extensionOf(String fileName) {
+        return LiftFormat.isLiftFile(fileName) ? LiftFormat.EXTENSION : JSON_EXTENSION;
+    }
+
     /*
     MODIFIES: this
-    EFFECTS: opens writer; throws FileNotFoundException if destination file cannot
-             be opened for writing
+    EFFECTS: opens writer on a temporary file beside the destination, or on the destination itself if writes
+             are not atomic; throws FileNotFoundException if destination is not a valid path, or IOException if
+             the file cannot be opened for writing
      */
-    public void open() throws FileNotFoundException {
-        writer = new PrintWriter(new File(destination));
+    public void open() throws IOException {
+        try {
+            target = Paths.get(destination);
+        } catch (InvalidPathException e) {
+            throw new FileNotFoundException(destination + " (" + e.getReason() + ")");
+        }
+        if (atomic) {
+            // named for this writer and moment, so writers saving the same routine never share a temporary file
+            temp = target.resolveSibling(target.getFileName() + "." + Thread.currentThread().getId() + "."
+                    + System.nanoTime() + TEMP_SUFFIX);
+            channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW);
+        } else {
+            temp = target;
+            channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        skipped = false;
+        digest = newDigest();
+        out = new BufferedOutputStream(new DigestOutputStream(Channels.newOutputStream(channel), digest),
+                BUFFER_SIZE);
+        text = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
     }
 
     /*
     MODIFIES: this
     EFFECTS: writes JSON representation of routine to file
+             throws IOException if it cannot be written, and the write is abandoned
+     */
+    public void write(Routine r) throws IOException {
+        write(r.snapshot());
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: writes JSON or binary representation of a routine snapshot to file; the snapshot cannot change, so
+             this can run on another thread while the routine itself goes on changing; writes nothing if the
+             snapshot's version was the last saved to the destination and unchanged saves are skipped
+             throws IOException if it cannot be written, and the write is abandoned
      */
-    public void write(Routine r) {
-        JSONObject json = r.toJson();
-        saveToFile(json.toString(TAB));
+    public void write(RoutineSnapshot snapshot) throws IOException {
+        version = snapshot.getVersion();
+        written = snapshot;
+        if (canSkip() && SaveTracker.getInstance().isSaved(target, version)) {
+            abandon();
+            skipped = true;
+            return;
+        }
+        try {
+            if (LiftFormat.isLiftFile(destination)) {
+                out.write(LiftFormat.encode(snapshot));
+            } else {
+                snapshot.writeJson(new JsonEmitter(text, TAB));
+            }
+        } catch (IOException e) {
+            abandon();
+            throw e;
+        }
+
+        EventLog.getInstance().logEvent(new Event(EventType.FILE_WRITTEN, null, null, destination, 0, 0));
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: flushes and closes writer; if writes are atomic, forces the file to disk and renames it over the
+             destination, falling back to a plain replace where the file system cannot rename atomically; the
+             file is dropped instead if it is the same as what the destination already holds and unchanged
+             saves are skipped
+             throws IOException if the file cannot be finished, leaving the destination as it was
+     */
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        byte[] hash = finish();
+        if (skipped) {
+            SaveTracker.getInstance().record(target, version, hash);
+            return;
+        }
+        if (atomic) {
+            replace();
+        }
+        SaveTracker.getInstance().record(target, version, hash);
+        if (index != null) {
+            index.update(target, written, hash);
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: flushes the file and returns the hash of what was written; drops the file and marks the save skipped
+             if it is the same as what the destination already holds and unchanged saves are skipped, otherwise
+             forces it to disk if writes are atomic and closes it;
+             throws IOException if the file cannot be finished, dropping it
+     */
+    private byte[] finish() throws IOException {
+        try {
+            text.flush();
+            byte[] hash = digest.digest();
+            skipped = canSkip() && SaveTracker.getInstance().isSaved(target, hash);
+            if (skipped) {
+                abandon();
+                return hash;
+            }
+            if (atomic) {
+                channel.force(true);
+            }
+            channel.close();
+            channel = null;
+            return hash;
+        } catch (IOException e) {
+            abandon();
+            throw e;
+        }
+    }
+
+    /*
+    EFFECTS: returns true if an unchanged save may be skipped; only atomic writes leave the destination alone
+             until close, so only they can be
+     */
+    private boolean canSkip() {
+        return skipUnchanged && atomic;
+    }
 
-        EventLog.getInstance().logEvent(new Event("Wrote to file " + destination));
+    /*
+    EFFECTS: returns a new digest for hashing what is written
+     */
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
     }
 
     /*
     MODIFIES: this
-    EFFECTS: closes writer
+    EFFECTS: moves the finished temporary file over the destination; deletes it if that fails
      */
-    public void close() {
-        writer.close();
+    private void replace() throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
     }
 
     /*
     MODIFIES: this
-    EFFECTS: writes string to file
+    EFFECTS: closes the file without finishing it, deleting it if it is a temporary file
      */
-    private void saveToFile(String json) {
-        writer.print(json);
+    private void abandon() {
+        try {
+            channel.close();
+            if (atomic) {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            // nothing more can be done with the file
+        }
+        channel = null;
     }
 
     public void setDestination(String destination) {
         this.destination = destination;
     }
+
+    public boolean isAtomic() {
+        return atomic;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: sets whether files are written to a temporary file and renamed into place, from the next open
+     */
+    public void setAtomic(boolean atomic) {
+        this.atomic = atomic;
+    }
+
+    public boolean isSkippingUnchanged() {
+        return skipUnchanged;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: sets whether atomic saves that would not change the destination are skipped
+     */
+    public void setSkipUnchanged(boolean skipUnchanged) {
+        this.skipUnchanged = skipUnchanged;
+    }
+
+    public RoutineIndex getIndex() {
+        return index;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: sets the index updated after each save, or stops updating one if index is null
+     */
+    public void setIndex(RoutineIndex index) {
+        this.index = index;
+    }
+
+    /*
+    EFFECTS: returns true if the last routine written was not saved because the destination already held it
+     */
+    public boolean wasSkipped() {
+        return skipped;
+    }
 }
@@ -0,0 +1,153 @@
+package persistence;
+
+import model.Event;
+import model.EventLog;
+import model.Routine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads every routine file in a data directory into a RoutineLibrary, several files at once. Files are read by
+ * a fixed number of worker threads, each with its own streaming JsonReader; the queue of files waiting for a
+ * worker is bounded, and once it is full the calling thread reads files itself, so a directory of thousands of
+ * files never has thousands of tasks waiting. A file that cannot be read is recorded as a failure in the
+ * library, and an event is logged for it, without stopping the others. A library can also be loaded in the
+ * background, handed out empty and filled in as files are read.
+ */
+public class LibraryLoader {
+    private static final int MAX_DEFAULT_THREADS = 4;
+    private static final int QUEUED_PER_THREAD = 4;
+
+    private final String directory;
+    private final int threads;
+
+    /*
+    EFFECTS: constructs loader for the routine files in directory, reading on up to one thread per core
+     */
+    public LibraryLoader(String directory) {
+        this(directory, Math.min(MAX_DEFAULT_THREADS, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /*
+    REQUIRES: threads > 0
+    EFFECTS: constructs loader for the routine files in directory, reading on the given number of threads
+     */
+    public LibraryLoader(String directory, int threads) {
+        this.directory = directory;
+        this.threads = threads;
+    }
+
+    /*
+    EFFECTS: reads every routine file in the directory and returns them as a library, with the files that could
+             not be read recorded as failures; throws IOException if the directory cannot be listed
+     */
+    public RoutineLibrary load() throws IOException {
+        RoutineLibrary library = new RoutineLibrary();
+        loadInto(library);
+        return library;
+    }
+
+    /*
+    EFFECTS: returns an empty library at once and reads every routine file in the directory into it on a
+             background thread, so the caller is not held up; a file taken or invalidated before it is read is
+             not put in the library, and an event is logged if the directory cannot be listed
+     */
+    public RoutineLibrary loadInBackground() {
+        RoutineLibrary library = new RoutineLibrary();
+        Thread thread = new LoaderFactory().newThread(() -> {
+            try {
+                loadInto(library);
+            } catch (IOException e) {
+                EventLog.getInstance().logEvent(new Event("Unable to read routines in " + directory));
+            }
+        });
+        thread.start();
+        return library;
+    }
+
+    /*
+    MODIFIES: library
+    EFFECTS: reads every routine file in the directory into library, with the files that could not be read
+             recorded as failures; throws IOException if the directory cannot be listed
+     */
+    private void loadInto(RoutineLibrary library) throws IOException {
+        String[] fileNames = new File(directory).list((dir, name) -> isRoutineFile(name));
+        if (fileNames == null) {
+            throw new IOException("Unable to list " + directory);
+        }
+
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUED_PER_THREAD), new LoaderFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        List<Future<Routine>> results = new ArrayList<>(fileNames.length);
+        try {
+            for (String fileName : fileNames) {
+                results.add(workers.submit(() -> read(fileName)));
+            }
+            collect(fileNames, results, library);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /*
+    EFFECTS: returns true if name is a routine file, in JSON or the binary format
+     */
+    public static boolean isRoutineFile(String name) {
+        return name.endsWith(".json") || LiftFormat.isLiftFile(name);
+    }
+
+    /*
+    EFFECTS: reads the routine in fileName with a reader of its own
+     */
+    private Routine read(String fileName) throws IOException {
+        JsonReader reader = new JsonReader();
+        reader.setStreaming(true);
+        reader.setSource(new File(directory, fileName).getPath());
+        return reader.read();
+    }
+
+    /*
+    MODIFIES: library
+    EFFECTS: waits for each file's result and puts it in library, recording and logging those that failed
+     */
+    private void collect(String[] fileNames, List<Future<Routine>> results, RoutineLibrary library)
+            throws IOException {
+        for (int i = 0; i < fileNames.length; i++) {
+            try {
+                library.put(fileNames[i], results.get(i).get());
+            } catch (ExecutionException e) {
+                Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                library.fail(fileNames[i], cause);
+                EventLog.getInstance().logEvent(new Event("Unable to read from file " + fileNames[i]));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted loading " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Makes named daemon worker threads, so a load left behind does not keep the program running.
+     */
+    private static final class LoaderFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "library-loader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package persistence;
+
+import model.Equipment;
+import model.Exercise;
+import model.ExerciseSnapshot;
+import model.Routine;
+import model.RoutineBatch;
+import model.RoutineSnapshot;
+import model.SetLog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The compact binary routine format, used for files ending in .lift. A file starts with the bytes "LIFT" and a
+ * version byte, then a table of every distinct name in the routine, then the routine itself. Names are written
+ * once and referred to by their place in the table, and every number is a varint, so small values take one
+ * byte. For each exercise the file holds its plan, weight, the sets completed at its position, and its set log;
+ * set weights and times are stored as the difference from the set before, which is usually small.
+ * Version 1 layout, after the header:
+ *   names:    count, then each as a byte length and UTF-8 bytes
+ *   routine:  name index, exercise count, then each exercise
+ *   exercise: name index, equipment (ordinal + 1, 0 for none), sets, reps, weight, sets completed,
+ *             log size, then reps, weight change and time change of each set
+ */
+final class LiftFormat {
+    static final String EXTENSION = ".lift";
+    static final byte VERSION = 1;
+    private static final byte[] MAGIC = {'L', 'I', 'F', 'T'};
+    private static final int VERSION_OFFSET = MAGIC.length;
+    static final int HEADER_SIZE = VERSION_OFFSET + 1;
+
+    private LiftFormat() {
+    }
+
+    /*
+    EFFECTS: returns true if path names a file written in this format
+     */
+    static boolean isLiftFile(String path) {
+        return path.endsWith(EXTENSION);
+    }
+
+    /*
+    EFFECTS: returns true if data starts with this format's header
+     */
+    static boolean hasHeader(byte[] data, int length) {
+        if (length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+    EFFECTS: returns snapshot encoded in this format
+     */
+    static byte[] encode(RoutineSnapshot snapshot) {
+        Map<String, Integer> names = new HashMap<>();
+        Output body = new Output();
+        body.writeVarint(indexOf(names, snapshot.getName()));
+        List<ExerciseSnapshot> exercises = snapshot.getExercises();
+        body.writeVarint(exercises.size());
+        for (int i = 0; i < exercises.size(); i++) {
+            writeExercise(body, names, exercises.get(i), snapshot.getProgress(i));
+        }
+
+        Output out = new Output();
+        out.writeBytes(MAGIC, MAGIC.length);
+        out.writeByte(VERSION);
+        writeNames(out, names);
+        out.writeBytes(body.bytes, body.size);
+        return Arrays.copyOf(out.bytes, out.size);
+    }
+
+    /*
+    EFFECTS: returns the routine encoded in data, with each exercise's weight and set log and the sets completed at
+             each position, not in session;
+             throws IOException if data is not in this format, is a later version, or is cut short
+     */
+    static Routine decode(byte[] data) throws IOException {
+        Input in = openInput(data);
+        String[] table = readNames(in);
+
+        Routine r = new Routine();
+        r.setName(in.readName(table));
+        int count = in.readCount();
+        Exercise[] exercises = new Exercise[count];
+        int[] weights = new int[count];
+        int[] completed = new int[count];
+        RoutineBatch batch = r.batch();
+        for (int i = 0; i < count; i++) {
+            exercises[i] = readExercise(in, table, batch);
+            weights[i] = in.readSignedVarint();
+            completed[i] = in.readVarint();
+            readSetLog(in, exercises[i].getSetLog());
+        }
+        batch.apply();
+
+        for (int i = 0; i < count; i++) {
+            if (weights[i] != 0) {
+                exercises[i].setWeight(weights[i]);
+            }
+        }
+        r.restoreSession(-1, completed);
+        return r;
+    }
+
+    /*
+    EFFECTS: returns input reading data from just after its header; throws IOException if data does not start
+             with this format's header, or is a later version
+     */
+    private static Input openInput(byte[] data) throws IOException {
+        if (!hasHeader(data, data.length) || data.length < HEADER_SIZE) {
+            throw new IOException("Not a " + EXTENSION + " file");
+        }
+        if (data[VERSION_OFFSET] != VERSION) {
+            throw new IOException("Unsupported " + EXTENSION + " version " + data[VERSION_OFFSET]);
+        }
+        return new Input(data, HEADER_SIZE);
+    }
+
+    /*
+    MODIFIES: out, names
+    EFFECTS: writes e's plan, weight, the sets completed at its position and its set log, adding its name to
+             the table
+     */
+    private static void writeExercise(Output out, Map<String, Integer> names, ExerciseSnapshot e, int completed) {
+        out.writeVarint(indexOf(names, e.getName()));
+        out.writeVarint(e.getEquipment() == null ? 0 : e.getEquipment().ordinal() + 1);
+        out.writeVarint(e.getSets());
+        out.writeVarint(e.getReps());
+        out.writeSignedVarint(e.getWeight());
+        out.writeVarint(completed);
+        writeSetLog(out, e.getSetLog());
+    }
+
+    /*
+    MODIFIES: batch
+    EFFECTS: reads an exercise's name, equipment and plan, and adds it to batch; returns the exercise
+     */
+    private static Exercise readExercise(Input in, String[] table, RoutineBatch batch) throws IOException {
+        String name = in.readName(table);
+        Exercise e = new Exercise(name, readEquipment(in));
+        int sets = in.readVarint();
+        int reps = in.readVarint();
+        batch.add(e, sets, reps);
+        return e;
+    }
+
+    /*
+    MODIFIES: out
+    EFFECTS: writes the name table: the count of names, then each in table order as a length and UTF-8 bytes
+     */
+    private static void writeNames(Output out, Map<String, Integer> names) {
+        String[] table = new String[names.size()];
+        for (Map.Entry<String, Integer> entry : names.entrySet()) {
+            table[entry.getValue()] = entry.getKey();
+        }
+        out.writeVarint(table.length);
+        for (String name : table) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            out.writeVarint(bytes.length);
+            out.writeBytes(bytes, bytes.length);
+        }
+    }
+
+    /*
+    EFFECTS: reads a name table written by writeNames
+     */
+    private static String[] readNames(Input in) throws IOException {
+        String[] table = new String[in.readCount()];
+        for (int i = 0; i < table.length; i++) {
+            int length = in.readCount();
+            table[i] = new String(in.readBytes(length), StandardCharsets.UTF_8);
+        }
+        return table;
+    }
+
+    /*
+    MODIFIES: names
+    EFFECTS: returns the table index of name, adding it to the table if it is new
+     */
+    private static int indexOf(Map<String, Integer> names, String name) {
+        Integer index = names.get(name);
+        if (index == null) {
+            index = names.size();
+            names.put(name, index);
+        }
+        return index;
+    }
+
+    /*
+    MODIFIES: out
+    EFFECTS: writes the size of log, then each set's reps, weight change and time change
+     */
+    private static void writeSetLog(Output out, SetLog log) {
+        out.writeVarint(log.size());
+        int weight = 0;
+        long time = 0;
+        for (int i = 0; i < log.size(); i++) {
+            out.writeVarint(log.getReps(i));
+            out.writeSignedVarint(log.getWeight(i) - weight);
+            out.writeSignedVarlong(log.getTime(i) - time);
+            weight = log.getWeight(i);
+            time = log.getTime(i);
+        }
+    }
+
+    /*
+    MODIFIES: log
+    EFFECTS: reads a set log written by writeSetLog into log
+     */
+    private static void readSetLog(Input in, SetLog log) throws IOException {
+        int size = in.readCount();
+        int weight = 0;
+        long time = 0;
+        for (int i = 0; i < size; i++) {
+            int reps = in.readVarint();
+            weight += in.readSignedVarint();
+            time += in.readSignedVarlong();
+            log.add(reps, weight, time);
+        }
+    }
+
+    /*
+    EFFECTS: reads an equipment code; throws IOException if there is no such equipment
+     */
+    private static Equipment readEquipment(Input in) throws IOException {
+        int code = in.readVarint();
+        Equipment[] values = Equipment.values();
+        if (code < 0 || code > values.length) {
+            throw new IOException("Unknown equipment " + code);
+        }
+        return code == 0 ? null : values[code - 1];
+    }
+
+    /**
+     * A growable byte buffer written with varints. Values are written seven bits per byte, low bits first,
+     * with the top bit set on every byte but the last; signed values are zigzag encoded first so small
+     * negative numbers stay short.
+     */
+    private static final class Output {
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        private void writeByte(int b) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte) b;
+        }
+
+        private void writeBytes(byte[] b, int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(size + length, bytes.length * 2));
+            }
+            System.arraycopy(b, 0, bytes, size, length);
+            size += length;
+        }
+
+        private void writeVarint(int value) {
+            writeVarlong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeSignedVarint(int value) {
+            writeVarint((value << 1) ^ (value >> 31));
+        }
+
+        private void writeSignedVarlong(long value) {
+            writeVarlong((value << 1) ^ (value >> 63));
+        }
+
+        private void writeVarlong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+    }
+
+    /**
+     * Reads varints from a byte array, throwing IOException instead of running off its end.
+     */
+    private static final class Input {
+        private final byte[] bytes;
+        private int position;
+
+        private Input(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        private byte[] readBytes(int length) throws IOException {
+            if (length > bytes.length - position) {
+                throw new IOException("Truncated " + EXTENSION + " file");
+            }
+            byte[] b = Arrays.copyOfRange(bytes, position, position + length);
+            position += length;
+            return b;
+        }
+
+        /*
+        EFFECTS: reads a varint that counts or indexes something; every thing counted takes at least a byte, so
+                 a count larger than what is left of the file means it is corrupt
+         */
+        private int readCount() throws IOException {
+            int value = readVarint();
+            if (value < 0 || value > bytes.length - position) {
+                throw new IOException("Bad count in " + EXTENSION + " file");
+            }
+            return value;
+        }
+
+        private String readName(String[] table) throws IOException {
+            int index = readCount();
+            if (index >= table.length) {
+                throw new IOException("Bad name index in " + EXTENSION + " file");
+            }
+            return table[index];
+        }
+
+        private int readVarint() throws IOException {
+            return (int) readVarlong();
+        }
+
+        private int readSignedVarint() throws IOException {
+            int value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private long readSignedVarlong() throws IOException {
+            long value = readVarlong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private long readVarlong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position == bytes.length) {
+                    throw new IOException("Truncated " + EXTENSION + " file");
+                }
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Bad varint in " + EXTENSION + " file");
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package persistence;
+
+import model.Equipment;
+import model.Event;
+import model.EventLog;
+import model.ExerciseSnapshot;
+import model.Routine;
+import model.RoutineSnapshot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An index of the routine files in a data directory, kept in the directory as index.tsv, so the routines can be
+ * listed and described without opening any of them. For each file it holds the routine's name, exercise count,
+ * total planned sets and how many exercises use each equipment, with the file's modification time, size and
+ * SHA-256 checksum. Loading the index checks every entry against its file's modification time and size; only
+ * files that are new or have changed since are read, and entries for files that are gone are dropped. A
+ * JsonWriter given the index updates its entry every time it saves a routine into the directory, by appending
+ * the new entry to the index file rather than rewriting it; a later line for a file replaces an earlier one,
+ * and the next load writes the index out again with one line per file.
+ * The index file has a header line, then one line per routine file with tab-separated fields:
+ *   file name, routine name, exercises, planned sets, equipment (NAME:count pairs separated by commas),
+ *   modified (milliseconds), size (bytes), checksum (hex)
+ * Tabs, line breaks and backslashes in names are escaped with a backslash.
+ */
+public class RoutineIndex {
+    public static final String FILE_NAME = "index.tsv";
+    private static final String HEADER = "# routine index 1";
+    private static final int FIELDS = 8;
+    private static final int BUFFER_SIZE = 8192;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path directory;
+    private final Path file;
+    private final Map<String, Entry> entries;
+
+    /*
+    EFFECTS: constructs an empty index of the routine files in directory, saved to index.tsv there
+     */
+    public RoutineIndex(String directory) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.file = this.directory.resolve(FILE_NAME);
+        this.entries = new TreeMap<>();
+    }
+
+    /*
+    EFFECTS: returns the index of the routine files in directory: the saved index, with files that are new or
+             have changed since it was saved read again and files that are gone dropped, saved again compacted
+             if anything changed or updates were appended to it; a file that cannot be read is left out and an
+             event is logged for it
+             throws IOException if the directory cannot be listed
+     */
+    public static RoutineIndex load(String directory) throws IOException {
+        RoutineIndex index = new RoutineIndex(directory);
+        String[] fileNames = index.directory.toFile().list((dir, name) -> LibraryLoader.isRoutineFile(name));
+        if (fileNames == null) {
+            throw new IOException("Unable to list " + directory);
+        }
+        boolean changed = !index.read();
+
+        Map<String, Entry> saved = new TreeMap<>(index.entries);
+        index.entries.clear();
+        for (String fileName : fileNames) {
+            Entry old = saved.remove(fileName);
+            Entry entry = index.refresh(fileName, old);
+            changed |= entry != old;
+            if (entry != null) {
+                index.entries.put(fileName, entry);
+            }
+        }
+        if (changed || !saved.isEmpty()) {
+            index.save();
+        }
+        return index;
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: records snapshot, whose content hashes to hash, as just saved to routineFile, and appends its entry
+             to the index file, or saves the whole index if there is no index file yet; does nothing if
+             routineFile is not a routine file in this index's directory; logs an event if the index cannot be
+             saved
+     */
+    public synchronized void update(Path routineFile, RoutineSnapshot snapshot, byte[] hash) {
+        Path path = routineFile.toAbsolutePath().normalize();
+        String fileName = path.getFileName().toString();
+        if (!directory.equals(path.getParent()) || !LibraryLoader.isRoutineFile(fileName)) {
+            return;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            Entry entry = Entry.of(fileName, snapshot, attributes, toHex(hash));
+            entries.put(fileName, entry);
+            append(entry);
+        } catch (IOException e) {
+            EventLog.getInstance().logEvent(new Event("Unable to update routine index " + file));
+        }
+    }
+
+    /*
+    EFFECTS: returns the entry for fileName, or null if it is not indexed
+     */
+    public synchronized Entry get(String fileName) {
+        return entries.get(fileName);
+    }
+
+    /*
+    EFFECTS: returns the names of every indexed routine file, in order
+     */
+    public synchronized List<String> getFileNames() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /*
+    EFFECTS: returns the entry for fileName: saved if the file has not changed since it was indexed, otherwise
+             the file read again; null if the file is gone or cannot be read
+             throws IOException if the file's attributes cannot be read
+     */
+    private Entry refresh(String fileName, Entry saved) throws IOException {
+        Path routineFile = directory.resolve(fileName);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(routineFile, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            // deleted since the directory was listed
+            return null;
+        }
+        if (saved != null && saved.matches(attributes)) {
+            return saved;
+        }
+        return summarize(routineFile, attributes);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: reads the saved index into entries, a later line for a file replacing an earlier one and lines that
+             cannot be parsed skipped; returns false if there is no saved index, it is from another version, any
+             line was skipped or any file has more than one line, so that it is worth saving again
+     */
+    private boolean read() throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(in.readLine())) {
+                return false;
+            }
+            boolean clean = true;
+            String line;
+            while ((line = in.readLine()) != null) {
+                Entry entry = Entry.parse(line);
+                if (entry == null || entries.put(entry.fileName, entry) != null) {
+                    clean = false;
+                }
+            }
+            return clean;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /*
+    EFFECTS: writes every entry to a temporary file and renames it over the index file
+             throws IOException if it cannot be written, leaving the index file as it was
+     */
+    private void save() throws IOException {
+        Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.write('\n');
+            for (Entry entry : entries.values()) {
+                entry.write(out);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /*
+    EFFECTS: appends entry to the end of the index file, or saves the whole index if there is no index file
+             throws IOException if it cannot be written
+     */
+    private void append(Entry entry) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND)) {
+            entry.write(out);
+        } catch (NoSuchFileException e) {
+            save();
+        }
+    }
+
+    /*
+    EFFECTS: reads routineFile and returns its entry, or null (logging an event) if it cannot be read
+     */
+    private static Entry summarize(Path routineFile, BasicFileAttributes attributes) {
+        try {
+            JsonReader reader = new JsonReader();
+            reader.setStreaming(true);
+            reader.setSource(routineFile.toString());
+            Routine r = reader.read();
+            return Entry.of(routineFile.getFileName().toString(), r.snapshot(), attributes, checksum(routineFile));
+        } catch (IOException | RuntimeException e) {
+            EventLog.getInstance().logEvent(new Event("Unable to index file " + routineFile.getFileName()));
+            return null;
+        }
+    }
+
+    /*
+    EFFECTS: returns the SHA-256 checksum of the content of routineFile, in hex
+             throws IOException if it cannot be read
+     */
+    private static String checksum(Path routineFile) throws IOException {
+        MessageDigest digest = JsonWriter.newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(routineFile)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * What the index knows about one routine file: the routine's name, exercise count, total planned sets and
+     * exercises per equipment, and the file's modification time, size and checksum when it was indexed.
+     */
+    public static final class Entry {
+        private final String fileName;
+        private final String name;
+        private final int exercises;
+        private final int sets;
+        private final int[] equipment;
+        private final long modified;
+        private final long size;
+        private final String checksum;
+
+        private Entry(String fileName, String name, int exercises, int sets, int[] equipment, long modified,
+                      long size, String checksum) {
+            this.fileName = fileName;
+            this.name = name;
+            this.exercises = exercises;
+            this.sets = sets;
+            this.equipment = equipment;
+            this.modified = modified;
+            this.size = size;
+            this.checksum = checksum;
+        }
+
+        /*
+        EFFECTS: returns the entry for snapshot saved in fileName, which has the given attributes and checksum
+         */
+        private static Entry of(String fileName, RoutineSnapshot snapshot, BasicFileAttributes attributes,
+                                String checksum) {
+            int sets = 0;
+            int[] equipment = new int[Equipment.values().length];
+            for (ExerciseSnapshot e : snapshot.getExercises()) {
+                sets += e.getSets();
+                if (e.getEquipment() != null) {
+                    equipment[e.getEquipment().ordinal()]++;
+                }
+            }
+            return new Entry(fileName, snapshot.getName(), snapshot.getExercises().size(), sets, equipment,
+                    attributes.lastModifiedTime().toMillis(), attributes.size(), checksum);
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getExerciseCount() {
+            return exercises;
+        }
+
+        /*
+        EFFECTS: returns the goal sets of every exercise added together
+         */
+        public int getPlannedSets() {
+            return sets;
+        }
+
+        /*
+        EFFECTS: returns how many exercises in the routine use equipment
+         */
+        public int getEquipmentCount(Equipment equipment) {
+            return this.equipment[equipment.ordinal()];
+        }
+
+        /*
+        EFFECTS: returns when the file was last modified when it was indexed, in milliseconds since the epoch
+         */
+        public long getModified() {
+            return modified;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /*
+        EFFECTS: returns the SHA-256 checksum of the file when it was indexed, in hex
+         */
+        public String getChecksum() {
+            return checksum;
+        }
+
+        /*
+        EFFECTS: returns a one-line description of the routine, such as
+                 "Push Day: 4 exercises, 14 sets (3 barbell, 1 dumbbell)"
+         */
+        public String describe() {
+            StringBuilder sb = new StringBuilder(name);
+            sb.append(": ").append(exercises).append(exercises == 1 ? " exercise, " : " exercises, ");
+            sb.append(sets).append(sets == 1 ? " set" : " sets");
+            String separator = " (";
+            for (Equipment e : Equipment.values()) {
+                if (equipment[e.ordinal()] > 0) {
+                    sb.append(separator).append(equipment[e.ordinal()]).append(' ');
+                    sb.append(e.name().toLowerCase());
+                    separator = ", ";
+                }
+            }
+            if (!separator.equals(" (")) {
+                sb.append(')');
+            }
+            return sb.toString();
+        }
+
+        /*
+        EFFECTS: returns true if the file still has the modification time and size it had when indexed
+         */
+        private boolean matches(BasicFileAttributes attributes) {
+            return attributes.lastModifiedTime().toMillis() == modified && attributes.size() == size;
+        }
+
+        /*
+        EFFECTS: writes this entry as a line of the index file
+         */
+        private void write(Writer out) throws IOException {
+            StringBuilder mix = new StringBuilder();
+            for (Equipment e : Equipment.values()) {
+                if (equipment[e.ordinal()] > 0) {
+                    if (mix.length() > 0) {
+                        mix.append(',');
+                    }
+                    mix.append(e.name()).append(':').append(equipment[e.ordinal()]);
+                }
+            }
+            out.write(escape(fileName) + '\t' + escape(name) + '\t' + exercises + '\t' + sets + '\t' + mix + '\t'
+                    + modified + '\t' + size + '\t' + checksum + '\n');
+        }
+
+        /*
+        EFFECTS: returns the entry written on line, or null if it cannot be parsed
+         */
+        private static Entry parse(String line) {
+            String[] fields = line.split("\t", -1);
+            if (fields.length != FIELDS) {
+                return null;
+            }
+            try {
+                int[] equipment = new int[Equipment.values().length];
+                if (!fields[4].isEmpty()) {
+                    for (String pair : fields[4].split(",")) {
+                        int colon = pair.indexOf(':');
+                        equipment[Equipment.valueOf(pair.substring(0, colon)).ordinal()] =
+                                Integer.parseInt(pair.substring(colon + 1));
+                    }
+                }
+                return new Entry(unescape(fields[0]), unescape(fields[1]), Integer.parseInt(fields[2]),
+                        Integer.parseInt(fields[3]), equipment, Long.parseLong(fields[5]),
+                        Long.parseLong(fields[6]), fields[7]);
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                return null;
+            }
+        }
+
+        /*
+        EFFECTS: returns s with backslashes, tabs and line breaks escaped
+         */
+        private static String escape(String s) {
+            StringBuilder sb = new StringBuilder(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '\\') {
+                    sb.append("\\\\");
+                } else if (c == '\t') {
+                    sb.append("\\t");
+                } else if (c == '\n') {
+                    sb.append("\\n");
+                } else if (c == '\r') {
+                    sb.append("\\r");
+                } else {
+                    sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+
+        /*
+        EFFECTS: returns s with the escapes made by escape undone
+         */
+        private static String unescape(String s) {
+            StringBuilder sb = new StringBuilder(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '\\' && i + 1 < s.length()) {
+                    char escaped = s.charAt(++i);
+                    sb.append(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+                } else {
+                    sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package persistence;
+
+import model.Routine;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The routines read from a data directory by a LibraryLoader, by file name, along with the files that could not
+ * be read and why. A routine is handed out once by take, since the caller goes on to change it; once taken, or
+ * once its file is written again, it is read from disk instead, even if a loader still reading in the background
+ * gets to it afterwards. A library can be used while it is being filled in from another thread.
+ */
+public class RoutineLibrary {
+    private final Map<String, Routine> routines;
+    private final Map<String, Exception> failures;
+    private final Set<String> stale;
+
+    /*
+    EFFECTS: constructs an empty library
+     */
+    public RoutineLibrary() {
+        routines = new TreeMap<>();
+        failures = new TreeMap<>();
+        stale = new HashSet<>();
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: records routine as read from fileName, unless fileName was taken or invalidated already
+     */
+    synchronized void put(String fileName, Routine routine) {
+        if (!stale.contains(fileName)) {
+            routines.put(fileName, routine);
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: records that fileName could not be read because of failure
+     */
+    synchronized void fail(String fileName, Exception failure) {
+        failures.put(fileName, failure);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: removes and returns the routine read from fileName, or null if there is none (or it was taken)
+     */
+    public synchronized Routine take(String fileName) {
+        stale.add(fileName);
+        return routines.remove(fileName);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: forgets the routine read from fileName, so it is read again from disk
+     */
+    public synchronized void invalidate(String fileName) {
+        stale.add(fileName);
+        routines.remove(fileName);
+        failures.remove(fileName);
+    }
+
+    public synchronized boolean contains(String fileName) {
+        return routines.containsKey(fileName);
+    }
+
+    /*
+    EFFECTS: returns the names of the files whose routines are held now, in order
+     */
+    public synchronized Set<String> getFileNames() {
+        return Collections.unmodifiableSet(new TreeSet<>(routines.keySet()));
+    }
+
+    /*
+    EFFECTS: returns what went wrong reading each file that could not be read, by file name
+     */
+    public synchronized Map<String, Exception> getFailures() {
+        return Collections.unmodifiableMap(new TreeMap<>(failures));
+    }
+
+    public synchronized int size() {
+        return routines.size();
+    }
+}
@@ -0,0 +1,127 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers, for every file a routine was saved to, the routine version and a hash of the content last written
+ * there, along with the file's size and modification time just after. A JsonWriter asks it whether a save would
+ * change anything: if the same version was saved to the file, or the new content hashes the same, and the file
+ * has not been touched since, the save can be skipped.
+ * We use the Singleton Design Pattern so every writer sees the saves made by every other.
+ */
+public final class SaveTracker {
+    private final ConcurrentMap<Path, Save> saves;
+
+    /**
+     * Prevent external construction.
+     * (Singleton Design Pattern).
+     */
+    private SaveTracker() {
+        saves = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Holds the only SaveTracker in the system (Singleton Design Pattern).
+     */
+    private static final class Holder {
+        private static final SaveTracker THE_TRACKER = new SaveTracker();
+    }
+
+    /*
+    EFFECTS: returns the only tracker
+     */
+    public static SaveTracker getInstance() {
+        return Holder.THE_TRACKER;
+    }
+
+    /*
+    EFFECTS: returns true if version was the last saved to file and the file is as that save left it
+     */
+    public boolean isSaved(Path file, long version) {
+        Save save = saves.get(key(file));
+        return save != null && save.version == version && save.isOnDisk(file);
+    }
+
+    /*
+    EFFECTS: returns true if content hashing to hash was the last saved to file and the file is as that save
+             left it
+     */
+    public boolean isSaved(Path file, byte[] hash) {
+        Save save = saves.get(key(file));
+        return save != null && Arrays.equals(save.hash, hash) && save.isOnDisk(file);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: records that version, with content hashing to hash, is now what file holds, as it stands on disk;
+             forgets file if it cannot be read
+     */
+    public void record(Path file, long version, byte[] hash) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            saves.put(key(file), new Save(version, hash.clone(), attributes.size(), attributes.lastModifiedTime()));
+        } catch (IOException e) {
+            forget(file);
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: forgets what was saved to file, so the next save to it is always written
+     */
+    public void forget(Path file) {
+        saves.remove(key(file));
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: forgets every save
+     */
+    public void clear() {
+        saves.clear();
+    }
+
+    /*
+    EFFECTS: returns the key file is tracked under, the same however the path to it is written
+     */
+    private static Path key(Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    /**
+     * One save: the routine version and content hash written, and the size and modification time the file had
+     * just after.
+     */
+    private static final class Save {
+        private final long version;
+        private final byte[] hash;
+        private final long size;
+        private final FileTime modified;
+
+        private Save(long version, byte[] hash, long size, FileTime modified) {
+            this.version = version;
+            this.hash = hash;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        /*
+        EFFECTS: returns true if file still has the size and modification time it had after this save
+         */
+        private boolean isOnDisk(Path file) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return attributes.size() == size && attributes.lastModifiedTime().equals(modified);
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+}
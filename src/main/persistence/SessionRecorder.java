@@ -0,0 +1,317 @@
+package persistence;
+
+import model.*;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Records the session of one routine so it can be recovered if the program dies mid-session.
+ * Session events logged by the routine itself (session begun and ended, sets completed, exercises skipped or
+ * selected, and weights changed) are appended to path.events as they are logged, with their time and, for a
+ * completed set, the weight it was done at, so recovered sets keep the weight and time they were done with.
+ * Every snapshotInterval recorded events the whole routine, with its session state, is written to path.snapshot
+ * and the event file is emptied, so recovery replays at most snapshotInterval events on top of the last snapshot.
+ * Edits to the routine's plan (exercises added, removed, renamed or replanned) are not replayed; each one
+ * snapshots the routine instead, so events recorded after it replay against the edited plan.
+ */
+public class SessionRecorder implements EventSink {
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 64;
+    private static final String EVENTS_SUFFIX = ".events";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private final Routine routine;
+    private final String path;
+    private final int snapshotInterval;
+
+    private Writer writer;
+    private int recorded;
+
+    /*
+    EFFECTS: constructs recorder for routine storing its session under path, snapshotting every
+             DEFAULT_SNAPSHOT_INTERVAL events, and writes a first snapshot of routine as it is now
+     */
+    public SessionRecorder(Routine routine, String path) {
+        this(routine, path, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /*
+    REQUIRES: snapshotInterval > 0
+    EFFECTS: constructs recorder for routine storing its session under path, snapshotting every
+             snapshotInterval events, and writes a first snapshot of routine as it is now
+     */
+    public SessionRecorder(Routine routine, String path, int snapshotInterval) {
+        this.routine = routine;
+        this.path = path;
+        this.snapshotInterval = snapshotInterval;
+        snapshot();
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: snapshots the routine if e edits its plan; otherwise appends e to the event file if it is a session
+             event logged by the routine; once snapshotInterval events are recorded, snapshots the routine before
+             a set is completed or an exercise skipped (when no other change is half done) and starts a new event
+             file; events are dropped if the files cannot be written
+     */
+    @Override
+    public void accept(Event e) {
+        if (e.getSource() != routine) {
+            return;
+        }
+        if (isPlanEdit(e)) {
+            snapshot();
+            return;
+        }
+        if (!isSessionEvent(e)) {
+            return;
+        }
+        if (recorded >= snapshotInterval
+                && (e.getType() == EventType.SET_COMPLETED || e.getType() == EventType.EXERCISE_SKIPPED)) {
+            snapshot();
+        }
+        record(e);
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: appends e to the event file, opening it if needed; closes it if it cannot be written
+     */
+    private void record(Event e) {
+        try {
+            if (writer == null) {
+                writer = openEvents(true);
+            }
+            writer.write(e.getType() + "\t" + e.getNewValue() + "\t" + e.getOldValue() + "\t"
+                    + e.getDate().getTime() + "\t" + e.getExercise() + "\n");
+            writer.flush();
+            recorded++;
+        } catch (IOException ex) {
+            closeEvents();
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: stops recording and deletes the recorded session; call once the session is over
+     */
+    public void close() {
+        closeEvents();
+        new File(path + EVENTS_SUFFIX).delete();
+        new File(path + SNAPSHOT_SUFFIX).delete();
+    }
+
+    /*
+    EFFECTS: rebuilds the routine recorded under path from its last snapshot and the events recorded after it,
+             or returns null if nothing is recorded there; must be called before a recorder for the rebuilt
+             routine is registered, since replaying logs the events again
+             throws IOException if an error occurs reading the files
+     */
+    public static Routine recover(String path) throws IOException {
+        File snapshotFile = new File(path + SNAPSHOT_SUFFIX);
+        if (!snapshotFile.exists()) {
+            return null;
+        }
+        String json = new String(Files.readAllBytes(snapshotFile.toPath()), StandardCharsets.UTF_8);
+        Routine r = parseSnapshot(new JSONObject(json));
+
+        File eventsFile = new File(path + EVENTS_SUFFIX);
+        if (eventsFile.exists()) {
+            List<String> lines = Files.readAllLines(eventsFile.toPath(), StandardCharsets.UTF_8);
+            for (String line : lines) {
+                replay(r, line);
+            }
+        }
+        return r;
+    }
+
+    /*
+    EFFECTS: returns true if e is one of the kinds of event replayed on recovery
+     */
+    private static boolean isSessionEvent(Event e) {
+        switch (e.getType()) {
+            case SESSION_BEGUN:
+            case SET_COMPLETED:
+            case EXERCISE_SKIPPED:
+            case EXERCISE_SELECTED:
+            case WEIGHT_CHANGED:
+            case SESSION_ENDED:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /*
+    EFFECTS: returns true if e is one of the kinds of event that change the routine's plan
+     */
+    private static boolean isPlanEdit(Event e) {
+        switch (e.getType()) {
+            case EXERCISE_ADDED:
+            case EXERCISE_REMOVED:
+            case ROUTINE_EDITED:
+            case ROUTINE_RENAMED:
+            case EXERCISE_RENAMED:
+            case SETS_CHANGED:
+            case REPS_CHANGED:
+            case EQUIPMENT_CHANGED:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: writes the routine and its session state to the snapshot file, replacing it in one step, then
+             empties the event file; keeps the old snapshot and events if the snapshot cannot be written
+     */
+    private void snapshot() {
+        File snapshotFile = new File(path + SNAPSHOT_SUFFIX);
+        File temp = new File(path + SNAPSHOT_SUFFIX + ".tmp");
+        try {
+            if (snapshotFile.getParentFile() != null) {
+                snapshotFile.getParentFile().mkdirs();
+            }
+            Files.write(temp.toPath(), toSnapshot().toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp.toPath(), snapshotFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            closeEvents();
+            writer = openEvents(false);
+            recorded = 0;
+        } catch (IOException ex) {
+            temp.delete();
+        }
+    }
+
+    /*
+    EFFECTS: returns the routine with each exercise's weight and the sets done at its position, and the position
+             of the current exercise, as JSON
+     */
+    private JSONObject toSnapshot() {
+        JSONObject json = routine.toJson();
+        JSONArray exercises = json.getJSONArray("exercises");
+        for (int i = 0; i < exercises.length(); i++) {
+            Exercise e = routine.getExercises().get(i);
+            exercises.getJSONObject(i).put("weight", e.getWeight());
+            exercises.getJSONObject(i).put("progress", routine.getProgress(i));
+        }
+        json.put("current", routine.getCurrentIndex());
+        return json;
+    }
+
+    /*
+    EFFECTS: rebuilds a routine and its session state from a snapshot
+     */
+    private static Routine parseSnapshot(JSONObject json) {
+        Routine r = new Routine(json.getString("name"));
+        JSONArray exercises = json.getJSONArray("exercises");
+        int[] progress = new int[exercises.length()];
+        for (int i = 0; i < exercises.length(); i++) {
+            JSONObject exercise = exercises.getJSONObject(i);
+            Exercise e = new Exercise(exercise.getString("name"),
+                    Equipment.valueOf(exercise.getString("equipment")));
+            r.addExercise(e, exercise.getInt("sets"), exercise.getInt("reps"));
+            e.setWeight(exercise.getInt("weight"));
+            progress[i] = exercise.getInt("progress");
+            JsonReader.addSetLog(e, exercise);
+        }
+        r.restoreSession(json.getInt("current"), progress);
+        return r;
+    }
+
+    /*
+    MODIFIES: r
+    EFFECTS: applies one recorded event to r; events that no longer apply (such as the end of a session that
+             replaying its last set already ended) are ignored
+     */
+    private static void replay(Routine r, String line) {
+        String[] fields = line.split("\t", 5);
+        if (fields.length < 5) {
+            return;
+        }
+        EventType type = EventType.valueOf(fields[0]);
+        int value = Integer.parseInt(fields[1]);
+        if (type == EventType.SESSION_BEGUN && !r.getInSession()) {
+            r.beginSession();
+        } else if (type == EventType.SESSION_ENDED && r.getInSession()) {
+            r.endSession();
+        } else if (type == EventType.WEIGHT_CHANGED) {
+            Exercise e = exerciseNamed(r, fields[4]);
+            if (e != null) {
+                e.setWeight(value);
+            }
+        } else if (r.getCurrent() != null) {
+            replayMove(r, type, value, Integer.parseInt(fields[2]), Long.parseLong(fields[3]));
+        }
+    }
+
+    /*
+    REQUIRES: r is in session
+    MODIFIES: r
+    EFFECTS: applies a recorded set, skip or move to another exercise to r; a set is logged with the reps done
+             (value) and weight it was done at (old), as its event recorded them, and the time it was recorded
+     */
+    private static void replayMove(Routine r, EventType type, int value, int old, long time) {
+        if (type == EventType.SET_COMPLETED) {
+            r.addSetToProgress(value, old, time);
+        } else if (type == EventType.EXERCISE_SKIPPED) {
+            r.skipExercise();
+        } else if (type == EventType.EXERCISE_SELECTED && value >= 0 && value < r.getExercises().size()) {
+            r.jumpToExercise(value);
+        }
+    }
+
+    /*
+    EFFECTS: returns the current exercise of r if it is called name, otherwise the first exercise called name,
+             or null if there is none
+     */
+    private static Exercise exerciseNamed(Routine r, String name) {
+        if (r.getCurrent() != null && r.getCurrent().getName().equals(name)) {
+            return r.getCurrent();
+        }
+        for (Exercise e : r.getExercises()) {
+            if (e.getName().equals(name)) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    /*
+    EFFECTS: opens the event file, appending to it or emptying it first
+     */
+    private Writer openEvents(boolean append) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(path + EVENTS_SUFFIX, append), StandardCharsets.UTF_8));
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: closes the event file if it is open
+     */
+    private void closeEvents() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ex) {
+                // nothing left to flush to
+            }
+            writer = null;
+        }
+    }
+
+    public String getPath() {
+        return path;
+    }
+}
@@ -2,12 +2,32 @@ package persistence;
 
 import org.json.JSONObject;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 /**
+ * Something that can be saved as JSON. It is written field by field to a JsonEmitter, so it can go straight
+ * to a file without a JSONObject tree being built first; toJson builds the tree from the same calls, given to a
+ * JsonTreeEmitter, for code that wants one.
  * Inspired by JsonSerialization Demo
  */
 public interface Writeable {
+    /*
+    EFFECTS: writes this as JSON to out
+     */
+    void writeJson(JsonEmitter out) throws IOException;
+
     /*
     EFFECTS: returns this as JSON object
      */
-    JSONObject toJson();
+    default JSONObject toJson() {
+        JsonTreeEmitter tree = new JsonTreeEmitter();
+        try {
+            writeJson(tree);
+        } catch (IOException e) {
+            // building a tree writes nothing out, so never fails
+            throw new UncheckedIOException(e);
+        }
+        return tree.getObject();
+    }
 }
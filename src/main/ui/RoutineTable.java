@@ -1,22 +1,25 @@
 package ui;
 
-import com.sun.jmx.remote.internal.RMIExporter;
 import model.Equipment;
 import model.Exercise;
+import model.ExerciseField;
 import model.Routine;
+import model.RoutineListener;
 
 import javax.swing.table.AbstractTableModel;
-import java.lang.reflect.Array;
 import java.util.ArrayList;
 
 /**
- * Custom TableModel for Routine viewer
+ * Custom TableModel for Routine viewer. Listens to its Routine and only fires updates for the cells and rows
+ * that actually changed.
  * Inspired by: https://www.codejava.net/java-se/swing/how-to-create-jcombobox-cell-editor-for-jtable
  *              https://docs.oracle.com/javase/tutorial/uiswing/examples/components/TableDemoProject/src/components/TableDemo.java
   */
-public class RoutineTable extends AbstractTableModel {
+public class RoutineTable extends AbstractTableModel implements RoutineListener {
+    private static final int PROGRESS_COLUMN = 5;
+
     private String[] columnNames;
-    private ArrayList<Exercise> exercises;
+    private Routine routine;
 
     // EFFECTS: sets column headers and exercises to use in table
     public RoutineTable(Routine routine) {
@@ -29,20 +32,88 @@ public class RoutineTable extends AbstractTableModel {
                 "Weight",
                 "Progress"
         };
-        this.exercises = routine.getExercises();
+        this.routine = routine;
+        routine.addListener(this);
     }
 
     /*
     MODIFIES: this
-    EFFECTS: sets exercise list and triggers JTable implementing this TableModel to update table
+    EFFECTS: switches to showing routine and triggers JTable implementing this TableModel to redraw the table
      */
     public void setExercises(Routine routine) {
-        this.exercises = routine.getExercises();
+        this.routine.removeListener(this);
+        this.routine = routine;
+        routine.addListener(this);
         fireTableDataChanged();
     }
 
     public ArrayList<Exercise> getExercises() {
-        return exercises;
+        return routine.getExercises();
+    }
+
+    /*
+    EFFECTS: triggers JTable implementing this TableModel to update the cell showing field at index
+     */
+    @Override
+    public void exerciseChanged(Routine routine, int index, ExerciseField field) {
+        fireTableCellUpdated(index, columnOf(field));
+    }
+
+    /*
+    EFFECTS: triggers JTable implementing this TableModel to show the row added at index
+     */
+    @Override
+    public void exerciseAdded(Routine routine, int index) {
+        fireTableRowsInserted(index, index);
+    }
+
+    /*
+    EFFECTS: triggers JTable implementing this TableModel to drop the row removed at index
+     */
+    @Override
+    public void exerciseRemoved(Routine routine, int index) {
+        fireTableRowsDeleted(index, index);
+    }
+
+    /*
+    EFFECTS: triggers JTable implementing this TableModel to redraw every row after a batch of changes
+     */
+    @Override
+    public void exercisesEdited(Routine routine) {
+        fireTableDataChanged();
+    }
+
+    /*
+    EFFECTS: triggers JTable implementing this TableModel to redraw the rows the current exercise left and entered
+     */
+    @Override
+    public void currentMoved(Routine routine, int oldIndex, int newIndex) {
+        if (oldIndex >= 0) {
+            fireTableRowsUpdated(oldIndex, oldIndex);
+        }
+        if (newIndex >= 0) {
+            fireTableRowsUpdated(newIndex, newIndex);
+        }
+    }
+
+    /*
+    EFFECTS: returns the column showing field
+     */
+    private int columnOf(ExerciseField field) {
+        switch (field) {
+            case NAME:
+                return 0;
+            case EQUIPMENT:
+                return 1;
+            case SETS:
+                return 2;
+            case REPS:
+                return 3;
+            case WEIGHT:
+                return 4;
+            default:
+                return PROGRESS_COLUMN;
+        }
     }
 
     /*
@@ -50,7 +121,7 @@ public class RoutineTable extends AbstractTableModel {
      */
     @Override
     public int getRowCount() {
-        return exercises.size();
+        return routine.getExercises().size();
     }
 
     /*
@@ -75,11 +146,11 @@ public class RoutineTable extends AbstractTableModel {
               row in [0, exercises.size())
               col in [0, columnNames.length)
     MODIFIES: this
-    EFFECTS: sets value at specified cell (row, col) and triggers JTable implementing this TableModel to update table
+    EFFECTS: sets value at specified cell (row, col); the routine then tells this to update the cell
      */
     @Override
     public void setValueAt(Object value, int row, int col) {
-        Exercise exercise = exercises.get(row);
+        Exercise exercise = routine.getExercises().get(row);
 
         switch (col) {
             case 0:
@@ -98,11 +169,9 @@ public class RoutineTable extends AbstractTableModel {
                 exercise.setWeight((int) value);
                 break;
             case 5:
-                exercise.setSetsCompleted((int) value);
+                routine.setProgress(row, (int) value);
                 break;
         }
-
-        fireTableCellUpdated(row, col);
     }
 
     /*
@@ -113,7 +182,7 @@ public class RoutineTable extends AbstractTableModel {
     @Override
     public Object getValueAt(int row, int col) {
         Object returnValue = null;
-        Exercise exercise = exercises.get(row);
+        Exercise exercise = routine.getExercises().get(row);
 
         switch (col) {
             case 0:
@@ -132,7 +201,7 @@ public class RoutineTable extends AbstractTableModel {
                 returnValue = exercise.getWeight();
                 break;
             case 5:
-                returnValue = exercise.getSetsCompleted();
+                returnValue = routine.getProgress(row);
                 break;
         }
 
@@ -161,19 +230,17 @@ public class RoutineTable extends AbstractTableModel {
     /*
     REQUIRES: exercises list must not be empty
     MODIFIES: this
-    EFFECTS: removes the selected exercise and triggers JTable implementing this TableModel to update table
+    EFFECTS: removes the selected exercise from the routine; the routine then tells this to drop the row
      */
     public void removeRow(int row) {
-        exercises.remove(row);
-        fireTableRowsDeleted(row, row);
+        routine.removeExercise(row);
     }
 
     /*
     MODIFIES: this
-    EFFECTS: adds new exercise to end of row and triggers JTable implementing this TableModel to update table
+    EFFECTS: adds new exercise to the end of the routine; the routine then tells this to show the row
      */
     public void insertRow(Exercise exercise) {
-        exercises.add(exercise);
-        fireTableRowsDeleted(exercises.size() - 1, exercises.size() - 1);
+        routine.addExercise(exercise, exercise.getSets(), exercise.getReps());
     }
 }
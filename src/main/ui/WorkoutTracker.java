@@ -1,12 +1,19 @@
 package ui;
 
 import model.Equipment;
-import model.Event;
 import model.EventLog;
 import model.Exercise;
+import model.OverflowPolicy;
 import model.Routine;
+import org.json.JSONException;
+import persistence.AutosaveService;
+import persistence.EventJournal;
 import persistence.JsonReader;
 import persistence.JsonWriter;
+import persistence.LibraryLoader;
+import persistence.RoutineIndex;
+import persistence.RoutineLibrary;
+import persistence.SessionRecorder;
 
 import javax.swing.*;
 import javax.swing.table.TableCellRenderer;
@@ -14,10 +21,7 @@ import javax.swing.table.TableColumn;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayList;
 
 /**
  * Workout Tracker and Routine Manager GUI Application
@@ -26,10 +30,19 @@ import java.util.ArrayList;
 public class WorkoutTracker extends JFrame {
     private static final String SAVE_PATH = "./data/";
     private static final String IMG_PATH = "./resources/";
+    private static final String JOURNAL_PATH = "./data/journal/events.log";
+    private static final int EVENT_LOG_CAPACITY = 1000;
+    private static final String SESSION_PATH = "./data/session/current";
 
     private Routine routine;
+    private String extension = JsonWriter.JSON_EXTENSION;
     private JsonWriter jsonWriter;
     private JsonReader jsonReader;
+    private RoutineLibrary library;
+    private RoutineIndex routineIndex;
+    private EventJournal journal;
+    private SessionRecorder recorder;
+    private AutosaveService autosave;
 
     private JTable table;
     private JList<String> files;
@@ -39,10 +52,11 @@ public class WorkoutTracker extends JFrame {
      */
     public WorkoutTracker() {
         super();
-        routine = new Routine();
+        initSettings();
+
+        routine = recoverSession();
         this.setTitle("Workout Tracker: [" + routine.getName() + "]");
 
-        initSettings();
         initView();
 
         setVisible(true);
@@ -53,7 +67,16 @@ public class WorkoutTracker extends JFrame {
      */
     private void initSettings() {
         jsonReader = new JsonReader();
+        jsonReader.setStreaming(true);
+        library = new LibraryLoader(SAVE_PATH).loadInBackground();
+        routineIndex = loadIndex();
         jsonWriter = new JsonWriter();
+        jsonWriter.setIndex(routineIndex);
+        autosave = new AutosaveService(EventQueue::invokeLater);
+        autosave.setIndex(routineIndex);
+        journal = new EventJournal(JOURNAL_PATH);
+        EventLog.getInstance().addSink(journal);
+        EventLog.getInstance().setCapacity(EVENT_LOG_CAPACITY, OverflowPolicy.DROP_OLDEST);
 
         this.setSize(500,600);
         this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -61,19 +84,69 @@ public class WorkoutTracker extends JFrame {
 
         ImageIcon image = new ImageIcon(IMG_PATH + "barbel.png");
         setIconImage(image.getImage());
+        addCloseListener();
+    }
 
+    /*
+    MODIFIES: this
+    EFFECTS: writes any waiting autosave and closes the journal before the window closes
+     */
+    private void addCloseListener() {
         addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent we) {
-                for (Event e : EventLog.getInstance()) {
-                    System.out.println(e.toString() + "\n");
-                }
+                autosave.close();
+                journal.close();
                 System.exit(0);
-
             }
         });
     }
 
+    /*
+    MODIFIES: this
+    EFFECTS: returns the routine of a session interrupted when the tracker last stopped, and keeps recording it,
+             or a new routine if no session was interrupted
+     */
+    private Routine recoverSession() {
+        try {
+            Routine recovered = SessionRecorder.recover(SESSION_PATH);
+            if (recovered != null && recovered.getInSession()) {
+                startRecording(recovered);
+                return recovered;
+            }
+        } catch (IOException | JSONException e) {
+            errorDialog("Unable to recover last session");
+        }
+        return new Routine();
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: starts recording the session of r so it can be recovered if the tracker stops mid-session, and
+             saving it to its file as it goes
+     */
+    private void startRecording(Routine r) {
+        stopRecording();
+        recorder = new SessionRecorder(r, SESSION_PATH);
+        EventLog.getInstance().addSink(recorder);
+        library.invalidate(fileNameOf(r));
+        autosave.watch(r, SAVE_PATH + fileNameOf(r));
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: stops saving and recording the current session and discards what was recorded; changes not yet
+             saved are still written
+     */
+    private void stopRecording() {
+        autosave.unwatch();
+        if (recorder != null) {
+            EventLog.getInstance().removeSink(recorder);
+            recorder.close();
+            recorder = null;
+        }
+    }
+
     /*
     EFFECTS: Displays an error dialog box with indicate error message
      */
@@ -183,12 +256,11 @@ public class WorkoutTracker extends JFrame {
         RoutineTable model = new RoutineTable(routine);
         table = new JTable(model) {
             public Component prepareRenderer(TableCellRenderer r, int row, int col) {
-                Exercise rowExercise = model.getExercises().get(row);
                 Component c = super.prepareRenderer(r, row, col);
 
-                if (rowExercise.equals(routine.getCurrent()) && isCellSelected(row, col)) {
+                if (row == routine.getCurrentIndex() && isCellSelected(row, col)) {
                     c.setBackground(new Color(142, 219, 192));
-                } else if (rowExercise.equals(routine.getCurrent())) {
+                } else if (row == routine.getCurrentIndex()) {
                     c.setBackground(new Color(160, 219, 142));
                 } else if (isCellSelected(row, col)) {
                     c.setBackground(new Color(184, 207, 229));
@@ -288,7 +360,7 @@ public class WorkoutTracker extends JFrame {
                         JOptionPane.ERROR_MESSAGE);
             } catch (HeadlessException e) {
                 errorDialog("No exercise selected");
-            } catch (ArrayIndexOutOfBoundsException e) {
+            } catch (IndexOutOfBoundsException e) {
                 errorDialog("No exercises in routine");
             }
         });
@@ -328,6 +400,9 @@ public class WorkoutTracker extends JFrame {
 
         files = new JList<>(getFiles());
         files.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        DefaultListCellRenderer cells = new DefaultListCellRenderer();
+        files.setCellRenderer((list, fileName, i, selected, focused) ->
+                cells.getListCellRendererComponent(list, describe(fileName), i, selected, focused));
 
         JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, panel,files);
         splitPane.setDividerLocation(200);
@@ -337,29 +412,29 @@ public class WorkoutTracker extends JFrame {
     }
 
     /*
-    EFFECTS: retrieves files in ./data/ folder
+    EFFECTS: returns the index of the routines in ./data/ folder, or an empty index if the folder cannot be listed
      */
-    private String[] getFiles() {
-        String[] fileNames;
-
-        File f = new File(SAVE_PATH);
-        fileNames = f.list();
-
-        return filterJson(fileNames);
+    private RoutineIndex loadIndex() {
+        try {
+            return RoutineIndex.load(SAVE_PATH);
+        } catch (IOException e) {
+            return new RoutineIndex(SAVE_PATH);
+        }
     }
 
     /*
-    EFFECTS: filters fileNames for only *.json
+    EFFECTS: retrieves the routine files in ./data/ folder from the index
      */
-    private String[] filterJson(String[] fileNames) {
-        ArrayList<String> filterFileNames = new ArrayList<>();
-        for (String fileName : fileNames) {
-            if (fileName.endsWith(".json")) {
-                filterFileNames.add(fileName);
-            }
-        }
+    private String[] getFiles() {
+        return routineIndex.getFileNames().toArray(new String[0]);
+    }
 
-        return filterFileNames.toArray(new String[0]);
+    /*
+    EFFECTS: returns the indexed description of the routine in fileName, or fileName if it is not indexed
+     */
+    private String describe(String fileName) {
+        RoutineIndex.Entry entry = routineIndex.get(fileName);
+        return entry == null ? fileName : entry.describe();
     }
 
     /*
@@ -374,7 +449,9 @@ public class WorkoutTracker extends JFrame {
                     "New Routine",JOptionPane.QUESTION_MESSAGE);
 
             if (name != null) {
+                stopRecording();
                 routine = new Routine(name);
+                extension = JsonWriter.JSON_EXTENSION;
                 RoutineTable model = (RoutineTable) table.getModel();
                 model.setExercises(routine);
                 title.setText(name);
@@ -412,25 +489,35 @@ public class WorkoutTracker extends JFrame {
         JButton saveButton = makeButton("SAVE", "save_icon.png", c, 0, 3);
         saveButton.setToolTipText("Save current routine");
         saveButton.addActionListener(ae -> {
-            String path = SAVE_PATH + routine.getName().replace(" ", "_") + ".json";
+            String fileName = fileNameOf(routine);
+            String path = SAVE_PATH + fileName;
             jsonWriter.setDestination(path);
+            library.invalidate(fileName);
 
             try {
                 jsonWriter.open();
                 jsonWriter.write(routine);
                 jsonWriter.close();
-                JOptionPane.showMessageDialog(null,
-                        "Saved " + routine.getName() + " to " + path,
-                        "Routine Saved", JOptionPane.INFORMATION_MESSAGE);
+                String message = jsonWriter.wasSkipped()
+                        ? "No changes to " + routine.getName() + " since it was saved to " + path
+                        : "Saved " + routine.getName() + " to " + path;
+                JOptionPane.showMessageDialog(null, message, "Routine Saved", JOptionPane.INFORMATION_MESSAGE);
 
                 files.setListData(getFiles());
-            } catch (FileNotFoundException e) {
+            } catch (IOException e) {
                 errorDialog("Unable to write to file: " + path);
             }
         });
         panel.add(saveButton, c);
     }
 
+    /*
+    EFFECTS: returns the name of the file r is saved to, in the format the routine was loaded from
+     */
+    private String fileNameOf(Routine r) {
+        return r.getName().replace(" ", "_") + extension;
+    }
+
     /*
     MODIFIES: panel
     EFFECTS: creates button to load routine and adds to panel
@@ -440,10 +527,16 @@ public class WorkoutTracker extends JFrame {
         loadButton.setToolTipText("Load selected routine from right");
         loadButton.addActionListener(ae -> {
             String path = SAVE_PATH + files.getSelectedValue();
-            jsonReader.setSource(path);
 
             try {
-                routine = jsonReader.read();
+                Routine loaded = library.take(files.getSelectedValue());
+                if (loaded == null) {
+                    jsonReader.setSource(path);
+                    loaded = jsonReader.read();
+                }
+                stopRecording();
+                routine = loaded;
+                extension = JsonWriter.extensionOf(files.getSelectedValue());
                 RoutineTable model = (RoutineTable) table.getModel();
                 model.setExercises(routine);
                 title.setText(routine.getName());
@@ -483,9 +576,9 @@ public class WorkoutTracker extends JFrame {
         beginButton.addActionListener(ae -> {
             if (routine.getExercises().isEmpty()) {
                 errorDialog("No exercises in routine");
-            } else {
+            } else if (!routine.getInSession()) {
+                startRecording(routine);
                 routine.beginSession();
-                table.repaint();
             }
         });
         panel.add(beginButton, c);
@@ -511,7 +604,6 @@ public class WorkoutTracker extends JFrame {
 
                     if (weight != null) {
                         routine.addWeightToCurrent(Integer.parseInt(weight));
-                        table.repaint();
                     }
                 } catch (Exception e) {
                     errorDialog("Not a valid weight");
@@ -535,8 +627,8 @@ public class WorkoutTracker extends JFrame {
                 errorDialog("Session has not been started");
             } else {
                 routine.addSetToProgress();
-                table.repaint();
                 if (routine.getCurrent() == null) {
+                    stopRecording();
                     goalsDialog();
                 }
             }
@@ -558,8 +650,8 @@ public class WorkoutTracker extends JFrame {
                 errorDialog("Session has not been started");
             } else {
                 routine.skipExercise();
-                table.repaint();
                 if (routine.getCurrent() == null) {
+                    stopRecording();
                     goalsDialog();
                 }
             }
@@ -1,28 +1,48 @@
 package ui;
 
 import model.Equipment;
+import model.EventLog;
 import model.Exercise;
+import model.OverflowPolicy;
 import model.Routine;
+import org.json.JSONException;
+import persistence.AutosaveService;
+import persistence.EventJournal;
 import persistence.JsonReader;
 import persistence.JsonWriter;
+import persistence.LibraryLoader;
+import persistence.RoutineIndex;
+import persistence.RoutineLibrary;
+import persistence.SessionRecorder;
 
-import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Workout tracker application
+ * The routine is changed only on the main thread, which holds routineLock except while it waits for input, so
+ * autosave snapshots the routine while the user is being asked for something.
  * Inspired by TellerApp
  */
 public class WorkoutTrackerConsole {
     private static final String DEFAULT_PATH = "./data/";
+    private static final String JOURNAL_PATH = "./data/journal/events.log";
+    private static final int EVENT_LOG_CAPACITY = 1000;
+    private static final String SESSION_PATH = "./data/session/current";
 
     private Routine routine;
+    private String extension = JsonWriter.JSON_EXTENSION;
     private Scanner input;
     private JsonWriter jsonWriter;
     private JsonReader jsonReader;
+    private RoutineLibrary library;
+    private RoutineIndex routineIndex;
+    private EventJournal journal;
+    private SessionRecorder recorder;
+    private AutosaveService autosave;
+    private ReentrantLock routineLock;
 
     /*
     EFFECTS: runs the tracker app
@@ -43,19 +63,29 @@ public class WorkoutTrackerConsole {
 
         while (keepGoing) {
             displayHomeMenu();
-            command = input.next();
+            command = next();
             command = command.toLowerCase();
 
             if (command.equals("q")) {
                 if (routine.getInSession()) {
                     routine.endSession();
                 }
+                stopRecording();
                 keepGoing = false;
             } else {
                 processHomeCommand(command);
             }
         }
+        routineLock.unlock();
+        autosave.close();
+        journal.close();
+        displayGoodbye();
+    }
 
+    /*
+    EFFECTS: displays a goodbye depending on whether all goals were met
+     */
+    private void displayGoodbye() {
         if (routine.hasMetAllGoals()) {
             System.out.println("\nYou met all your goals! Have a great day!");
         } else {
@@ -70,9 +100,102 @@ public class WorkoutTrackerConsole {
     private void init() {
         input = new Scanner(System.in);
         input.useDelimiter("\n");
-        routine = new Routine();
+        routineLock = new ReentrantLock();
+        routineLock.lock();
+        routineIndex = loadIndex();
         jsonWriter = new JsonWriter();
+        jsonWriter.setIndex(routineIndex);
+        autosave = new AutosaveService(this::withRoutine);
+        autosave.setIndex(routineIndex);
         jsonReader = new JsonReader();
+        jsonReader.setStreaming(true);
+        library = new LibraryLoader(DEFAULT_PATH).loadInBackground();
+        journal = new EventJournal(JOURNAL_PATH);
+        EventLog.getInstance().addSink(journal);
+        EventLog.getInstance().setCapacity(EVENT_LOG_CAPACITY, OverflowPolicy.DROP_OLDEST);
+        routine = recoverSession();
+    }
+
+    /*
+    EFFECTS: runs task on the calling thread once the main thread is waiting for input and not changing the routine
+     */
+    private void withRoutine(Runnable task) {
+        routineLock.lock();
+        try {
+            task.run();
+        } finally {
+            routineLock.unlock();
+        }
+    }
+
+    /*
+    EFFECTS: returns the next input, letting autosave read the routine while waiting for it
+     */
+    private String next() {
+        routineLock.unlock();
+        try {
+            return input.next();
+        } finally {
+            routineLock.lock();
+        }
+    }
+
+    /*
+    EFFECTS: returns the next input as a number, letting autosave read the routine while waiting for it
+     */
+    private int nextInt() {
+        routineLock.unlock();
+        try {
+            return input.nextInt();
+        } finally {
+            routineLock.lock();
+        }
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: returns the routine of a session interrupted when the tracker last stopped, and keeps recording it,
+             or a new routine if no session was interrupted
+     */
+    private Routine recoverSession() {
+        try {
+            Routine recovered = SessionRecorder.recover(SESSION_PATH);
+            if (recovered != null && recovered.getInSession()) {
+                System.out.println("\nRecovered unfinished session of " + recovered.getName());
+                startRecording(recovered);
+                return recovered;
+            }
+        } catch (IOException | JSONException e) {
+            System.out.println("\nUnable to recover last session");
+        }
+        return new Routine();
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: starts recording the session of r so it can be recovered if the tracker stops mid-session, and
+             saving it to its file as it goes
+     */
+    private void startRecording(Routine r) {
+        stopRecording();
+        recorder = new SessionRecorder(r, SESSION_PATH);
+        EventLog.getInstance().addSink(recorder);
+        library.invalidate(fileNameOf(r));
+        autosave.watch(r, DEFAULT_PATH + fileNameOf(r));
+    }
+
+    /*
+    MODIFIES: this
+    EFFECTS: stops saving and recording the current session and discards what was recorded; changes not yet
+             saved are still written
+     */
+    private void stopRecording() {
+        autosave.unwatch();
+        if (recorder != null) {
+            EventLog.getInstance().removeSink(recorder);
+            recorder.close();
+            recorder = null;
+        }
     }
 
     /*
@@ -117,7 +240,7 @@ public class WorkoutTrackerConsole {
 
         while (keepGoing) {
             displayModifyMenu();
-            command = input.next();
+            command = next();
             command = command.toLowerCase();
 
             if (command.equals("b")) {
@@ -183,10 +306,12 @@ public class WorkoutTrackerConsole {
      */
     private void newRoutine() {
         System.out.print("\nRoutine Name: ");
-        String name = input.next();
+        String name = next();
 
+        stopRecording();
         routine = new Routine();
         routine.setName(name);
+        extension = JsonWriter.JSON_EXTENSION;
     }
 
     /*
@@ -198,17 +323,20 @@ public class WorkoutTrackerConsole {
         int index = 1;
         System.out.println("\nAvailable Routines:");
         for (String fileName : fileNames) {
-            System.out.println(index + " -> " + fileName);
+            RoutineIndex.Entry entry = routineIndex.get(fileName);
+            System.out.println(index + " -> " + fileName + (entry == null ? "" : "  " + entry.describe()));
             index++;
         }
         System.out.print("Choose file number to load: ");
 
-        int choice = input.nextInt() - 1;
+        int choice = nextInt() - 1;
         String path = DEFAULT_PATH + fileNames.get(choice);
-        jsonReader.setSource(path);
 
         try {
-            routine = jsonReader.read();
+            Routine loaded = readRoutine(fileNames.get(choice));
+            stopRecording();
+            routine = loaded;
+            extension = JsonWriter.extensionOf(fileNames.get(choice));
             System.out.println("Loaded " + routine.getName() + " from " + path);
         } catch (IOException e) {
             System.out.println("Unable to read from file: " + path);
@@ -216,44 +344,62 @@ public class WorkoutTrackerConsole {
     }
 
     /*
-    EFFECTS: retrieves files in ./data/ folder
+    EFFECTS: returns the routine in fileName in ./data/ folder, taken from the library if it was read ahead;
+             throws IOException if it cannot be read
      */
-    private ArrayList<String> getFiles() {
-        String[] fileNames;
-
-        File f = new File(DEFAULT_PATH);
-        fileNames = f.list();
-
-        return filterJson(fileNames);
+    private Routine readRoutine(String fileName) throws IOException {
+        Routine loaded = library.take(fileName);
+        if (loaded == null) {
+            jsonReader.setSource(DEFAULT_PATH + fileName);
+            loaded = jsonReader.read();
+        }
+        return loaded;
     }
 
     /*
-    EFFECTS: filters fileNames for only *.json
+    EFFECTS: returns the index of the routines in ./data/ folder, or an empty index if the folder cannot be listed
      */
-    private ArrayList<String> filterJson(String[] fileNames) {
-        ArrayList<String> filterFileNames = new ArrayList<>();
-        for (String fileName : fileNames) {
-            if (fileName.endsWith(".json")) {
-                filterFileNames.add(fileName);
-            }
+    private RoutineIndex loadIndex() {
+        try {
+            return RoutineIndex.load(DEFAULT_PATH);
+        } catch (IOException e) {
+            return new RoutineIndex(DEFAULT_PATH);
         }
+    }
 
-        return filterFileNames;
+    /*
+    EFFECTS: retrieves the routine files in ./data/ folder from the index
+     */
+    private ArrayList<String> getFiles() {
+        return new ArrayList<>(routineIndex.getFileNames());
+    }
+
+    /*
+    EFFECTS: returns the name of the file r is saved to, in the format the routine was loaded from
+     */
+    private String fileNameOf(Routine r) {
+        return r.getName().replace(" ", "_") + extension;
     }
 
     /*
     EFFECTS: saves routine to file
      */
     private void saveRoutine() {
-        String path = DEFAULT_PATH + routine.getName().replace(" ", "_") + ".json";
+        String fileName = fileNameOf(routine);
+        String path = DEFAULT_PATH + fileName;
         jsonWriter.setDestination(path);
+        library.invalidate(fileName);
 
         try {
             jsonWriter.open();
             jsonWriter.write(routine);
             jsonWriter.close();
-            System.out.println("Saved " + routine.getName() + " to " + path);
-        } catch (FileNotFoundException e) {
+            if (jsonWriter.wasSkipped()) {
+                System.out.println("No changes to " + routine.getName() + " since it was saved to " + path);
+            } else {
+                System.out.println("Saved " + routine.getName() + " to " + path);
+            }
+        } catch (IOException e) {
             System.out.println("Unable to write to file: " + path);
         }
     }
@@ -265,7 +411,7 @@ public class WorkoutTrackerConsole {
     private void changeName() {
         System.out.println("\nCurrent Name: " + routine.getName());
         System.out.print("New Name (press b to cancel): ");
-        String name = input.next();
+        String name = next();
 
         if (!name.equals("b")) {
             routine.setName(name);
@@ -278,7 +424,7 @@ public class WorkoutTrackerConsole {
      */
     private void addNewExercise() {
         System.out.print("\nExercise Name: ");
-        String name = input.next();
+        String name = next();
 
         System.out.println("Select from:");
         System.out.println("\tb -> Barbell");
@@ -286,16 +432,16 @@ public class WorkoutTrackerConsole {
         System.out.println("\tm -> Machine");
         System.out.println("\tn -> None");
         System.out.print("Equipment: ");
-        Equipment equipment = convertToEquipment(input.next().toLowerCase());
+        Equipment equipment = convertToEquipment(next().toLowerCase());
         if (equipment == null) {
             System.out.println("\nNot a valid selection");
         } else {
             Exercise newExercise = new Exercise(name, equipment);
 
             System.out.print("Sets: ");
-            int sets = input.nextInt();
+            int sets = nextInt();
             System.out.print("Reps: ");
-            int reps = input.nextInt();
+            int reps = nextInt();
             routine.addExercise(newExercise, sets, reps);
         }
     }
@@ -328,7 +474,7 @@ public class WorkoutTrackerConsole {
         } else {
             System.out.println("\n" + routine.viewWorkout());
             System.out.print("Exercise Number: ");
-            int index = input.nextInt() - 1;
+            int index = nextInt() - 1;
             try {
                 String name = routine.getExercises().get(index).getName();
                 routine.removeExercise(index);
@@ -359,29 +505,37 @@ public class WorkoutTrackerConsole {
             System.out.println("\nNo exercises in routine!");
         } else {
             boolean keepGoing = true;
-            String command;
-
             while (keepGoing) {
-                if (!routine.getInSession()) {
-                    routine.beginSession();
-                }
-                displaySessionMenu();
-                command = input.next();
-                command = command.toLowerCase();
-
-                if (command.equals("b")) {
-                    keepGoing = false;
-                } else {
-                    processSessionCommand(command);
-                    if (!routine.getInSession()) {
-                        System.out.println("Workout complete!");
-                        keepGoing = false;
-                    }
-                }
+                keepGoing = doSessionStep();
             }
         }
     }
 
+    /*
+    MODIFIES: this
+    EFFECTS: begins the session (recording it) if it is not in progress, then processes one session command;
+             returns false once the user goes back or the workout is complete
+     */
+    private boolean doSessionStep() {
+        if (!routine.getInSession()) {
+            startRecording(routine);
+            routine.beginSession();
+        }
+        displaySessionMenu();
+        String command = next().toLowerCase();
+
+        if (command.equals("b")) {
+            return false;
+        }
+        processSessionCommand(command);
+        if (!routine.getInSession()) {
+            stopRecording();
+            System.out.println("Workout complete!");
+            return false;
+        }
+        return true;
+    }
+
     /*
     EFFECTS: displays begin session menu of options to user
      */
@@ -391,6 +545,8 @@ public class WorkoutTrackerConsole {
         System.out.println("\tw -> Set weight of exercise");
         System.out.println("\ta -> Add set");
         System.out.println("\ts -> Skip exercise");
+        System.out.println("\tn -> Next exercise");
+        System.out.println("\tp -> Previous exercise");
         System.out.println("\tb -> Back");
         System.out.print("Make your selection: ");
     }
@@ -409,6 +565,12 @@ public class WorkoutTrackerConsole {
             case "s":
                 doSkipExercise();
                 break;
+            case "n":
+                routine.nextExercise();
+                break;
+            case "p":
+                routine.previousExercise();
+                break;
             default:
                 System.out.println("\nNot a valid selection");
                 break;
@@ -422,7 +584,7 @@ public class WorkoutTrackerConsole {
     private void doSetWeight() {
         System.out.println("\nNOTE: Input plate weight on one side for barbell exercises");
         System.out.print("Weight (in lb): ");
-        int weight = input.nextInt();
+        int weight = nextInt();
         routine.addWeightToCurrent(weight);
     }
 
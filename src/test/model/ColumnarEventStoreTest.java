@@ -0,0 +1,120 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarEventStoreTest {
+    private ColumnarEventStore store;
+
+    @BeforeEach
+    void runBefore() {
+        store = new ColumnarEventStore();
+    }
+
+    @Test
+    void testAppendAndMaterialize() {
+        Event sets = new Event(EventType.SETS_CHANGED, "Deadlift", 1, 3);
+        store.append(sets);
+        store.append(new Event("Free-form"));
+
+        assertEquals(2, store.size());
+        Iterator<Event> it = store.iterator();
+        assertEquals(sets, it.next());
+        assertEquals("Free-form", it.next().getDescription());
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    void testScanWithoutMaterializing() {
+        for (int i = 0; i < 200; i++) {
+            store.append(new Event(EventType.WEIGHT_CHANGED, i % 2 == 0 ? "Squat" : "Bench", i, i + 5));
+        }
+
+        EventCursor cursor = store.scan();
+        int squats = 0;
+        int count = 0;
+        while (cursor.next()) {
+            assertEquals(EventType.WEIGHT_CHANGED, cursor.getType());
+            assertEquals(count + 5, cursor.getNewValue());
+            if (cursor.getExerciseId() == store.idOf("Squat")) {
+                squats++;
+            }
+            count++;
+        }
+        assertEquals(200, count);
+        assertEquals(100, squats);
+        assertEquals("Bench", store.stringFor(store.idOf("Bench")));
+        assertEquals(ColumnarEventStore.NO_STRING, store.idOf("Unknown"));
+    }
+
+    @Test
+    void testTimeRange() {
+        List<Event> logged = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Event e = new Event(EventType.REPS_CHANGED, "Pullup", i, i + 1);
+            logged.add(e);
+            store.append(e);
+        }
+        long from = logged.get(3).getTimeNanos();
+        long to = logged.get(6).getTimeNanos();
+
+        List<Event> found = store.between(from, to);
+        assertTrue(found.size() >= 4);
+        for (Event e : found) {
+            assertTrue(e.getTimeNanos() >= from && e.getTimeNanos() <= to);
+        }
+        assertTrue(found.contains(logged.get(3)));
+        assertTrue(found.contains(logged.get(6)));
+        assertEquals(0, store.between(to + 1_000_000_000L, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    void testCursorIgnoresLaterAppends() {
+        store.append(new Event("First"));
+        EventCursor cursor = store.scan();
+        for (int i = 0; i < 100; i++) {
+            store.append(new Event("Later " + i));
+        }
+
+        assertTrue(cursor.next());
+        assertEquals("First", cursor.getText());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void testDrainAndClear() {
+        store.append(new Event("One"));
+        store.append(new Event("Two"));
+        List<Event> drained = new ArrayList<>();
+
+        assertEquals(2, store.drainTo(drained));
+        assertEquals(0, store.size());
+        assertEquals("Two", drained.get(1).getDescription());
+
+        store.append(new Event("Three"));
+        store.clear();
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testAsEventLogStore() {
+        EventLog log = EventLog.getInstance();
+        log.clear();
+        log.setStore(store);
+        try {
+            log.logEvent(new Event("Columnar"));
+            assertEquals(2, store.size());
+            assertEquals(EventLog.UNBOUNDED, log.getCapacity());
+        } finally {
+            log.setCapacity(EventLog.UNBOUNDED, OverflowPolicy.DROP_OLDEST);
+        }
+        assertTrue(log.getStore() instanceof RingBufferEventStore);
+        assertEquals(2, log.size());
+    }
+}
@@ -0,0 +1,141 @@
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLogTest {
+    private static final String SPILL_PATH = "./data/testEventLog.spill";
+
+    private EventLog log;
+
+    @BeforeEach
+    void runBefore() {
+        log = EventLog.getInstance();
+        log.setCapacity(EventLog.UNBOUNDED, OverflowPolicy.DROP_OLDEST);
+        log.clear();
+    }
+
+    @AfterEach
+    void runAfter() {
+        log.setCapacity(EventLog.UNBOUNDED, OverflowPolicy.DROP_OLDEST);
+        log.setSpillFile(SPILL_PATH);
+        new File(SPILL_PATH).delete();
+    }
+
+    @Test
+    void testLogEventUnbounded() {
+        for (int i = 0; i < 100; i++) {
+            log.logEvent(new Event("Event " + i));
+        }
+
+        assertEquals(101, log.size());
+        assertEquals("Event 99", last(log).getDescription());
+    }
+
+    @Test
+    void testDropOldest() {
+        log.setCapacity(3, OverflowPolicy.DROP_OLDEST);
+        for (int i = 0; i < 10; i++) {
+            log.logEvent(new Event("Event " + i));
+        }
+
+        assertEquals(3, log.size());
+        assertEquals("Event 7", descriptions(log).get(0));
+        assertEquals("Event 9", descriptions(log).get(2));
+    }
+
+    @Test
+    void testShrinkCapacityKeepsNewest() {
+        for (int i = 0; i < 5; i++) {
+            log.logEvent(new Event("Event " + i));
+        }
+        log.setCapacity(2, OverflowPolicy.DROP_OLDEST);
+
+        assertEquals(2, log.size());
+        assertEquals("Event 3", descriptions(log).get(0));
+    }
+
+    @Test
+    void testSpillToDisk() throws IOException {
+        log.setSpillFile(SPILL_PATH);
+        log.setCapacity(2, OverflowPolicy.SPILL_TO_DISK);
+        for (int i = 0; i < 4; i++) {
+            log.logEvent(new Event("Event " + i));
+        }
+        log.setSpillFile(SPILL_PATH);
+
+        String spilled = new String(Files.readAllBytes(new File(SPILL_PATH).toPath()), StandardCharsets.UTF_8);
+        assertTrue(spilled.contains("Event log cleared."));
+        assertTrue(spilled.contains("Event 1"));
+        assertFalse(spilled.contains("Event 2"));
+        assertEquals(2, log.size());
+    }
+
+    @Test
+    void testBlockUntilDrained() throws InterruptedException {
+        log.setCapacity(1, OverflowPolicy.BLOCK);
+        Thread logger = new Thread(() -> log.logEvent(new Event("Blocked")));
+        logger.start();
+        logger.join(100);
+        assertTrue(logger.isAlive());
+
+        List<Event> drained = new ArrayList<>();
+        assertEquals(1, log.drainTo(drained));
+        logger.join(1000);
+
+        assertFalse(logger.isAlive());
+        assertEquals("Event log cleared.", drained.get(0).getDescription());
+        assertEquals("Blocked", last(log).getDescription());
+    }
+
+    @Test
+    void testIteratorIsSnapshot() {
+        log.logEvent(new Event("Before"));
+        Iterator<Event> it = log.iterator();
+        log.logEvent(new Event("After"));
+
+        int count = 0;
+        while (it.hasNext()) {
+            it.next();
+            count++;
+        }
+        assertEquals(2, count);
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        try {
+            log.setCapacity(-1, OverflowPolicy.DROP_OLDEST);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            // pass
+        }
+    }
+
+    private Event last(EventLog log) {
+        Event last = null;
+        for (Event e : log) {
+            last = e;
+        }
+        return last;
+    }
+
+    private List<String> descriptions(EventLog log) {
+        List<String> descriptions = new ArrayList<>();
+        for (Event e : log) {
+            descriptions.add(e.getDescription());
+        }
+        return descriptions;
+    }
+}
@@ -0,0 +1,95 @@
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventQueryTest {
+    private EventLog log;
+    private Routine push;
+    private Routine pull;
+    private Exercise bench;
+    private Exercise deadlift;
+
+    @BeforeEach
+    void runBefore() {
+        log = EventLog.getInstance();
+        push = new Routine("Push Day");
+        pull = new Routine("Pull Day");
+        bench = new Exercise("Bench Press", Equipment.BARBELL);
+        deadlift = new Exercise("Deadlift", Equipment.BARBELL);
+    }
+
+    @AfterEach
+    void runAfter() {
+        log.setCapacity(EventLog.UNBOUNDED, OverflowPolicy.DROP_OLDEST);
+    }
+
+    @Test
+    void testQueryColumnarStore() {
+        log.setStore(new ColumnarEventStore());
+        log.clear();
+        logWorkout();
+        checkQueries();
+    }
+
+    @Test
+    void testQueryRingBufferStore() {
+        log.setCapacity(EventLog.UNBOUNDED, OverflowPolicy.DROP_OLDEST);
+        log.clear();
+        logWorkout();
+        checkQueries();
+    }
+
+    @Test
+    void testQueryTimeRange() {
+        log.setStore(new ColumnarEventStore());
+        log.clear();
+        push.addExercise(bench, 3, 5);
+        bench.setWeight(135);
+        long afterFirst = log.query(new EventQuery().type(EventType.WEIGHT_CHANGED)).get(0).getTimeNanos();
+        bench.setWeight(155);
+
+        List<Event> later = log.query(new EventQuery().exercise("Bench Press").type(EventType.WEIGHT_CHANGED)
+                .between(afterFirst + 1, Long.MAX_VALUE));
+        assertEquals(1, later.size());
+        assertEquals(155, later.get(0).getNewValue());
+    }
+
+    @Test
+    void testMatches() {
+        Event e = new Event(EventType.WEIGHT_CHANGED, "Push Day", "Bench Press", null, 0, 135);
+        assertTrue(new EventQuery().matches(e));
+        assertTrue(new EventQuery().routine("Push Day").exercise("Bench Press").matches(e));
+        assertFalse(new EventQuery().type(EventType.REPS_CHANGED).matches(e));
+        assertFalse(new EventQuery().between(0, e.getTimeNanos() - 1).matches(e));
+        assertEquals(new EventQuery().routine("Push Day"), new EventQuery().routine("Push Day"));
+    }
+
+    private void logWorkout() {
+        push.addExercise(bench, 3, 5);
+        pull.addExercise(deadlift, 1, 5);
+        for (int i = 1; i <= 3; i++) {
+            bench.setWeight(100 + i * 10);
+            deadlift.setWeight(200 + i * 10);
+        }
+        pull.setName("Back Day");
+        deadlift.setWeight(300);
+    }
+
+    private void checkQueries() {
+        List<Event> deadliftWeights = log.query(new EventQuery().exercise("Deadlift").type(EventType.WEIGHT_CHANGED));
+        assertEquals(4, deadliftWeights.size());
+        assertEquals(300, deadliftWeights.get(3).getNewValue());
+
+        assertEquals(3, log.query(new EventQuery().routine("Pull Day").exercise("Deadlift")
+                .type(EventType.WEIGHT_CHANGED)).size());
+        assertEquals(1, log.query(new EventQuery().routine("Back Day").type(EventType.WEIGHT_CHANGED)).size());
+        assertEquals(1, log.query(new EventQuery().routine("Push Day").type(EventType.EXERCISE_ADDED)).size());
+        assertEquals(0, log.query(new EventQuery().exercise("Squat")).size());
+    }
+}
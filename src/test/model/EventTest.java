@@ -0,0 +1,74 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventTest {
+    @Test
+    void testMessageEvent() {
+        Event e = new Event("Something happened");
+        assertEquals(EventType.MESSAGE, e.getType());
+        assertEquals("Something happened", e.getDescription());
+        assertTrue(e.toString().endsWith("\nSomething happened"));
+    }
+
+    @Test
+    void testValueChangedEvent() {
+        Event e = new Event(EventType.SETS_CHANGED, "Deadlift", 3, 5);
+        assertEquals("Deadlift", e.getExercise());
+        assertEquals(3, e.getOldValue());
+        assertEquals(5, e.getNewValue());
+        assertEquals("Changed Deadlift sets from 3 to 5", e.getDescription());
+    }
+
+    @Test
+    void testEquipmentChangedEvent() {
+        Event e = new Event(EventType.EQUIPMENT_CHANGED, "Pullup",
+                Equipment.NONE.ordinal(), Equipment.MACHINE.ordinal());
+        assertEquals("Changed Pullup equipment from NONE to MACHINE", e.getDescription());
+    }
+
+    @Test
+    void testSetCompletedEvent() {
+        Event e = Event.setCompleted("Leg Day", "Squat", 5, 135);
+        assertEquals(EventType.SET_COMPLETED, e.getType());
+        assertEquals(5, e.getReps());
+        assertEquals(135, e.getWeight());
+        assertEquals("One set of Squat completed in Leg Day", e.getDescription());
+        assertThrows(IllegalStateException.class, () -> new Event(EventType.SETS_CHANGED, "Squat", 3, 5).getReps());
+    }
+
+    @Test
+    void testRoutineEvents() {
+        assertEquals("Squat added to Leg Day",
+                new Event(EventType.EXERCISE_ADDED, "Leg Day", "Squat").getDescription());
+        assertEquals("Leg Day session initiated with Squat",
+                new Event(EventType.SESSION_BEGUN, "Leg Day", "Squat").getDescription());
+        assertEquals("Squat completed, Lunge begun",
+                new Event(EventType.EXERCISE_COMPLETED, "Leg Day", "Squat", "Lunge", 0, 0).getDescription());
+        assertEquals("Event log cleared.", new Event(EventType.LOG_CLEARED).getDescription());
+    }
+
+    @Test
+    void testEventsLoggedByExercise() {
+        Exercise pullup = new Exercise("Pullup", Equipment.NONE);
+        pullup.setReps(8);
+
+        Event last = null;
+        for (Event e : EventLog.getInstance()) {
+            last = e;
+        }
+        assertEquals(EventType.REPS_CHANGED, last.getType());
+        assertEquals("Changed Pullup reps from 0 to 8", last.getDescription());
+    }
+
+    @Test
+    void testEquals() {
+        Event e = new Event(EventType.SETS_CHANGED, "Deadlift", 3, 5);
+        assertEquals(e, e);
+        assertNotEquals(e, null);
+        assertNotEquals(e, new Event(EventType.REPS_CHANGED, "Deadlift", 3, 5));
+        assertEquals(e.hashCode(), e.hashCode());
+    }
+}
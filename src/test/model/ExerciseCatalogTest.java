@@ -0,0 +1,106 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExerciseCatalogTest {
+    private ExerciseCatalog catalog;
+
+    @BeforeEach
+    void runBefore() {
+        catalog = ExerciseCatalog.getInstance();
+    }
+
+    @Test
+    void testIntern() {
+        ExerciseDefinition deadlift = catalog.intern("Catalog Deadlift", Equipment.BARBELL);
+
+        assertSame(deadlift, catalog.intern("Catalog Deadlift", Equipment.BARBELL));
+        assertSame(deadlift, catalog.intern(new String("Catalog Deadlift"), Equipment.BARBELL));
+        assertSame(deadlift, catalog.get(deadlift.getId()));
+        assertSame(deadlift, catalog.find("Catalog Deadlift", Equipment.BARBELL));
+        assertEquals("Catalog Deadlift", deadlift.getName());
+        assertEquals(Equipment.BARBELL, deadlift.getEquipment());
+    }
+
+    @Test
+    void testEquipmentDistinguishes() {
+        ExerciseDefinition barbell = catalog.intern("Catalog Row", Equipment.BARBELL);
+        ExerciseDefinition dumbbell = catalog.intern("Catalog Row", Equipment.DUMBBELL);
+        ExerciseDefinition none = catalog.intern("Catalog Row", null);
+
+        assertNotEquals(barbell.getId(), dumbbell.getId());
+        assertNotEquals(barbell.getId(), none.getId());
+        assertNull(none.getEquipment());
+    }
+
+    @Test
+    void testUnknown() {
+        int size = catalog.size();
+
+        assertNull(catalog.get(-1));
+        assertNull(catalog.get(Integer.MAX_VALUE));
+        assertNull(catalog.find("Catalog Never Interned", Equipment.MACHINE));
+        assertEquals(size, catalog.size());
+    }
+
+    @Test
+    void testExercisesShareDefinition() {
+        Routine a = new Routine("Catalog A");
+        Routine b = new Routine("Catalog B");
+        Exercise first = new Exercise("Catalog Squat", Equipment.BARBELL);
+        Exercise second = new Exercise("Catalog Squat", Equipment.BARBELL, 5, 5);
+        a.addExercise(first, 3, 5);
+        b.addExercise(second, 5, 5);
+
+        assertSame(first.getDefinition(), second.getDefinition());
+        assertEquals(first.getDefinitionId(), second.getDefinitionId());
+        assertSame(first.getDefinition(), a.copyPlan().getExercises().get(0).getDefinition());
+        assertSame(first.getDefinition(), first.snapshot().getDefinition());
+    }
+
+    @Test
+    void testRenameMovesDefinition() {
+        Exercise first = new Exercise("Catalog Press", Equipment.BARBELL);
+        Exercise second = new Exercise("Catalog Press", Equipment.BARBELL);
+
+        first.setName("Catalog Overhead Press");
+        assertEquals("Catalog Overhead Press", first.getName());
+        assertEquals("Catalog Press", second.getName());
+        assertNotSame(first.getDefinition(), second.getDefinition());
+
+        first.setName("Catalog Press");
+        assertSame(first.getDefinition(), second.getDefinition());
+
+        second.setEquipment(Equipment.MACHINE);
+        assertEquals(Equipment.MACHINE, second.getEquipment());
+        assertEquals(Equipment.BARBELL, first.getEquipment());
+        assertSame(catalog.find("Catalog Press", Equipment.MACHINE), second.getDefinition());
+    }
+
+    @Test
+    void testNullNameRejected() {
+        assertThrows(IllegalArgumentException.class, () -> catalog.intern(null, Equipment.BARBELL));
+        assertThrows(IllegalArgumentException.class, () -> new Exercise(null, Equipment.BARBELL));
+    }
+
+    @Test
+    void testUnusedDefinitionsDropped() throws InterruptedException {
+        Exercise kept = new Exercise("Catalog Kept", Equipment.MACHINE);
+        Exercise renamed = new Exercise("Catalog Typo", Equipment.MACHINE);
+        int typoId = renamed.getDefinitionId();
+        renamed.setName("Catalog Fixed");
+
+        for (int i = 0; i < 50 && catalog.find("Catalog Typo", Equipment.MACHINE) != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(catalog.find("Catalog Typo", Equipment.MACHINE));
+        assertNull(catalog.get(typoId));
+        assertSame(kept.getDefinition(), catalog.find("Catalog Kept", Equipment.MACHINE));
+        assertSame(renamed.getDefinition(), catalog.find("Catalog Fixed", Equipment.MACHINE));
+        assertNotEquals(typoId, catalog.intern("Catalog Typo", Equipment.MACHINE).getId());
+    }
+}
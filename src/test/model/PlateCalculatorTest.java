@@ -0,0 +1,83 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlateCalculatorTest {
+    private PlateCalculator calculator;
+
+    @BeforeEach
+    void runBefore() {
+        calculator = PlateCalculator.STANDARD;
+    }
+
+    @Test
+    void testBarOnly() {
+        assertArrayEquals(new int[]{0, 0, 0, 0, 0}, calculator.platesPerSide(45));
+        assertTrue(calculator.canLoad(45));
+        assertFalse(calculator.canLoad(44));
+        assertNull(calculator.platesPerSide(20));
+    }
+
+    @Test
+    void testFewestPlates() {
+        assertArrayEquals(new int[]{1, 0, 0, 0, 0}, calculator.platesPerSide(135));
+        assertArrayEquals(new int[]{2, 0, 0, 0, 0}, calculator.platesPerSide(225));
+        assertArrayEquals(new int[]{1, 1, 0, 0, 0}, calculator.platesPerSide(205));
+        assertArrayEquals(new int[]{0, 0, 0, 1, 1}, calculator.platesPerSide(75));
+    }
+
+    @Test
+    void testBoundedByInventory() {
+        PlateCalculator small = new PlateCalculator(45, new int[]{45, 10}, new int[]{1, 1});
+
+        assertArrayEquals(new int[]{1, 1}, small.platesPerSide(155));
+        assertNull(small.platesPerSide(225));
+        assertNull(small.platesPerSide(46));
+        assertNull(small.platesPerSide(95));
+        assertEquals(155, small.nearestLoadable(500));
+        assertEquals(135, small.nearestLoadable(150));
+        assertEquals(-1, small.nearestLoadable(40));
+    }
+
+    @Test
+    void testFewestNotGreedy() {
+        PlateCalculator odd = new PlateCalculator(0, new int[]{25, 20, 5}, new int[]{2, 2, 4});
+
+        assertArrayEquals(new int[]{0, 2, 0}, odd.platesPerSide(80));
+    }
+
+    @Test
+    void testBarWeight() {
+        PlateCalculator womens = calculator.withBarWeight(35);
+
+        assertEquals(35, womens.getBarWeight());
+        assertArrayEquals(new int[]{1, 0, 0, 0, 0}, womens.platesPerSide(125));
+        assertEquals(125, womens.totalFor(45));
+        assertArrayEquals(new int[]{0, 1, 0, 0, 1}, calculator.platesPerSide(125));
+    }
+
+    @Test
+    void testResultIsCopy() {
+        calculator.platesPerSide(135)[0] = 7;
+        calculator.getPlates()[0] = 7;
+
+        assertArrayEquals(new int[]{1, 0, 0, 0, 0}, calculator.platesPerSide(135));
+        assertEquals(45, calculator.getPlates()[0]);
+    }
+
+    @Test
+    void testRoutineUsesBar() {
+        Routine r = new Routine();
+        Exercise squat = new Exercise("Squat", Equipment.BARBELL);
+        r.addExercise(squat, 1, 5);
+        r.setPlateCalculator(calculator.withBarWeight(35));
+        r.beginSession();
+        r.addWeightToCurrent(45);
+
+        assertEquals(125, squat.getWeight());
+        assertEquals(35, r.copyPlan().getPlateCalculator().getBarWeight());
+    }
+}
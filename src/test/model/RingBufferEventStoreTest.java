@@ -0,0 +1,79 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RingBufferEventStoreTest {
+    private RingBufferEventStore store;
+
+    @BeforeEach
+    void runBefore() {
+        store = new RingBufferEventStore();
+    }
+
+    @Test
+    void testLateEventsFiledInOrder() {
+        Event first = at(100, "First");
+        Event late = at(50, "Late");
+        Event last = at(200, "Last");
+        store.append(first);
+        store.append(late);
+        store.append(last);
+
+        assertEquals(3, store.between(0, 300).size());
+        List<Event> middle = store.between(100, 150);
+        assertEquals(2, middle.size());
+        assertSame(first, middle.get(0));
+        assertSame(late, middle.get(1));
+        assertEquals(50, late.getTimeNanos());
+        assertTrue(store.between(0, 99).isEmpty());
+    }
+
+    @Test
+    void testLateEventsKeptThroughResizeAndEviction() {
+        store.setCapacity(4, OverflowPolicy.DROP_OLDEST);
+        for (int i = 0; i < 10; i++) {
+            store.append(at(i % 2 == 0 ? 1000 + i : 0, "Event " + i));
+        }
+
+        List<Event> kept = store.between(1006, Long.MAX_VALUE);
+        assertEquals(4, kept.size());
+        assertEquals("Event 6", kept.get(0).getDescription());
+        assertEquals("Event 9", kept.get(3).getDescription());
+    }
+
+    @Test
+    void testQueryUsesIndexesThroughEviction() {
+        store.setCapacity(50, OverflowPolicy.DROP_OLDEST);
+        for (int i = 0; i < 120; i++) {
+            String exercise = i % 3 == 0 ? "Squat" : "Bench";
+            store.append(new Event(i, EventType.WEIGHT_CHANGED, "Leg Day", exercise, null, i, i + 5));
+            store.append(new Event(i, EventType.SETS_CHANGED, "Leg Day", "Curl " + i, null, 1, 2));
+        }
+
+        List<Event> squats = store.query(new EventQuery().exercise("Squat").type(EventType.WEIGHT_CHANGED));
+        assertEquals(8, squats.size());
+        assertEquals(96, squats.get(0).getOldValue());
+        assertEquals(117, squats.get(7).getOldValue());
+        assertEquals(1, store.query(new EventQuery().exercise("Curl 119")).size());
+        assertTrue(store.query(new EventQuery().exercise("Curl 10")).isEmpty());
+        assertEquals(50, store.query(new EventQuery().routine("Leg Day")).size());
+        assertEquals(2, store.query(new EventQuery().exercise("Squat").between(100, 105)).size());
+
+        store.clear();
+        assertTrue(store.query(new EventQuery().routine("Leg Day")).isEmpty());
+        store.append(at(1, "After clear"));
+        assertEquals(1, store.query(new EventQuery().type(EventType.MESSAGE)).size());
+    }
+
+    /*
+    EFFECTS: returns an event with the given description stamped at timeNanos
+     */
+    private static Event at(long timeNanos, String description) {
+        return new Event(timeNanos, EventType.MESSAGE, null, null, description, 0, 0);
+    }
+}
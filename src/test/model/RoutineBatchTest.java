@@ -0,0 +1,177 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoutineBatchTest {
+    private Routine routine;
+    private Exercise squat;
+    private Exercise bench;
+    private Exercise row;
+    private List<String> calls;
+
+    @BeforeEach
+    void runBefore() {
+        routine = new Routine("Batch Routine");
+        squat = new Exercise("Squat", Equipment.BARBELL);
+        bench = new Exercise("Bench", Equipment.BARBELL);
+        row = new Exercise("Row", Equipment.BARBELL);
+        calls = new ArrayList<>();
+        routine.addListener(new RoutineListener() {
+            @Override
+            public void exerciseAdded(Routine routine, int index) {
+                calls.add("added");
+            }
+
+            @Override
+            public void exerciseRemoved(Routine routine, int index) {
+                calls.add("removed");
+            }
+
+            @Override
+            public void currentMoved(Routine routine, int oldIndex, int newIndex) {
+                calls.add("moved");
+            }
+
+            @Override
+            public void goalStatusChanged(Routine routine, boolean allMet) {
+                calls.add("goal");
+            }
+
+            @Override
+            public void exercisesEdited(Routine routine) {
+                calls.add("edited");
+            }
+        });
+    }
+
+    @Test
+    void testAddLogsOnce() {
+        EventLog log = EventLog.getInstance();
+        log.clear();
+        routine.batch().add(squat, 3, 5).add(bench, 3, 8).add(row, 2, 10).apply();
+
+        List<Event> events = new ArrayList<>();
+        for (Event e : log) {
+            events.add(e);
+        }
+        assertEquals(2, events.size());
+        assertEquals(EventType.ROUTINE_EDITED, events.get(1).getType());
+        assertEquals(0, events.get(1).getOldValue());
+        assertEquals(3, events.get(1).getNewValue());
+
+        assertEquals(1, calls.size());
+        assertEquals("edited", calls.get(0));
+        assertEquals(3, routine.getExercises().size());
+        assertEquals(8, bench.getReps());
+        assertEquals(3, routine.getUnmetGoalCount());
+        assertFalse(routine.hasMetAllGoals());
+    }
+
+    @Test
+    void testRemoveMoveReplace() {
+        routine.batch().add(squat, 1, 5).add(bench, 1, 5).add(row, 1, 5).apply();
+        Exercise curl = new Exercise("Curl", Equipment.DUMBBELL);
+        routine.batch().move(2, 0).remove(1).replace(1, curl, 2, 12).apply();
+
+        assertEquals(2, routine.getExercises().size());
+        assertSame(row, routine.getExercises().get(0));
+        assertSame(curl, routine.getExercises().get(1));
+        assertEquals(2, curl.getSets());
+
+        // exercises that left are no longer relayed
+        calls.clear();
+        squat.setSets(4);
+        bench.setSets(4);
+        assertTrue(calls.isEmpty());
+        routine.setProgress(1, 2);
+        assertEquals(1, routine.getUnmetGoalCount());
+    }
+
+    @Test
+    void testMoveKeepsSession() {
+        routine.batch().add(squat, 2, 5).add(bench, 2, 5).add(row, 2, 5).apply();
+        routine.beginSession();
+        routine.addSetToProgress();
+        routine.addSetToProgress();
+        routine.addSetToProgress();
+        assertSame(bench, routine.getCurrent());
+
+        routine.batch().move(1, 2).move(0, 1).apply();
+
+        assertSame(row, routine.getExercises().get(0));
+        assertSame(squat, routine.getExercises().get(1));
+        assertSame(bench, routine.getExercises().get(2));
+        assertSame(bench, routine.getCurrent());
+        assertEquals(2, routine.getCurrentIndex());
+        assertEquals(1, routine.getProgress());
+        assertEquals(2, routine.getProgress(1));
+        assertEquals(0, routine.getProgress(0));
+    }
+
+    @Test
+    void testRendererAfterBatch() {
+        routine.addExercise(squat, 1, 5);
+        String before = routine.viewWorkout();
+        routine.batch().add(bench, 1, 5).add(row, 1, 5).remove(0).apply();
+
+        String after = routine.viewWorkout();
+        assertNotEquals(before, after);
+        assertFalse(after.contains("Squat"));
+        assertTrue(after.contains("Bench"));
+        assertTrue(after.contains("Row"));
+    }
+
+    @Test
+    void testApplyOnce() {
+        RoutineBatch batch = routine.batch().add(squat, 1, 5);
+        assertEquals(1, batch.size());
+        batch.apply();
+
+        assertThrows(IllegalStateException.class, batch::apply);
+        assertThrows(IllegalStateException.class, () -> batch.remove(0));
+        assertEquals(1, routine.getExercises().size());
+    }
+
+    @Test
+    void testBadIndexChangesNothing() {
+        routine.batch().add(squat, 1, 5).add(bench, 1, 5).apply();
+        calls.clear();
+        RoutineBatch batch = routine.batch().remove(0).add(row, 1, 5).move(0, 2);
+
+        assertThrows(IndexOutOfBoundsException.class, batch::apply);
+        assertThrows(IndexOutOfBoundsException.class, () -> routine.batch().remove(0).remove(1).apply());
+        assertThrows(IndexOutOfBoundsException.class, () -> routine.batch().replace(-1, row, 1, 5).apply());
+        assertEquals(2, routine.getExercises().size());
+        assertSame(squat, routine.getExercises().get(0));
+        assertTrue(calls.isEmpty());
+
+        // a batch that failed is not marked applied
+        assertThrows(IndexOutOfBoundsException.class, batch::apply);
+    }
+
+    @Test
+    void testRemovingLastCurrentEndsSession() {
+        routine.batch().add(squat, 1, 5).add(bench, 1, 5).apply();
+        routine.beginSession();
+        routine.addSetToProgress();
+        assertSame(bench, routine.getCurrent());
+
+        EventLog log = EventLog.getInstance();
+        log.clear();
+        routine.batch().remove(1).apply();
+
+        List<EventType> types = new ArrayList<>();
+        for (Event e : log) {
+            types.add(e.getType());
+        }
+        assertFalse(routine.getInSession());
+        assertEquals(EventType.ROUTINE_EDITED, types.get(1));
+        assertEquals(EventType.SESSION_ENDED, types.get(2));
+    }
+}
@@ -212,30 +212,25 @@ class RoutineTest {
         assertEquals("Bent Over Barbell Row", testRoutineA.getCurrent().getName());
 
         testRoutineA.addSetToProgress();
-        Exercise previous = testRoutineA.getExercises().get(0);
-        assertEquals(3, previous.getSetsCompleted());
+        assertEquals(3, testRoutineA.getProgress(0));
         assertEquals(0, testRoutineA.getProgress());
         assertEquals("Barbell Bench Press", testRoutineA.getCurrent().getName());
     }
 
     @Test
     void addSetToProgressCompleteSetMultipleExercises() {
-        ArrayList<Exercise> exercises = testRoutineB.getExercises();
-
         testRoutineB.beginSession();
         for (int i = 0; i < 4; i++) {
             testRoutineB.addSetToProgress();
         }
-        assertEquals(3, exercises.get(0).getSetsCompleted());
-        assertEquals(1, exercises.get(1).getSetsCompleted());
+        assertEquals(3, testRoutineB.getProgress(0));
+        assertEquals(1, testRoutineB.getProgress(1));
         assertEquals(0, testRoutineB.getProgress());
         assertEquals("Overhead Barbell Press", testRoutineB.getCurrent().getName());
     }
 
     @Test
     void addSetToProgressCompleteRoutine() {
-        ArrayList<Exercise> exercises = testRoutineA.getExercises();
-
         testRoutineA.beginSession();
         for (int i = 0; i < 13; i++) {
             testRoutineA.addSetToProgress();
@@ -248,65 +243,57 @@ class RoutineTest {
         assertFalse(testRoutineA.getInSession());
         assertNull(testRoutineA.getCurrent());
         assertEquals(0, testRoutineA.getProgress());
-        assertEquals(5, exercises.get(3).getSetsCompleted());
+        assertEquals(5, testRoutineA.getProgress(3));
     }
 
     @Test
     void skipExerciseWholeExercise() {
-        ArrayList<Exercise> exercises = testRoutineA.getExercises();
-
         testRoutineA.beginSession();
         assertEquals(0, testRoutineA.getProgress());
         assertEquals("Bent Over Barbell Row", testRoutineA.getCurrent().getName());
 
         testRoutineA.skipExercise();
-        assertEquals(0, exercises.get(0).getSetsCompleted());
+        assertEquals(0, testRoutineA.getProgress(0));
         assertEquals(0, testRoutineA.getProgress());
         assertEquals("Barbell Bench Press", testRoutineA.getCurrent().getName());
     }
 
     @Test
     void skipExerciseOneSetComplete() {
-        ArrayList<Exercise> exercises = testRoutineA.getExercises();
-
         testRoutineA.beginSession();
         testRoutineA.addSetToProgress();
         assertEquals(1, testRoutineA.getProgress());
         assertEquals("Bent Over Barbell Row", testRoutineA.getCurrent().getName());
 
         testRoutineA.skipExercise();
-        assertEquals(1, exercises.get(0).getSetsCompleted());
+        assertEquals(1, testRoutineA.getProgress(0));
         assertEquals(0, testRoutineA.getProgress());
         assertEquals("Barbell Bench Press", testRoutineA.getCurrent().getName());
     }
 
     @Test
     void skipExerciseSkipTwo() {
-        ArrayList<Exercise> exercises = testRoutineB.getExercises();
-
         testRoutineB.beginSession();
         testRoutineB.addSetToProgress();
         testRoutineB.addSetToProgress();
         testRoutineB.skipExercise();
         testRoutineB.skipExercise();
 
-        assertEquals(2, exercises.get(0).getSetsCompleted());
-        assertEquals(0, exercises.get(1).getSetsCompleted());
+        assertEquals(2, testRoutineB.getProgress(0));
+        assertEquals(0, testRoutineB.getProgress(1));
         assertEquals(0, testRoutineB.getProgress());
         assertEquals("Overhead Barbell Press", testRoutineB.getCurrent().getName());
     }
 
     @Test
     void skipExerciseCompleteRoutine() {
-        ArrayList<Exercise> exercises = testRoutineB.getExercises();
-
         testRoutineB.beginSession();
         for (int i = 0; i < 12; i++) {
             testRoutineB.addSetToProgress();
         }
 
         testRoutineB.skipExercise();
-        assertEquals(0, exercises.get(4).getSetsCompleted());
+        assertEquals(0, testRoutineB.getProgress(4));
         assertFalse(testRoutineB.getInSession());
         assertNull(testRoutineB.getCurrent());
         assertEquals(0, testRoutineB.getProgress());
@@ -468,4 +455,285 @@ class RoutineTest {
                         + "Met Goal: Yes",
                 testRoutineB.viewWorkout());
     }
-}
\ No newline at end of file
+
+    @Test
+    void listenerExerciseChanged() {
+        ArrayList<String> changes = new ArrayList<>();
+        testRoutineA.addListener(new RoutineListener() {
+            @Override
+            public void exerciseChanged(Routine routine, int index, ExerciseField field) {
+                changes.add(index + " " + field);
+            }
+        });
+
+        barbellSquat.setReps(8);
+        testRoutineA.beginSession();
+        testRoutineA.addWeightToCurrent(25);
+        testRoutineA.addSetToProgress();
+
+        assertEquals(3, changes.size());
+        assertEquals("2 REPS", changes.get(0));
+        assertEquals("0 WEIGHT", changes.get(1));
+        assertEquals("0 SETS_COMPLETED", changes.get(2));
+    }
+
+    @Test
+    void listenerCurrentMoved() {
+        ArrayList<String> moves = new ArrayList<>();
+        testRoutineB.addListener(new RoutineListener() {
+            @Override
+            public void currentMoved(Routine routine, int oldIndex, int newIndex) {
+                moves.add(oldIndex + "->" + newIndex);
+            }
+        });
+
+        testRoutineB.beginSession();
+        for (int i = 0; i < 3; i++) {
+            testRoutineB.addSetToProgress();
+        }
+        testRoutineB.skipExercise();
+        testRoutineB.endSession();
+
+        assertEquals(4, moves.size());
+        assertEquals("-1->0", moves.get(0));
+        assertEquals("0->1", moves.get(1));
+        assertEquals("1->2", moves.get(2));
+        assertEquals("2->-1", moves.get(3));
+    }
+
+    @Test
+    void listenerAddedAndRemoved() {
+        ArrayList<String> rows = new ArrayList<>();
+        RoutineListener listener = new RoutineListener() {
+            @Override
+            public void exerciseAdded(Routine routine, int index) {
+                rows.add("+" + index);
+            }
+
+            @Override
+            public void exerciseRemoved(Routine routine, int index) {
+                rows.add("-" + index);
+            }
+        };
+        testRoutine.addListener(listener);
+
+        testRoutine.addExercise(pullup, 3, 5);
+        testRoutine.addExercise(deadlift, 1, 5);
+        testRoutine.removeExercise(0);
+        pullup.setReps(10);
+        testRoutine.removeListener(listener);
+        testRoutine.addExercise(tricepExtension, 5, 10);
+
+        assertEquals(3, rows.size());
+        assertEquals("+0", rows.get(0));
+        assertEquals("+1", rows.get(1));
+        assertEquals("-0", rows.get(2));
+    }
+
+    @Test
+    void sessionWithDuplicateExercise() {
+        testRoutine.addExercise(pullup, 2, 5);
+        testRoutine.addExercise(bicepCurl, 1, 10);
+        testRoutine.addExercise(pullup, 2, 5);
+
+        testRoutine.beginSession();
+        testRoutine.addSetToProgress();
+        testRoutine.addSetToProgress();
+        assertEquals(1, testRoutine.getCurrentIndex());
+        testRoutine.addSetToProgress();
+        assertEquals(2, testRoutine.getCurrentIndex());
+        assertSame(pullup, testRoutine.getCurrent());
+        assertEquals(0, testRoutine.getProgress());
+
+        testRoutine.addSetToProgress();
+        assertEquals(2, testRoutine.getCurrentIndex());
+        assertEquals(1, testRoutine.getProgress());
+        testRoutine.addSetToProgress();
+        assertFalse(testRoutine.getInSession());
+        assertEquals(2, testRoutine.getProgress(0));
+        assertEquals(2, testRoutine.getProgress(2));
+    }
+
+    @Test
+    void duplicateExerciseKeepsProgressPerPosition() {
+        testRoutine.addExercise(pullup, 2, 5);
+        testRoutine.addExercise(bicepCurl, 1, 10);
+        testRoutine.addExercise(pullup, 2, 5);
+        testRoutine.beginSession();
+        testRoutine.addSetToProgress();
+
+        String[] rows = testRoutine.viewWorkout().split("\n");
+        assertTrue(rows[3].endsWith("| 1 |"));
+        assertTrue(rows[5].endsWith("| 0 |"));
+        assertEquals(1, pullup.getSetsCompleted());
+
+        testRoutine.setProgress(2, 2);
+        rows = testRoutine.viewWorkout().split("\n");
+        assertTrue(rows[3].endsWith("| 1 |"));
+        assertTrue(rows[5].endsWith("| 2 |"));
+        assertEquals(2, testRoutine.getUnmetGoalCount());
+        assertEquals(1, pullup.getSetsCompleted());
+        assertFalse(pullup.hasMetGoal());
+    }
+
+    @Test
+    void exerciseProgressIsRoutineProgress() {
+        testRoutine.addExercise(bicepCurl, 2, 10);
+        testRoutine.beginSession();
+        testRoutine.addSetToProgress();
+        assertEquals(1, bicepCurl.getSetsCompleted());
+        assertTrue(bicepCurl.viewExercise().endsWith("| 1 |"));
+
+        bicepCurl.setSetsCompleted(2);
+        assertEquals(2, testRoutine.getProgress(0));
+        assertTrue(bicepCurl.hasMetGoal());
+        assertTrue(testRoutine.hasMetAllGoals());
+
+        testRoutine.removeExercise(0);
+        assertEquals(0, bicepCurl.getSetsCompleted());
+    }
+
+    @Test
+    void sessionNextPreviousAndJump() {
+        testRoutineA.beginSession();
+        testRoutineA.addSetToProgress();
+        testRoutineA.nextExercise();
+        assertEquals(1, testRoutineA.getCurrentIndex());
+        assertEquals(0, testRoutineA.getProgress());
+
+        testRoutineA.previousExercise();
+        assertEquals(0, testRoutineA.getCurrentIndex());
+        assertEquals(1, testRoutineA.getProgress());
+        testRoutineA.previousExercise();
+        assertEquals(0, testRoutineA.getCurrentIndex());
+
+        testRoutineA.jumpToExercise(3);
+        assertSame(bicepCurl, testRoutineA.getCurrent());
+        testRoutineA.nextExercise();
+        assertEquals(3, testRoutineA.getCurrentIndex());
+        assertTrue(testRoutineA.getInSession());
+    }
+
+    @Test
+    void sessionRemoveExercises() {
+        testRoutineA.beginSession();
+        testRoutineA.jumpToExercise(1);
+        testRoutineA.addSetToProgress();
+
+        testRoutineA.removeExercise(0);
+        assertEquals(0, testRoutineA.getCurrentIndex());
+        assertSame(barbellBenchPress, testRoutineA.getCurrent());
+        assertEquals(1, testRoutineA.getProgress());
+
+        testRoutineA.removeExercise(0);
+        assertSame(barbellSquat, testRoutineA.getCurrent());
+        assertEquals(0, testRoutineA.getProgress());
+
+        testRoutineA.jumpToExercise(1);
+        testRoutineA.removeExercise(1);
+        assertFalse(testRoutineA.getInSession());
+        assertNull(testRoutineA.getCurrent());
+    }
+
+    @Test
+    void unmetGoalCountTracksChanges() {
+        assertEquals(4, testRoutineA.getUnmetGoalCount());
+        assertTrue(testRoutine.hasMetAllGoals());
+
+        testRoutineA.beginSession();
+        for (int i = 0; i < 3; i++) {
+            testRoutineA.addSetToProgress();
+        }
+        assertEquals(3, testRoutineA.getUnmetGoalCount());
+
+        bentOverBarbellRow.setSets(4);
+        assertEquals(4, testRoutineA.getUnmetGoalCount());
+        bentOverBarbellRow.setSets(3);
+        testRoutineA.removeExercise(1);
+        assertEquals(2, testRoutineA.getUnmetGoalCount());
+        testRoutineA.removeExercise(0);
+        assertEquals(2, testRoutineA.getUnmetGoalCount());
+    }
+
+    @Test
+    void removingLastCurrentEndsSession() {
+        testRoutineA.beginSession();
+        testRoutineA.jumpToExercise(3);
+        EventLog.getInstance().clear();
+        testRoutineA.removeExercise(3);
+
+        assertFalse(testRoutineA.getInSession());
+        Event last = null;
+        for (Event e : EventLog.getInstance()) {
+            last = e;
+        }
+        assertEquals(EventType.SESSION_ENDED, last.getType());
+    }
+
+    @Test
+    void unmetGoalCountWithDuplicates() {
+        testRoutine.addExercise(pullup, 1, 5);
+        testRoutine.addExercise(pullup, 1, 5);
+        assertEquals(2, testRoutine.getUnmetGoalCount());
+
+        testRoutine.beginSession();
+        testRoutine.addSetToProgress();
+        assertEquals(1, testRoutine.getUnmetGoalCount());
+        assertFalse(testRoutine.hasMetAllGoals());
+
+        testRoutine.addSetToProgress();
+        assertEquals(0, testRoutine.getUnmetGoalCount());
+        assertTrue(testRoutine.hasMetAllGoals());
+    }
+
+    @Test
+    void unmetGoalCountPerPositionOfDuplicate() {
+        testRoutine.addExercise(pullup, 2, 5);
+        testRoutine.addExercise(bicepCurl, 1, 10);
+        testRoutine.addExercise(pullup, 2, 5);
+        testRoutine.beginSession();
+        testRoutine.addSetToProgress();
+        testRoutine.addSetToProgress();
+        testRoutine.addSetToProgress();
+
+        // positions 0 and 1 are done but position 2 has no sets yet
+        assertEquals(2, testRoutine.getCurrentIndex());
+        assertEquals(1, testRoutine.getUnmetGoalCount());
+        assertFalse(testRoutine.hasMetAllGoals());
+
+        testRoutine.addSetToProgress();
+        assertEquals(1, testRoutine.getUnmetGoalCount());
+        testRoutine.addSetToProgress();
+        assertEquals(0, testRoutine.getUnmetGoalCount());
+        assertTrue(testRoutine.hasMetAllGoals());
+
+        testRoutine.removeExercise(1);
+        pullup.setSets(3);
+        assertEquals(2, testRoutine.getUnmetGoalCount());
+    }
+
+    @Test
+    void listenerGoalStatusChanged() {
+        ArrayList<Boolean> flips = new ArrayList<>();
+        testRoutineB.addListener(new RoutineListener() {
+            @Override
+            public void goalStatusChanged(Routine routine, boolean allMet) {
+                flips.add(allMet);
+            }
+        });
+
+        testRoutineB.beginSession();
+        for (int i = 0; i < 17; i++) {
+            testRoutineB.addSetToProgress();
+        }
+        assertEquals(1, flips.size());
+        assertTrue(flips.get(0));
+
+        tricepExtension.setSets(6);
+        assertEquals(2, flips.size());
+        assertFalse(flips.get(1));
+        testRoutineB.removeExercise(4);
+        assertEquals(3, flips.size());
+        assertTrue(flips.get(2));
+    }
+}
@@ -0,0 +1,148 @@
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionRegistryTest {
+    private static final int MEMBERS = 24;
+    private SessionRegistry registry;
+    private Routine plan;
+
+    @BeforeEach
+    void runBefore() {
+        registry = new SessionRegistry(4);
+        plan = new Routine("Shared Plan");
+        plan.addExercise(new Exercise("Squat", Equipment.BARBELL), 3, 5);
+        plan.addExercise(new Exercise("Row", Equipment.BARBELL), 2, 8);
+    }
+
+    @AfterEach
+    void runAfter() throws InterruptedException {
+        registry.shutdown(1000);
+    }
+
+    @Test
+    void testStartAndEnd() throws ExecutionException, InterruptedException {
+        registry.start("alex", plan).get();
+        assertTrue(registry.isLive("alex"));
+        assertEquals("Squat", registry.call("alex", r -> r.getCurrent().getName()).get());
+        assertFalse(plan.getInSession());
+
+        registry.completeSet("alex", 5);
+        Routine ended = registry.end("alex").get();
+        assertFalse(ended.getInSession());
+        assertEquals(1, ended.getProgress(0));
+        assertFalse(registry.isLive("alex"));
+        assertEquals(0, plan.getProgress(0));
+    }
+
+    @Test
+    void testDuplicateAndUnknownMember() {
+        registry.start("sam", plan);
+        assertThrows(IllegalStateException.class, () -> registry.start("sam", plan));
+        assertThrows(IllegalArgumentException.class, () -> registry.completeSet("kim", 5));
+        assertThrows(IllegalArgumentException.class, () -> registry.end("kim"));
+    }
+
+    @Test
+    void testManyConcurrentSessions() throws ExecutionException, InterruptedException {
+        List<Thread> clients = new ArrayList<>();
+        for (int m = 0; m < MEMBERS; m++) {
+            String member = "member" + m;
+            registry.start(member, plan);
+            clients.add(new Thread(() -> {
+                registry.addWeight(member, 45);
+                for (int i = 0; i < 4; i++) {
+                    registry.completeSet(member, 5);
+                }
+            }));
+        }
+        for (Thread client : clients) {
+            client.start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+
+        assertEquals(MEMBERS, registry.size());
+        for (String member : new ArrayList<>(registry.members())) {
+            Routine r = registry.end(member).get();
+            assertEquals(3, r.getProgress(0));
+            assertEquals(1, r.getProgress(1));
+            assertEquals(135, r.getExercises().get(0).getWeight());
+            assertEquals(3, r.getExercises().get(0).getSetLog().size());
+        }
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void testActionFailureCompletesExceptionally() throws ExecutionException, InterruptedException {
+        registry.start("lee", plan);
+        CompletableFuture<Object> failed = registry.call("lee", r -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThrows(ExecutionException.class, failed::get);
+        assertTrue(registry.view("lee").get().contains("Shared Plan"));
+    }
+
+    @Test
+    void testErrorCompletesExceptionally() throws ExecutionException, InterruptedException {
+        registry.start("lee", plan);
+        CompletableFuture<Object> failed = registry.call("lee", r -> {
+            throw new AssertionError("boom");
+        });
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, failed::get);
+        assertTrue(thrown.getCause() instanceof AssertionError);
+        assertTrue(registry.view("lee").get().contains("Shared Plan"));
+    }
+
+    @Test
+    void testActionsAfterShutdownRejected() throws InterruptedException {
+        registry.start("kim", plan);
+        assertTrue(registry.shutdown(1000));
+
+        CompletableFuture<Void> late = registry.completeSet("kim", 5);
+        ExecutionException thrown = assertThrows(ExecutionException.class, late::get);
+        assertTrue(thrown.getCause() instanceof RejectedExecutionException);
+    }
+
+    @Test
+    void testLogsToThreadLocalStore() throws InterruptedException {
+        EventLog log = EventLog.getInstance();
+        log.setCapacity(EventLog.UNBOUNDED, OverflowPolicy.DROP_OLDEST);
+        new SessionRegistry(1).shutdown(1000);
+        assertTrue(log.getStore() instanceof RingBufferEventStore);
+
+        log.setCapacity(2, OverflowPolicy.DROP_OLDEST);
+        SessionRegistry.useThreadLocalEventStore();
+        assertTrue(log.getStore() instanceof RingBufferEventStore);
+
+        log.setCapacity(EventLog.UNBOUNDED, OverflowPolicy.DROP_OLDEST);
+        SessionRegistry.useThreadLocalEventStore();
+        assertTrue(log.getStore() instanceof ThreadLocalEventStore);
+        log.setCapacity(EventLog.UNBOUNDED, OverflowPolicy.DROP_OLDEST);
+    }
+
+    @Test
+    void testCopyPlan() {
+        plan.getExercises().get(1).setWeight(95);
+        Routine copy = plan.copyPlan();
+
+        assertEquals("Shared Plan", copy.getName());
+        assertEquals(2, copy.getExercises().size());
+        assertNotSame(plan.getExercises().get(0), copy.getExercises().get(0));
+        assertEquals(8, copy.getExercises().get(1).getReps());
+        assertEquals(95, copy.getExercises().get(1).getWeight());
+    }
+}
@@ -0,0 +1,75 @@
+package model;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SetLogTest {
+    private SetLog log;
+
+    @BeforeEach
+    void runBefore() {
+        log = new SetLog();
+    }
+
+    @Test
+    void testEmpty() {
+        assertEquals(0, log.size());
+        assertEquals(0, log.getVolume());
+        assertEquals(0, log.toJson().getJSONArray("reps").length());
+    }
+
+    @Test
+    void testAddGrows() {
+        for (int i = 0; i < 300; i++) {
+            log.add(i % 10, 100 + i, 1000L * i);
+        }
+
+        assertEquals(300, log.size());
+        assertEquals(9, log.getReps(299));
+        assertEquals(399, log.getWeight(299));
+        assertEquals(299000L, log.getTime(299));
+    }
+
+    @Test
+    void testVolumeAndClear() {
+        log.add(5, 135, 1);
+        log.add(3, 185, 2);
+        assertEquals(5 * 135 + 3 * 185, log.getVolume());
+
+        log.clear();
+        assertEquals(0, log.size());
+        log.add(1, 225, 3);
+        assertEquals(225, log.getWeight(0));
+    }
+
+    @Test
+    void testToJson() {
+        log.add(8, 50, 42L);
+        log.add(6, 55, 43L);
+
+        JSONObject json = log.toJson();
+        assertEquals(6, json.getJSONArray("reps").getInt(1));
+        assertEquals(50, json.getJSONArray("weights").getInt(0));
+        assertEquals(43L, json.getJSONArray("times").getLong(1));
+    }
+
+    @Test
+    void testSetsLoggedInSession() {
+        Routine routine = new Routine("Log Routine");
+        Exercise curl = new Exercise("Curl", Equipment.DUMBBELL);
+        routine.addExercise(curl, 3, 10);
+        routine.beginSession();
+        routine.addWeightToCurrent(25);
+        routine.addSetToProgress();
+        routine.addSetToProgress(8);
+
+        assertEquals(2, curl.getSetLog().size());
+        assertEquals(10, curl.getSetLog().getReps(0));
+        assertEquals(8, curl.getSetLog().getReps(1));
+        assertEquals(25, curl.getSetLog().getWeight(1));
+        assertTrue(curl.toJson().has("log"));
+    }
+}
@@ -0,0 +1,115 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotTest {
+    private Routine routine;
+    private Exercise squat;
+    private Exercise curl;
+
+    @BeforeEach
+    void runBefore() {
+        routine = new Routine("Snapshot Routine");
+        squat = new Exercise("Squat", Equipment.BARBELL);
+        curl = new Exercise("Curl", Equipment.DUMBBELL);
+        routine.addExercise(squat, 2, 5);
+        routine.addExercise(curl, 3, 10);
+    }
+
+    @Test
+    void testSnapshotCached() {
+        RoutineSnapshot first = routine.snapshot();
+        assertSame(first, routine.snapshot());
+
+        routine.setName("Renamed");
+        RoutineSnapshot renamed = routine.snapshot();
+        assertNotSame(first, renamed);
+        assertEquals("Snapshot Routine", first.getName());
+        assertEquals("Renamed", renamed.getName());
+    }
+
+    @Test
+    void testVersion() {
+        long version = routine.getVersion();
+        assertEquals(version, routine.snapshot().getVersion());
+        assertNotEquals(version, new Routine("Snapshot Routine").getVersion());
+        routine.snapshot();
+        assertEquals(version, routine.getVersion());
+
+        curl.setWeight(20);
+        long weighted = routine.getVersion();
+        assertTrue(weighted > version);
+        assertEquals(weighted, routine.snapshot().getVersion());
+
+        routine.beginSession();
+        routine.addSetToProgress();
+        assertTrue(routine.getVersion() > weighted);
+
+        long progressed = routine.getVersion();
+        routine.batch().move(0, 1).apply();
+        assertTrue(routine.getVersion() > progressed);
+    }
+
+    @Test
+    void testUnchangedExercisesShared() {
+        RoutineSnapshot before = routine.snapshot();
+        routine.beginSession();
+        routine.addWeightToCurrent(45);
+        RoutineSnapshot after = routine.snapshot();
+
+        assertNotSame(before, after);
+        assertNotSame(before.getExercises().get(0), after.getExercises().get(0));
+        assertSame(before.getExercises().get(1), after.getExercises().get(1));
+    }
+
+    @Test
+    void testSnapshotUnchangedBySession() {
+        routine.beginSession();
+        routine.addWeightToCurrent(45);
+        routine.addSetToProgress(5);
+        RoutineSnapshot snapshot = routine.snapshot();
+
+        routine.addWeightToCurrent(70);
+        routine.addSetToProgress(3);
+        routine.addSetToProgress(10);
+
+        ExerciseSnapshot squatSnapshot = snapshot.getExercises().get(0);
+        assertTrue(snapshot.getInSession());
+        assertEquals(0, snapshot.getCurrentIndex());
+        assertEquals(1, snapshot.getProgress(0));
+        assertEquals(0, snapshot.getProgress(1));
+        assertEquals(135, squatSnapshot.getWeight());
+        assertEquals(1, squatSnapshot.getSetLog().size());
+        assertFalse(snapshot.hasMetAllGoals());
+
+        assertEquals(185, squat.getWeight());
+        assertEquals(2, squat.getSetLog().size());
+        assertEquals(1, routine.getCurrentIndex());
+        assertEquals(1, routine.snapshot().getCurrentIndex());
+    }
+
+    @Test
+    void testSnapshotSetLogReadOnly() {
+        routine.beginSession();
+        routine.addSetToProgress(5);
+        SetLog log = squat.snapshot().getSetLog();
+
+        assertThrows(UnsupportedOperationException.class, () -> log.add(1, 1, 1));
+        assertThrows(UnsupportedOperationException.class, log::clear);
+        assertThrows(UnsupportedOperationException.class,
+                () -> routine.snapshot().getExercises().remove(0));
+    }
+
+    @Test
+    void testToJsonMatchesSnapshot() {
+        routine.beginSession();
+        routine.addSetToProgress(5);
+
+        assertEquals(routine.snapshot().toJson().toString(), routine.toJson().toString());
+        assertEquals(2, routine.toJson().getJSONArray("exercises").length());
+        assertTrue(routine.toJson().getJSONArray("exercises").getJSONObject(0).has("log"));
+    }
+}
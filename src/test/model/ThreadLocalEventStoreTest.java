@@ -0,0 +1,136 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThreadLocalEventStoreTest {
+    private static final int THREADS = 4;
+    private static final int EVENTS_PER_THREAD = 1000;
+    private ThreadLocalEventStore store;
+
+    @BeforeEach
+    void runBefore() {
+        store = new ThreadLocalEventStore();
+    }
+
+    @Test
+    void testSingleThread() {
+        for (int i = 0; i < 600; i++) {
+            store.append(new Event(EventType.SETS_CHANGED, "Squat", i, i + 1));
+        }
+
+        assertEquals(600, store.size());
+        int expected = 0;
+        for (Event e : store) {
+            assertEquals(expected, e.getOldValue());
+            expected++;
+        }
+        assertEquals(600, expected);
+    }
+
+    @Test
+    void testConcurrentLoggingMergedInTimeOrder() throws InterruptedException {
+        logFromThreads();
+
+        assertEquals(THREADS * EVENTS_PER_THREAD, store.size());
+        List<Event> merged = new ArrayList<>();
+        store.forEach(merged::add);
+        assertEquals(THREADS * EVENTS_PER_THREAD, merged.size());
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < merged.size(); i++) {
+            if (i > 0) {
+                assertTrue(merged.get(i - 1).getTimeNanos() <= merged.get(i).getTimeNanos());
+            }
+            seen.add(merged.get(i).getExercise() + merged.get(i).getOldValue());
+        }
+        assertEquals(THREADS * EVENTS_PER_THREAD, seen.size());
+    }
+
+    @Test
+    void testDrainAndClear() throws InterruptedException {
+        logFromThreads();
+
+        List<Event> drained = new ArrayList<>();
+        assertEquals(THREADS * EVENTS_PER_THREAD, store.drainTo(drained));
+        assertEquals(THREADS * EVENTS_PER_THREAD, drained.size());
+        assertEquals(0, store.size());
+        assertFalse(store.iterator().hasNext());
+
+        store.append(new Event("After drain"));
+        assertEquals(1, store.size());
+        store.clear();
+        assertEquals(0, store.size());
+        store.append(new Event("After clear"));
+        assertEquals("After clear", store.iterator().next().getDescription());
+    }
+
+    @Test
+    void testQueryAndBetween() throws InterruptedException {
+        logFromThreads();
+
+        List<Event> thread0 = store.query(new EventQuery().exercise("Thread 0"));
+        assertEquals(EVENTS_PER_THREAD, thread0.size());
+        for (int i = 0; i < thread0.size(); i++) {
+            assertEquals(i, thread0.get(i).getOldValue());
+        }
+
+        long from = thread0.get(100).getTimeNanos();
+        long to = thread0.get(200).getTimeNanos();
+        for (Event e : store.between(from, to)) {
+            assertTrue(e.getTimeNanos() >= from && e.getTimeNanos() <= to);
+        }
+    }
+
+    @Test
+    void testEventLogFromManyThreads() throws InterruptedException {
+        EventLog log = EventLog.getInstance();
+        log.setStore(store);
+        log.clear();
+        Thread[] threads = new Thread[THREADS];
+        EventLog[] seen = new EventLog[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                seen[id] = EventLog.getInstance();
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                    EventLog.getInstance().logEvent(new Event(EventType.REPS_CHANGED, "Thread " + id, i, i));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (EventLog instance : seen) {
+            assertSame(log, instance);
+        }
+        assertEquals(THREADS * EVENTS_PER_THREAD + 1, log.size());
+        log.setStore(new RingBufferEventStore());
+        assertEquals(THREADS * EVENTS_PER_THREAD + 1, log.size());
+        log.clear();
+    }
+
+    private void logFromThreads() throws InterruptedException {
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            String name = "Thread " + t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                    store.append(new Event(EventType.WEIGHT_CHANGED, name, i, i + 1));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkoutRendererTest {
+    private static final String TITLES = "|Cur|Num| Name                    |Sets|Reps| Wgt |Prg|\n"
+            + "=======================================================\n";
+    private static final String FOOTER = "=======================================================\n";
+
+    private Routine routine;
+    private Exercise squat;
+    private Exercise press;
+    private WorkoutRenderer renderer;
+
+    @BeforeEach
+    void runBefore() {
+        routine = new Routine("Renderer Routine");
+        squat = new Exercise("Squat", Equipment.BARBELL);
+        press = new Exercise("Press", Equipment.BARBELL);
+        routine.addExercise(squat, 2, 5);
+        routine.addExercise(press, 1, 8);
+        renderer = new WorkoutRenderer(routine);
+    }
+
+    @Test
+    void testRender() {
+        assertEquals("Renderer Routine\n" + TITLES
+                + "|   | 1 | Squat                   | 2  | 5  | 0   | 0 |\n"
+                + "|   | 2 | Press                   | 1  | 8  | 0   | 0 |\n"
+                + FOOTER + "Met Goal: No", renderer.render());
+        assertEquals(routine.viewWorkout(), renderer.render());
+    }
+
+    @Test
+    void testRenderAfterChanges() {
+        renderer.render();
+        routine.beginSession();
+        routine.addWeightToCurrent(50);
+        routine.addSetToProgress();
+        routine.setName("Renamed");
+        press.setName("Overhead Press");
+
+        assertEquals("Renamed\n" + TITLES
+                + "| * | 1 | Squat                   | 2  | 5  | 145 | 1 |\n"
+                + "|   | 2 | Overhead Press          | 1  | 8  | 0   | 0 |\n"
+                + FOOTER + "Met Goal: No", renderer.render());
+
+        routine.addSetToProgress();
+        routine.addSetToProgress();
+        assertEquals("Renamed\n" + TITLES
+                + "|   | 1 | Squat                   | 2  | 5  | 145 | 2 |\n"
+                + "|   | 2 | Overhead Press          | 1  | 8  | 0   | 1 |\n"
+                + FOOTER + "Met Goal: Yes", renderer.render());
+    }
+
+    @Test
+    void testRenumberOnAddAndRemove() {
+        renderer.render();
+        routine.removeExercise(0);
+        routine.addExercise(squat, 3, 3);
+
+        assertEquals("Renderer Routine\n" + TITLES
+                + "|   | 1 | Press                   | 1  | 8  | 0   | 0 |\n"
+                + "|   | 2 | Squat                   | 3  | 3  | 0   | 0 |\n"
+                + FOOTER + "Met Goal: No", renderer.render());
+    }
+
+    @Test
+    void testManyExercises() {
+        for (int i = 0; i < 200; i++) {
+            routine.addExercise(new Exercise("Exercise " + i, Equipment.NONE), 1, 1);
+        }
+        String view = renderer.render();
+
+        assertTrue(view.contains("|   | 202 | Exercise 199            | 1  | 1  | 0   | 0 |\n"));
+        renderer.detach();
+        routine.removeExercise(0);
+        assertEquals(view, renderer.render());
+    }
+}
@@ -0,0 +1,179 @@
+package persistence;
+
+import model.Equipment;
+import model.Exercise;
+import model.Routine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AutosaveServiceTest extends JsonTest {
+    private static final String PATH = "./data/testAutosave.json";
+
+    private Routine routine;
+    private AutosaveService autosave;
+
+    @BeforeEach
+    void runBefore() {
+        routine = new Routine("Autosave Routine");
+        routine.addExercise(new Exercise("Squat", Equipment.BARBELL), 10, 5);
+        routine.addExercise(new Exercise("Curl", Equipment.DUMBBELL), 1, 10);
+    }
+
+    @AfterEach
+    void runAfter() {
+        if (autosave != null) {
+            autosave.close();
+        }
+        new File(PATH).delete();
+    }
+
+    @Test
+    void testBurstSavedOnce() throws Exception {
+        autosave = new AutosaveService(50, 1000);
+        autosave.watch(routine, PATH);
+        routine.beginSession();
+        for (int i = 0; i < 5; i++) {
+            routine.addSetToProgress();
+        }
+
+        waitForSaves(1);
+        Thread.sleep(200);
+        assertEquals(1, autosave.getSaveCount());
+        assertEquals(5, read().getExercises().get(0).getSetLog().size());
+    }
+
+    @Test
+    void testSavedWithinMaxDelay() throws Exception {
+        ReentrantLock lock = new ReentrantLock();
+        autosave = new AutosaveService(100, 250, task -> {
+            lock.lock();
+            try {
+                task.run();
+            } finally {
+                lock.unlock();
+            }
+        });
+        autosave.watch(routine, PATH);
+        routine.beginSession();
+        long end = System.currentTimeMillis() + 700;
+        while (System.currentTimeMillis() < end) {
+            lock.lock();
+            routine.addWeightToCurrent((int) (end - System.currentTimeMillis()));
+            lock.unlock();
+            Thread.sleep(20);
+        }
+        assertTrue(autosave.getSaveCount() >= 2);
+    }
+
+    @Test
+    void testSnapshotTakenOnRoutineThread() throws Exception {
+        Queue<Runnable> routineThread = new ConcurrentLinkedQueue<>();
+        autosave = new AutosaveService(20, 100, routineThread::add);
+        autosave.watch(routine, PATH);
+        routine.beginSession();
+        routine.addSetToProgress();
+
+        long end = System.currentTimeMillis() + 5000;
+        while (routineThread.isEmpty() && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, routineThread.size());
+        assertEquals(0, autosave.getSaveCount());
+
+        routine.addSetToProgress();
+        routineThread.poll().run();
+        waitForSaves(1);
+        assertEquals(2, read().getExercises().get(0).getSetLog().size());
+    }
+
+    @Test
+    void testWatchAfterCloseIgnored() {
+        autosave = new AutosaveService(10, 100);
+        autosave.close();
+        autosave.watch(routine, PATH);
+        routine.beginSession();
+        routine.addSetToProgress();
+        autosave.flush();
+        assertEquals(0, autosave.getSaveCount());
+        assertFalse(new File(PATH).exists());
+    }
+
+    @Test
+    void testOnlyInSession() {
+        autosave = new AutosaveService(10, 100);
+        autosave.watch(routine, PATH);
+        routine.addExercise(new Exercise("Row", Equipment.BARBELL), 3, 5);
+        routine.getExercises().get(0).setWeight(100);
+        autosave.flush();
+        assertEquals(0, autosave.getSaveCount());
+        assertFalse(new File(PATH).exists());
+    }
+
+    @Test
+    void testEndOfSessionSaved() throws IOException {
+        autosave = new AutosaveService(60000, 60000);
+        autosave.watch(routine, PATH);
+        routine.beginSession();
+        routine.skipExercise();
+        routine.addSetToProgress();
+        assertFalse(routine.getInSession());
+
+        autosave.flush();
+        assertEquals(1, autosave.getSaveCount());
+        assertEquals(1, read().getExercises().get(1).getSetLog().size());
+    }
+
+    @Test
+    void testUnwatchWritesPending() {
+        autosave = new AutosaveService(60000, 60000);
+        autosave.watch(routine, PATH);
+        routine.beginSession();
+        routine.addSetToProgress();
+        autosave.unwatch();
+        autosave.flush();
+        assertEquals(1, autosave.getSaveCount());
+
+        routine.addSetToProgress();
+        autosave.flush();
+        assertEquals(1, autosave.getSaveCount());
+    }
+
+    @Test
+    void testFailureLogged() {
+        autosave = new AutosaveService(60000, 60000);
+        autosave.watch(routine, "./data/noSuchDirectory/testAutosave.json");
+        routine.beginSession();
+        autosave.flush();
+        assertEquals(0, autosave.getSaveCount());
+        assertEquals(1, autosave.getFailureCount());
+    }
+
+    /*
+    EFFECTS: waits up to a few seconds for the service to have made count saves
+     */
+    private void waitForSaves(int count) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (autosave.getSaveCount() < count && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, autosave.getSaveCount());
+    }
+
+    /*
+    EFFECTS: returns the routine saved at PATH
+     */
+    private Routine read() throws IOException {
+        JsonReader reader = new JsonReader();
+        reader.setSource(PATH);
+        return reader.read();
+    }
+}
@@ -0,0 +1,118 @@
+package persistence;
+
+import model.Event;
+import model.EventLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventJournalTest {
+    private static final String PATH = "./data/testJournal/events.log";
+
+    @AfterEach
+    void runAfter() {
+        File dir = new File(PATH).getParentFile();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    void testJournalWritesAllEventsOnClose() throws IOException {
+        EventJournal journal = new EventJournal(PATH);
+        for (int i = 0; i < 1000; i++) {
+            journal.accept(new Event("Event " + i));
+        }
+        journal.close();
+
+        List<String> lines = readLines(PATH);
+        assertEquals(1000, lines.size());
+        assertTrue(lines.get(0).endsWith("\tEvent 0"));
+        assertTrue(lines.get(999).endsWith("\tEvent 999"));
+    }
+
+    @Test
+    void testJournalAsEventLogSink() throws IOException {
+        EventJournal journal = new EventJournal(PATH);
+        EventLog.getInstance().addSink(journal);
+        EventLog.getInstance().logEvent(new Event("Logged through sink"));
+        EventLog.getInstance().removeSink(journal);
+        EventLog.getInstance().logEvent(new Event("Not journaled"));
+        journal.close();
+
+        List<String> lines = readLines(PATH);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith("\tLogged through sink"));
+    }
+
+    @Test
+    void testJournalFlushesOnInterval() throws IOException, InterruptedException {
+        EventJournal journal = new EventJournal(PATH, 1000, 10, EventJournal.DEFAULT_MAX_FILE_BYTES, 1);
+        journal.accept(new Event("Flushed by timer"));
+        Thread.sleep(200);
+
+        assertEquals(1, readLines(PATH).size());
+        journal.close();
+    }
+
+    @Test
+    void testJournalRotates() throws IOException {
+        EventJournal journal = new EventJournal(PATH, 10, 1000, 100, 2);
+        for (int i = 0; i < 100; i++) {
+            journal.accept(new Event("Event " + i));
+        }
+        journal.close();
+
+        assertTrue(new File(PATH).exists());
+        assertTrue(new File(PATH + ".1").exists());
+        assertTrue(new File(PATH + ".2").exists());
+        assertFalse(new File(PATH + ".3").exists());
+        assertTrue(new File(PATH).length() < 200);
+        assertTrue(readLines(PATH).get(readLines(PATH).size() - 1).endsWith("\tEvent 99"));
+    }
+
+    @Test
+    void testJournalRotatesByBytes() throws IOException {
+        // each line is about 45 bytes but only 25 characters
+        String wide = "\u65e5\u65e5\u65e5\u65e5\u65e5\u65e5\u65e5\u65e5\u65e5\u65e5";
+        EventJournal journal = new EventJournal(PATH, 10, 1000, 100, 5);
+        for (int i = 0; i < 20; i++) {
+            journal.accept(new Event(wide));
+        }
+        journal.close();
+
+        for (int i = 1; i <= 5; i++) {
+            File rotated = new File(PATH + "." + i);
+            assertTrue(rotated.exists());
+            assertTrue(rotated.length() < 150);
+        }
+    }
+
+    @Test
+    void testJournalDropsEventsAfterClose() throws IOException {
+        EventJournal journal = new EventJournal(PATH);
+        journal.accept(new Event("Before close"));
+        journal.close();
+        journal.accept(new Event("After close"));
+        journal.close();
+
+        List<String> lines = readLines(PATH);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith("\tBefore close"));
+    }
+
+    private List<String> readLines(String path) throws IOException {
+        return Files.readAllLines(new File(path).toPath(), StandardCharsets.UTF_8);
+    }
+}
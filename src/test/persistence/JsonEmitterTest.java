@@ -0,0 +1,83 @@
+package persistence;
+
+import model.Equipment;
+import model.Exercise;
+import model.Routine;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonEmitterTest {
+    @Test
+    void testCompact() throws IOException {
+        StringWriter s = new StringWriter();
+        new JsonEmitter(s).beginObject()
+                .name("a").value(1)
+                .name("b").beginArray().value(true).value((String) null).beginObject().endObject().endArray()
+                .name("c").beginArray().endArray()
+                .name("d").value(Equipment.BARBELL)
+                .endObject();
+
+        assertEquals("{\"a\":1,\"b\":[true,null,{}],\"c\":[],\"d\":\"BARBELL\"}", s.toString());
+    }
+
+    @Test
+    void testIndented() throws IOException {
+        StringWriter s = new StringWriter();
+        new JsonEmitter(s, 2).beginObject()
+                .name("a").value(-5)
+                .name("b").beginArray().value("x").endArray()
+                .endObject();
+
+        assertEquals("{\n  \"a\": -5,\n  \"b\": [\n    \"x\"\n  ]\n}", s.toString());
+    }
+
+    @Test
+    void testEscapes() throws IOException {
+        String text = "quote \" slash \\ line\nbreak\ttab \u0001 caf\u00e9";
+        StringWriter s = new StringWriter();
+        new JsonEmitter(s).beginObject().name(text).value(text).endObject();
+
+        JSONObject json = new JSONObject(s.toString());
+        assertEquals(text, json.getString(text));
+    }
+
+    @Test
+    void testTreeEmitterBuildsSameObject() throws IOException {
+        StringWriter s = new StringWriter();
+        JsonTreeEmitter tree = new JsonTreeEmitter();
+        for (JsonEmitter out : new JsonEmitter[] {new JsonEmitter(s), tree}) {
+            out.beginObject()
+                    .name("a").value(1)
+                    .name("b").beginArray().value(true).value((String) null).beginObject().endObject().endArray()
+                    .name("c").beginObject().name("d").value(Equipment.BARBELL).endObject()
+                    .endObject();
+        }
+
+        JSONObject json = tree.getObject();
+        assertTrue(new JSONObject(s.toString()).similar(json));
+        assertTrue(json.getJSONArray("b").isNull(1));
+        assertEquals("BARBELL", json.getJSONObject("c").getString("d"));
+    }
+
+    @Test
+    void testToJsonBuiltFromEmitter() throws IOException {
+        Routine r = new Routine("Emitter \"Routine\"");
+        r.addExercise(new Exercise("Squat", Equipment.BARBELL), 3, 5);
+        r.beginSession();
+        r.addSetToProgress(5);
+
+        StringWriter s = new StringWriter();
+        r.writeJson(new JsonEmitter(s, 4));
+        JSONObject json = r.toJson();
+
+        assertEquals(json.toString(), new JSONObject(s.toString()).toString());
+        assertEquals("Emitter \"Routine\"", json.getString("name"));
+        assertEquals(1, json.getJSONArray("exercises").getJSONObject(0).getJSONObject("log")
+                .getJSONArray("reps").length());
+    }
+}
@@ -0,0 +1,88 @@
+package persistence;
+
+import model.Equipment;
+import model.EventLog;
+import model.Exercise;
+import model.OverflowPolicy;
+import model.Routine;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Times reading a large routine file whole into a JSONObject against reading it a value at a time.
+ * Not a unit test: run main by hand, optionally giving the number of exercises and sets logged for each.
+ */
+public class JsonReaderBenchmark {
+    private static final int WARMUP_READS = 20;
+    private static final int TIMED_READS = 50;
+
+    public static void main(String[] args) throws IOException {
+        int exercises = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int setsEach = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+
+        File file = File.createTempFile("benchmark", ".json");
+        file.deleteOnExit();
+        write(file.getPath(), exercises, setsEach);
+        System.out.printf("%d exercises, %d sets each, %d KB%n", exercises, setsEach, file.length() / 1024);
+
+        EventLog.getInstance().setCapacity(1024, OverflowPolicy.DROP_OLDEST);
+        run("tree", file.getPath(), false);
+        run("streaming", file.getPath(), true);
+    }
+
+    /*
+    EFFECTS: writes a routine of the given size to path
+     */
+    private static void write(String path, int exercises, int setsEach) throws IOException {
+        Routine r = new Routine("Benchmark Routine");
+        for (int i = 0; i < exercises; i++) {
+            Exercise e = new Exercise("Exercise " + (i % 100), Equipment.values()[i % Equipment.values().length]);
+            r.addExercise(e, setsEach, 5);
+            for (int s = 0; s < setsEach; s++) {
+                e.getSetLog().add(5, 100 + s, 1_700_000_000_000L + s);
+            }
+        }
+        JsonWriter writer = new JsonWriter();
+        writer.setDestination(path);
+        writer.open();
+        writer.write(r);
+        writer.close();
+    }
+
+    /*
+    EFFECTS: reads path repeatedly in the given mode and prints the time and bytes allocated per read
+     */
+    private static void run(String label, String path, boolean streaming) throws IOException {
+        JsonReader reader = new JsonReader();
+        reader.setSource(path);
+        reader.setStreaming(streaming);
+        for (int i = 0; i < WARMUP_READS; i++) {
+            reader.read();
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_READS; i++) {
+            reader.read();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        System.out.printf("%-10s %8.2f ms/read %10d KB allocated/read%n", label,
+                elapsed / 1e6 / TIMED_READS, allocated < 0 ? -1 : allocated / 1024 / TIMED_READS);
+    }
+
+    /*
+    EFFECTS: returns the bytes allocated by this thread so far, or -1 if the JVM cannot tell
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
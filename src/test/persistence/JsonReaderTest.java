@@ -3,13 +3,18 @@ package persistence;
 import model.Equipment;
 import model.Exercise;
 import model.Routine;
+import model.SetLog;
+import org.json.JSONException;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class JsonReaderTest extends JsonTest{
     @Test
@@ -77,4 +82,151 @@ public class JsonReaderTest extends JsonTest{
             fail("Couldn't read from file");
         }
     }
+
+    @Test
+    void testStreamingMatchesTree() {
+        String[] sources = {"./data/testEmptyRoutine.json", "./data/testRoutineA.json", "./data/testRoutineB.json"};
+        try {
+            for (String source : sources) {
+                JsonReader tree = new JsonReader();
+                tree.setSource(source);
+                JsonReader streaming = new JsonReader();
+                streaming.setSource(source);
+                streaming.setStreaming(true);
+                assertTrue(streaming.isStreaming());
+
+                assertEquals(tree.read().toJson().toString(), streaming.read().toJson().toString());
+            }
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testStreamingSetLogAndEscapes() {
+        String path = "./data/testStreaming.json";
+        try {
+            Files.write(Paths.get(path), ("{\"extra\": [1, {\"a\": \"]}\"}, true, null, -2.5],"
+                    + "\"exercises\": [{\"log\": {\"times\": [10, 20], \"weights\": [135, 155],"
+                    + "\"reps\": [5, 3]}, \"equipment\": \"BARBELL\", \"name\": \"Sq\\u00fcat \\\"Low\\\"\","
+                    + "\"sets\": 2, \"reps\": 5, \"weight\": 155}],"
+                    + "\"name\": \"Caf\u00e9 Day\"}").getBytes(StandardCharsets.UTF_8));
+
+            JsonReader reader = new JsonReader();
+            reader.setSource(path);
+            reader.setStreaming(true);
+            Routine r = reader.read();
+
+            assertEquals("Caf\u00e9 Day", r.getName());
+            checkExercise("Sq\u00fcat \"Low\"", 2, 5, Equipment.BARBELL, r.getExercises().get(0));
+            SetLog log = r.getExercises().get(0).getSetLog();
+            assertEquals(2, log.size());
+            assertEquals(3, log.getReps(1));
+            assertEquals(155, log.getWeight(1));
+            assertEquals(20L, log.getTime(1));
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        } finally {
+            new File(path).delete();
+        }
+    }
+
+    @Test
+    void testStreamingMalformed() {
+        String path = "./data/testMalformed.json";
+        try {
+            Files.write(Paths.get(path), "{\"name\": \"Broken\", \"exercises\": [{\"sets\": 3".getBytes());
+
+            JsonReader reader = new JsonReader();
+            reader.setSource(path);
+            reader.setStreaming(true);
+            assertThrows(JSONException.class, reader::read);
+        } catch (IOException e) {
+            fail("Couldn't write file");
+        } finally {
+            new File(path).delete();
+        }
+    }
+
+    @Test
+    void testSetLogLengthsDiffer() {
+        assertBothModesThrow("{\"name\": \"R\", \"exercises\": [{\"name\": \"Squat\", \"equipment\": \"BARBELL\","
+                + "\"sets\": 2, \"reps\": 5, \"log\": {\"reps\": [5, 5], \"weights\": [135], \"times\": [1, 2]}}]}");
+        assertBothModesThrow("{\"name\": \"R\", \"exercises\": [{\"name\": \"Squat\", \"equipment\": \"BARBELL\","
+                + "\"sets\": 2, \"reps\": 5, \"log\": {\"reps\": [5], \"weights\": [135, 140], \"times\": [1, 2]}}]}");
+        assertBothModesThrow("{\"name\": \"R\", \"exercises\": [{\"name\": \"Squat\", \"equipment\": \"BARBELL\","
+                + "\"sets\": 2, \"reps\": 5, \"log\": {\"reps\": [5], \"times\": [1]}}]}");
+    }
+
+    @Test
+    void testMissingSetsOrReps() {
+        assertBothModesThrow("{\"name\": \"R\", \"exercises\": [{\"name\": \"Squat\", \"equipment\": \"BARBELL\","
+                + "\"reps\": 5}]}");
+        assertBothModesThrow("{\"name\": \"R\", \"exercises\": [{\"name\": \"Squat\", \"equipment\": \"BARBELL\","
+                + "\"sets\": 2}]}");
+        assertBothModesThrow("{\"name\": \"R\"}");
+    }
+
+    @Test
+    void testMissingCommas() {
+        assertBothModesThrow("{\"name\": \"R\" \"exercises\": []}");
+        assertBothModesThrow("{\"name\": \"R\", \"exercises\": [{\"name\": \"Squat\", \"equipment\": \"BARBELL\","
+                + "\"sets\": 2, \"reps\": 5, \"log\": {\"reps\": [5 5], \"weights\": [135, 140],"
+                + "\"times\": [1, 2]}}]}");
+        assertStreamingThrows("{\"extra\": {\"a\": 1 \"b\": 2}, \"name\": \"R\", \"exercises\": []}");
+    }
+
+    @Test
+    void testStreamingTrailingCommas() {
+        assertStreamingThrows("{\"name\": \"R\", \"exercises\": [],}");
+        assertStreamingThrows("{\"name\": \"R\", \"exercises\": [{\"name\": \"Squat\", \"equipment\": \"BARBELL\","
+                + "\"sets\": 2, \"reps\": 5},]}");
+        assertStreamingThrows("{\"extra\": [1, 2,], \"name\": \"R\", \"exercises\": []}");
+    }
+
+    @Test
+    void testStreamingNumberOutOfRange() throws IOException {
+        String log = "{\"name\": \"R\", \"exercises\": [{\"name\": \"Squat\", \"equipment\": \"BARBELL\","
+                + "\"sets\": 1, \"reps\": 5, \"log\": {\"reps\": [5], \"weights\": [135], \"times\": [%s]}}]}";
+        assertStreamingThrows(String.format(log, "9223372036854775808"));
+        assertStreamingThrows(String.format(log, "12345678901234567890"));
+        assertStreamingThrows(String.format(log, "-00000000000000000001"));
+
+        String path = "./data/testMaxTime.json";
+        try {
+            Files.write(Paths.get(path), String.format(log, Long.MAX_VALUE).getBytes(StandardCharsets.UTF_8));
+            JsonReader reader = new JsonReader();
+            reader.setSource(path);
+            reader.setStreaming(true);
+            assertEquals(Long.MAX_VALUE, reader.read().getExercises().get(0).getSetLog().getTime(0));
+        } finally {
+            new File(path).delete();
+        }
+    }
+
+    private void assertBothModesThrow(String json) {
+        assertThrowsReading(json, true);
+    }
+
+    private void assertStreamingThrows(String json) {
+        assertThrowsReading(json, false);
+    }
+
+    private void assertThrowsReading(String json, boolean inTreeMode) {
+        String path = "./data/testInvalid.json";
+        try {
+            Files.write(Paths.get(path), json.getBytes(StandardCharsets.UTF_8));
+            JsonReader reader = new JsonReader();
+            reader.setSource(path);
+            if (inTreeMode) {
+                assertThrows(JSONException.class, reader::read);
+            }
+            reader.setStreaming(true);
+            assertThrows(JSONException.class, reader::read);
+        } catch (IOException e) {
+            fail("Couldn't write file");
+        } finally {
+            new File(path).delete();
+        }
+    }
 }
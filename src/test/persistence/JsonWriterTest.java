@@ -3,13 +3,15 @@ package persistence;
 import model.Equipment;
 import model.Exercise;
 import model.Routine;
+import model.RoutineSnapshot;
+import model.SetLog;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class JsonWriterTest extends JsonTest{
     @Test
@@ -128,4 +130,184 @@ public class JsonWriterTest extends JsonTest{
             fail("Couldn't read from file");
         }
     }
+
+    @Test
+    void testWriterSetLog() {
+        String path = "./data/testSetLog.json";
+        try {
+            Routine r = new Routine("Set Log Routine");
+            Exercise squat = new Exercise("Squat", Equipment.BARBELL);
+            r.addExercise(squat, 2, 5);
+            r.beginSession();
+            r.addWeightToCurrent(45);
+            r.addSetToProgress(5);
+            r.addWeightToCurrent(70);
+            r.addSetToProgress(3);
+
+            JsonWriter writer = new JsonWriter();
+            writer.setDestination(path);
+            writer.open();
+            writer.write(r);
+            writer.close();
+
+            JsonReader reader = new JsonReader();
+            reader.setSource(path);
+            r = reader.read();
+
+            SetLog log = r.getExercises().get(0).getSetLog();
+            assertEquals(2, log.size());
+            assertEquals(5, log.getReps(0));
+            assertEquals(135, log.getWeight(0));
+            assertEquals(3, log.getReps(1));
+            assertEquals(185, log.getWeight(1));
+            assertEquals(squat.getSetLog().getTime(1), log.getTime(1));
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        } finally {
+            new File(path).delete();
+        }
+    }
+
+    @Test
+    void testWriterSnapshot() {
+        String path = "./data/testSnapshot.json";
+        try {
+            Routine r = new Routine("Snapshot Routine");
+            r.addExercise(new Exercise("Squat", Equipment.BARBELL), 2, 5);
+            RoutineSnapshot snapshot = r.snapshot();
+            r.addExercise(new Exercise("Curl", Equipment.DUMBBELL), 3, 10);
+
+            JsonWriter writer = new JsonWriter();
+            writer.setDestination(path);
+            writer.open();
+            writer.write(snapshot);
+            writer.close();
+
+            JsonReader reader = new JsonReader();
+            reader.setSource(path);
+            r = reader.read();
+
+            assertEquals("Snapshot Routine", r.getName());
+            assertEquals(1, r.getExercises().size());
+            assertEquals("Squat", r.getExercises().get(0).getName());
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        } finally {
+            new File(path).delete();
+        }
+    }
+
+    @Test
+    void testWriterAtomicUntilClosed() {
+        String path = "./data/testAtomic.json";
+        try {
+            Routine r = new Routine("Before");
+            JsonWriter writer = new JsonWriter();
+            assertTrue(writer.isAtomic());
+            writer.setDestination(path);
+            writer.open();
+            writer.write(r);
+            writer.close();
+
+            r.setName("After");
+            writer.open();
+            writer.write(r);
+            assertEquals("Before", readName(path));
+            writer.close();
+            assertEquals("After", readName(path));
+
+            File[] left = new File("./data/").listFiles((dir, name) -> name.startsWith("testAtomic.json."));
+            assertEquals(0, left.length);
+        } catch (IOException e) {
+            fail("Couldn't write file");
+        } finally {
+            new File(path).delete();
+        }
+    }
+
+    @Test
+    void testWriterInPlace() {
+        String path = "./data/testInPlace.json";
+        try {
+            JsonWriter writer = new JsonWriter();
+            writer.setAtomic(false);
+            writer.setDestination(path);
+            writer.open();
+            writer.write(new Routine("In Place"));
+            writer.close();
+            writer.close();
+
+            assertFalse(writer.isAtomic());
+            assertEquals("In Place", readName(path));
+        } catch (IOException e) {
+            fail("Couldn't write file");
+        } finally {
+            new File(path).delete();
+        }
+    }
+
+    @Test
+    void testWriterSkipsUnchanged() {
+        String path = "./data/testSkipUnchanged.json";
+        try {
+            Routine r = new Routine("Unchanged");
+            r.addExercise(new Exercise("Squat", Equipment.BARBELL), 3, 5);
+            JsonWriter writer = new JsonWriter();
+            assertTrue(writer.isSkippingUnchanged());
+            writer.setDestination(path);
+            write(writer, r);
+            assertFalse(writer.wasSkipped());
+            long modified = new File(path).lastModified();
+
+            write(writer, r);
+            assertTrue(writer.wasSkipped());
+
+            // a new version with the same content is dropped once hashed
+            r.setName("Unchanged");
+            write(writer, r);
+            assertTrue(writer.wasSkipped());
+            write(writer, r);
+            assertTrue(writer.wasSkipped());
+            assertEquals(modified, new File(path).lastModified());
+
+            r.setName("Changed");
+            write(writer, r);
+            assertFalse(writer.wasSkipped());
+            assertEquals("Changed", readName(path));
+
+            new File(path).delete();
+            write(writer, r);
+            assertFalse(writer.wasSkipped());
+            assertEquals("Changed", readName(path));
+
+            writer.setSkipUnchanged(false);
+            write(writer, r);
+            assertFalse(writer.wasSkipped());
+
+            File[] left = new File("./data/").listFiles((dir, name) -> name.startsWith("testSkipUnchanged.json."));
+            assertEquals(0, left.length);
+        } catch (IOException e) {
+            fail("Couldn't write file");
+        } finally {
+            new File(path).delete();
+        }
+    }
+
+    /*
+    EFFECTS: writes r with writer
+     */
+    private void write(JsonWriter writer, Routine r) throws IOException {
+        writer.open();
+        writer.write(r);
+        writer.close();
+    }
+
+    /*
+    EFFECTS: returns the name of the routine saved at path
+     */
+    private String readName(String path) throws IOException {
+        JsonReader reader = new JsonReader();
+        reader.setSource(path);
+        return reader.read().getName();
+    }
 }
@@ -0,0 +1,106 @@
+package persistence;
+
+import model.Equipment;
+import model.Routine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LibraryLoaderTest extends JsonTest {
+    private static final String DIRECTORY = "./data/testLibrary/";
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        new File(DIRECTORY).mkdirs();
+        for (int i = 0; i < 30; i++) {
+            Files.copy(Paths.get("./data/testRoutineA.json"), Paths.get(DIRECTORY + "routine" + i + ".json"));
+        }
+        Files.copy(Paths.get("./data/testRoutineB.json"), Paths.get(DIRECTORY + "routineB.json"));
+        write("broken.json", "{\"name\": \"Broken\", \"exercises\": [");
+        write("wrongType.json", "{\"name\": \"Wrong\", \"exercises\": [{\"name\": \"X\", \"equipment\": \"ROPE\"}]}");
+        write("notes.txt", "not a routine");
+    }
+
+    @AfterEach
+    void runAfter() {
+        File[] files = new File(DIRECTORY).listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        new File(DIRECTORY).delete();
+    }
+
+    @Test
+    void testLoadIsolatesFailures() {
+        try {
+            RoutineLibrary library = new LibraryLoader(DIRECTORY, 3).load();
+
+            assertEquals(31, library.size());
+            assertTrue(library.contains("routine0.json"));
+            assertFalse(library.contains("notes.txt"));
+            assertEquals(2, library.getFailures().size());
+            assertTrue(library.getFailures().containsKey("broken.json"));
+            assertTrue(library.getFailures().containsKey("wrongType.json"));
+
+            Routine b = library.take("routineB.json");
+            assertEquals("Test Routine B", b.getName());
+            checkExercise("Tricep Extension", 5, 10, Equipment.MACHINE, b.getExercises().get(4));
+            assertNull(library.take("routineB.json"));
+            assertEquals(30, library.size());
+        } catch (IOException e) {
+            fail("Couldn't list directory");
+        }
+    }
+
+    @Test
+    void testLoadInBackground() throws InterruptedException {
+        RoutineLibrary library = new LibraryLoader(DIRECTORY, 2).loadInBackground();
+        library.invalidate("routine0.json");
+        long end = System.currentTimeMillis() + 5000;
+        while (library.size() + library.getFailures().size() < 32 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(30, library.size());
+        assertFalse(library.contains("routine0.json"));
+        assertEquals("Test Routine B", library.take("routineB.json").getName());
+    }
+
+    @Test
+    void testLoadOneThread() {
+        try {
+            RoutineLibrary library = new LibraryLoader(DIRECTORY, 1).load();
+
+            assertEquals(31, library.size());
+            assertEquals("routine0.json", library.getFileNames().iterator().next());
+            library.invalidate("routine0.json");
+            library.invalidate("broken.json");
+            assertFalse(library.contains("routine0.json"));
+            assertEquals(1, library.getFailures().size());
+        } catch (IOException e) {
+            fail("Couldn't list directory");
+        }
+    }
+
+    @Test
+    void testLoadMissingDirectory() {
+        assertThrows(IOException.class, () -> new LibraryLoader("./data/noSuchDirectory/").load());
+    }
+
+    /*
+    EFFECTS: writes contents to fileName in the test directory
+     */
+    private void write(String fileName, String contents) throws IOException {
+        Files.write(Paths.get(DIRECTORY + fileName), contents.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,92 @@
+package persistence;
+
+import model.Equipment;
+import model.EventLog;
+import model.Exercise;
+import model.OverflowPolicy;
+import model.Routine;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compares the size of a large routine with a long set history in each file format, and how fast each is
+ * written and read. Not a unit test: run main by hand, optionally giving the number of exercises and sets
+ * logged for each.
+ */
+public class LiftFormatBenchmark {
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int TIMED_ROUNDS = 50;
+
+    public static void main(String[] args) throws IOException {
+        int exercises = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int setsEach = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        EventLog.getInstance().setCapacity(1024, OverflowPolicy.DROP_OLDEST);
+
+        Routine r = build(exercises, setsEach);
+        File json = File.createTempFile("benchmark", ".json");
+        File lift = File.createTempFile("benchmark", LiftFormat.EXTENSION);
+        json.deleteOnExit();
+        lift.deleteOnExit();
+
+        System.out.printf("%d exercises, %d sets each%n", exercises, setsEach);
+        run("json", r, json.getPath(), false);
+        run("json (streaming read)", r, json.getPath(), true);
+        run("lift", r, lift.getPath(), false);
+    }
+
+    /*
+    EFFECTS: returns a routine of the given size with every set logged
+     */
+    private static Routine build(int exercises, int setsEach) {
+        Routine r = new Routine("Benchmark Routine");
+        for (int i = 0; i < exercises; i++) {
+            Exercise e = new Exercise("Exercise " + (i % 100), Equipment.values()[i % Equipment.values().length]);
+            r.addExercise(e, setsEach, 5);
+            for (int s = 0; s < setsEach; s++) {
+                e.getSetLog().add(5, 100 + s, 1_700_000_000_000L + 90_000L * s);
+            }
+        }
+        return r;
+    }
+
+    /*
+    EFFECTS: writes and reads r at path repeatedly and prints the file size and time per write and read
+     */
+    private static void run(String label, Routine r, String path, boolean streaming) throws IOException {
+        JsonWriter writer = new JsonWriter();
+        // every round writes the same routine, which would otherwise be skipped after the first
+        writer.setSkipUnchanged(false);
+        writer.setDestination(path);
+        JsonReader reader = new JsonReader();
+        reader.setSource(path);
+        reader.setStreaming(streaming);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            write(writer, r);
+            reader.read();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_ROUNDS; i++) {
+            write(writer, r);
+        }
+        long writing = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < TIMED_ROUNDS; i++) {
+            reader.read();
+        }
+        long reading = System.nanoTime() - start;
+
+        System.out.printf("%-22s %8d KB %8.2f ms/write %8.2f ms/read%n", label, new File(path).length() / 1024,
+                writing / 1e6 / TIMED_ROUNDS, reading / 1e6 / TIMED_ROUNDS);
+    }
+
+    /*
+    EFFECTS: writes r with writer
+     */
+    private static void write(JsonWriter writer, Routine r) throws IOException {
+        writer.open();
+        writer.write(r);
+        writer.close();
+    }
+}
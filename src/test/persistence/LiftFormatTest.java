@@ -0,0 +1,132 @@
+package persistence;
+
+import model.Equipment;
+import model.Exercise;
+import model.Routine;
+import model.SetLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LiftFormatTest extends JsonTest {
+    private static final String LIFT_PATH = "./data/testLiftFormat.lift";
+    private static final String JSON_PATH = "./data/testLiftFormat.json";
+
+    private Routine routine;
+
+    @BeforeEach
+    void runBefore() {
+        routine = new Routine("Lift R\u00f6utine");
+        Exercise squat = new Exercise("Squat", Equipment.BARBELL);
+        Exercise curl = new Exercise("Curl", Equipment.DUMBBELL);
+        routine.addExercise(squat, 3, 5);
+        routine.addExercise(curl, 2, 12);
+        routine.addExercise(squat, 3, 5);
+        routine.beginSession();
+        routine.addWeightToCurrent(70);
+        routine.addSetToProgress(5);
+        routine.addWeightToCurrent(45);
+        routine.addSetToProgress(4);
+    }
+
+    @AfterEach
+    void runAfter() {
+        new File(LIFT_PATH).delete();
+        new File(JSON_PATH).delete();
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        write(LIFT_PATH);
+        Routine r = read(LIFT_PATH);
+
+        assertEquals("Lift R\u00f6utine", r.getName());
+        assertEquals(3, r.getExercises().size());
+        checkExercise("Squat", 3, 5, Equipment.BARBELL, r.getExercises().get(0));
+        checkExercise("Curl", 2, 12, Equipment.DUMBBELL, r.getExercises().get(1));
+        assertNotSame(r.getExercises().get(0), r.getExercises().get(2));
+        assertSame(r.getExercises().get(0).getDefinition(), r.getExercises().get(2).getDefinition());
+
+        Exercise squat = r.getExercises().get(0);
+        assertEquals(135, squat.getWeight());
+        assertEquals(2, r.getProgress(0));
+        assertEquals(0, r.getProgress(2));
+        assertFalse(r.getInSession());
+        SetLog log = squat.getSetLog();
+        SetLog original = routine.getExercises().get(0).getSetLog();
+        assertEquals(2, log.size());
+        assertEquals(185, log.getWeight(0));
+        assertEquals(135, log.getWeight(1));
+        assertEquals(4, log.getReps(1));
+        assertEquals(original.getTime(0), log.getTime(0));
+        assertEquals(original.getTime(1), log.getTime(1));
+    }
+
+    @Test
+    void testDetectedWhateverItsName() throws IOException {
+        write(LIFT_PATH);
+        Files.copy(Paths.get(LIFT_PATH), Paths.get(JSON_PATH));
+
+        assertEquals(3, read(JSON_PATH).getExercises().size());
+    }
+
+    @Test
+    void testWrittenBackInSameFormat() {
+        assertEquals(".lift", JsonWriter.extensionOf("routine.lift"));
+        assertEquals(JsonWriter.JSON_EXTENSION, JsonWriter.extensionOf("routine.json"));
+        assertEquals(JsonWriter.JSON_EXTENSION, JsonWriter.extensionOf("lift"));
+    }
+
+    @Test
+    void testSmallerThanJson() throws IOException {
+        write(LIFT_PATH);
+        write(JSON_PATH);
+
+        assertTrue(new File(LIFT_PATH).length() * 4 < new File(JSON_PATH).length());
+        assertEquals(read(JSON_PATH).getName(), read(LIFT_PATH).getName());
+    }
+
+    @Test
+    void testCorruptFiles() throws IOException {
+        write(LIFT_PATH);
+        byte[] data = Files.readAllBytes(Paths.get(LIFT_PATH));
+
+        Files.write(Paths.get(LIFT_PATH), Arrays.copyOf(data, data.length - 3));
+        assertThrows(IOException.class, () -> read(LIFT_PATH));
+
+        data[4] = 99;
+        Files.write(Paths.get(LIFT_PATH), data);
+        assertThrows(IOException.class, () -> read(LIFT_PATH));
+
+        Files.write(Paths.get(LIFT_PATH), new byte[]{'L', 'I', 'F', 'T', 1, (byte) 0xFF, (byte) 0xFF, 0x7F});
+        assertThrows(IOException.class, () -> read(LIFT_PATH));
+    }
+
+    /*
+    EFFECTS: writes routine to path
+     */
+    private void write(String path) throws IOException {
+        JsonWriter writer = new JsonWriter();
+        writer.setDestination(path);
+        writer.open();
+        writer.write(routine);
+        writer.close();
+    }
+
+    /*
+    EFFECTS: reads the routine at path
+     */
+    private Routine read(String path) throws IOException {
+        JsonReader reader = new JsonReader();
+        reader.setSource(path);
+        return reader.read();
+    }
+}
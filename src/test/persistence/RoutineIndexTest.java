@@ -0,0 +1,147 @@
+package persistence;
+
+import model.Equipment;
+import model.Exercise;
+import model.Routine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoutineIndexTest extends JsonTest {
+    private static final String DIRECTORY = "./data/testIndex/";
+    private static final Path INDEX_FILE = Paths.get(DIRECTORY, RoutineIndex.FILE_NAME);
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        new File(DIRECTORY).mkdirs();
+        Files.copy(Paths.get("./data/testRoutineA.json"), Paths.get(DIRECTORY + "routineA.json"));
+        Files.copy(Paths.get("./data/testRoutineB.json"), Paths.get(DIRECTORY + "routineB.json"));
+        Files.write(Paths.get(DIRECTORY + "broken.json"), "{\"name\": ".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void runAfter() {
+        File[] files = new File(DIRECTORY).listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        new File(DIRECTORY).delete();
+    }
+
+    @Test
+    void testLoadBuildsIndex() throws IOException {
+        RoutineIndex index = RoutineIndex.load(DIRECTORY);
+        assertEquals(Arrays.asList("routineA.json", "routineB.json"), index.getFileNames());
+        assertTrue(Files.exists(INDEX_FILE));
+
+        RoutineIndex.Entry a = index.get("routineA.json");
+        assertEquals("Test Routine A", a.getName());
+        assertEquals(4, a.getExerciseCount());
+        assertEquals(14, a.getPlannedSets());
+        assertEquals(3, a.getEquipmentCount(Equipment.BARBELL));
+        assertEquals(1, a.getEquipmentCount(Equipment.DUMBBELL));
+        assertEquals(0, a.getEquipmentCount(Equipment.MACHINE));
+        assertEquals(new File(DIRECTORY + "routineA.json").length(), a.getSize());
+        assertEquals(64, a.getChecksum().length());
+        assertEquals("Test Routine A: 4 exercises, 14 sets (3 barbell, 1 dumbbell)", a.describe());
+        assertNull(index.get("broken.json"));
+    }
+
+    @Test
+    void testLoadTrustsUnchangedFiles() throws IOException {
+        RoutineIndex.load(DIRECTORY);
+        String saved = new String(Files.readAllBytes(INDEX_FILE), StandardCharsets.UTF_8);
+        Files.write(INDEX_FILE, saved.replace("Test Routine A", "From Index").getBytes(StandardCharsets.UTF_8));
+
+        // the routine file has not changed, so only the index is read
+        RoutineIndex index = RoutineIndex.load(DIRECTORY);
+        assertEquals("From Index", index.get("routineA.json").getName());
+
+        File a = new File(DIRECTORY + "routineA.json");
+        assertTrue(a.setLastModified(a.lastModified() - 10000));
+        index = RoutineIndex.load(DIRECTORY);
+        assertEquals("Test Routine A", index.get("routineA.json").getName());
+    }
+
+    @Test
+    void testLoadDropsMissingAndBadLines() throws IOException {
+        RoutineIndex.load(DIRECTORY);
+        new File(DIRECTORY + "routineB.json").delete();
+        Files.write(INDEX_FILE, "garbage\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        RoutineIndex index = RoutineIndex.load(DIRECTORY);
+        assertEquals(Arrays.asList("routineA.json"), index.getFileNames());
+        assertEquals(1, RoutineIndex.load(DIRECTORY).size());
+        assertFalse(new String(Files.readAllBytes(INDEX_FILE), StandardCharsets.UTF_8).contains("garbage"));
+    }
+
+    @Test
+    void testWriterUpdatesIndex() throws IOException {
+        RoutineIndex index = RoutineIndex.load(DIRECTORY);
+        Routine r = new Routine("Tab\tand \\ Name");
+        r.addExercise(new Exercise("Row", Equipment.MACHINE), 4, 8);
+
+        JsonWriter writer = new JsonWriter();
+        writer.setIndex(index);
+        assertSame(index, writer.getIndex());
+        writer.setDestination(DIRECTORY + "new.json");
+        writer.open();
+        writer.write(r);
+        writer.close();
+
+        RoutineIndex.Entry entry = index.get("new.json");
+        assertEquals("Tab\tand \\ Name", entry.getName());
+        assertEquals(4, entry.getPlannedSets());
+        assertEquals(1, entry.getEquipmentCount(Equipment.MACHINE));
+
+        RoutineIndex reloaded = RoutineIndex.load(DIRECTORY);
+        RoutineIndex.Entry read = reloaded.get("new.json");
+        assertEquals(entry.getName(), read.getName());
+        assertEquals(entry.getChecksum(), read.getChecksum());
+        assertEquals(entry.getModified(), read.getModified());
+    }
+
+    @Test
+    void testUpdatesAppendedThenCompacted() throws IOException {
+        RoutineIndex index = RoutineIndex.load(DIRECTORY);
+        int lines = Files.readAllLines(INDEX_FILE).size();
+        Routine r = new Routine("Appended");
+        r.addExercise(new Exercise("Row", Equipment.MACHINE), 4, 8);
+
+        JsonWriter writer = new JsonWriter();
+        writer.setIndex(index);
+        writer.setDestination(DIRECTORY + "new.json");
+        for (int sets = 4; sets <= 5; sets++) {
+            r.getExercises().get(0).setSets(sets);
+            writer.open();
+            writer.write(r);
+            writer.close();
+        }
+        assertEquals(lines + 2, Files.readAllLines(INDEX_FILE).size());
+
+        RoutineIndex reloaded = RoutineIndex.load(DIRECTORY);
+        assertEquals(5, reloaded.get("new.json").getPlannedSets());
+        assertEquals(lines + 1, Files.readAllLines(INDEX_FILE).size());
+    }
+
+    @Test
+    void testUpdateOutsideDirectoryIgnored() throws IOException {
+        RoutineIndex index = RoutineIndex.load(DIRECTORY);
+        index.update(Paths.get("./data/testRoutineA.json"), new Routine().snapshot(), new byte[32]);
+        index.update(Paths.get(DIRECTORY + "notes.txt"), new Routine().snapshot(), new byte[32]);
+        assertEquals(2, index.size());
+    }
+}
@@ -0,0 +1,240 @@
+package persistence;
+
+import model.Equipment;
+import model.EventLog;
+import model.Exercise;
+import model.Routine;
+import model.SetLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionRecorderTest {
+    private static final String PATH = "./data/testSession/current";
+    private Routine routine;
+    private SessionRecorder recorder;
+
+    @BeforeEach
+    void runBefore() {
+        routine = new Routine("Leg Day");
+        routine.addExercise(new Exercise("Squat", Equipment.BARBELL), 3, 5);
+        routine.addExercise(new Exercise("Leg Press", Equipment.MACHINE), 2, 10);
+        routine.addExercise(new Exercise("Lunge", Equipment.DUMBBELL), 2, 8);
+    }
+
+    @AfterEach
+    void runAfter() {
+        if (recorder != null) {
+            EventLog.getInstance().removeSink(recorder);
+        }
+        File dir = new File(PATH).getParentFile();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    void testRecoverNothingRecorded() throws IOException {
+        assertNull(SessionRecorder.recover(PATH));
+    }
+
+    @Test
+    void testRecoverBeforeSession() throws IOException {
+        record(4);
+
+        Routine recovered = SessionRecorder.recover(PATH);
+        assertEquals("Leg Day", recovered.getName());
+        assertEquals(3, recovered.getExercises().size());
+        assertEquals(10, recovered.getExercises().get(1).getReps());
+        assertFalse(recovered.getInSession());
+        assertNull(recovered.getCurrent());
+    }
+
+    @Test
+    void testRecoverMidSession() throws IOException {
+        record(100);
+        routine.beginSession();
+        routine.addWeightToCurrent(45);
+        routine.addSetToProgress();
+        routine.addSetToProgress();
+        routine.addSetToProgress();
+        routine.addWeightToCurrent(200);
+        routine.addSetToProgress();
+
+        assertRecovered();
+        assertEquals(7, countLines(".events"));
+    }
+
+    @Test
+    void testRecoverAfterSnapshots() throws IOException {
+        record(2);
+        routine.beginSession();
+        routine.addWeightToCurrent(45);
+        routine.addSetToProgress();
+        routine.addSetToProgress();
+        routine.addSetToProgress();
+        routine.skipExercise();
+        routine.addWeightToCurrent(30);
+        routine.addSetToProgress();
+
+        assertTrue(countLines(".events") <= 3);
+        assertRecovered();
+    }
+
+    @Test
+    void testRecoverAfterMovingBetweenExercises() throws IOException {
+        record(3);
+        routine.beginSession();
+        routine.addSetToProgress();
+        routine.jumpToExercise(2);
+        routine.addSetToProgress();
+        routine.previousExercise();
+        routine.addSetToProgress();
+        routine.previousExercise();
+
+        assertRecovered();
+        assertEquals(1, routine.getProgress());
+    }
+
+    @Test
+    void testRecoverEndedSession() throws IOException {
+        record(3);
+        routine.beginSession();
+        routine.skipExercise();
+        routine.skipExercise();
+        routine.addSetToProgress();
+        routine.addSetToProgress();
+        assertFalse(routine.getInSession());
+
+        Routine recovered = SessionRecorder.recover(PATH);
+        assertFalse(recovered.getInSession());
+        assertNull(recovered.getCurrent());
+        assertEquals(2, recovered.getProgress(2));
+        assertEquals(routine.hasMetAllGoals(), recovered.hasMetAllGoals());
+    }
+
+    @Test
+    void testRecoverAfterPlanEditedMidSession() throws IOException {
+        record(100);
+        routine.beginSession();
+        routine.addSetToProgress();
+        routine.addExercise(new Exercise("Calf Raise", Equipment.MACHINE), 4, 15);
+        routine.removeExercise(0);
+        routine.getExercises().get(0).setSets(3);
+        routine.addSetToProgress();
+        routine.jumpToExercise(2);
+        routine.addSetToProgress();
+
+        assertEquals(3, countLines(".events"));
+        assertRecovered();
+        assertEquals(4, SessionRecorder.recover(PATH).getExercises().get(2).getSets());
+    }
+
+    @Test
+    void testRecoverAfterBatchEdit() throws IOException {
+        record(100);
+        routine.beginSession();
+        routine.addSetToProgress();
+        routine.batch().move(0, 2).remove(0).apply();
+        routine.addSetToProgress();
+
+        assertRecovered();
+    }
+
+    @Test
+    void testIgnoresOtherRoutines() throws IOException {
+        record(100);
+        Routine other = new Routine("Arm Day");
+        other.addExercise(new Exercise("Curl", Equipment.DUMBBELL), 3, 12);
+        other.beginSession();
+        other.addSetToProgress();
+
+        assertEquals(0, countLines(".events"));
+    }
+
+    @Test
+    void testIgnoresRoutineWithSameName() throws IOException {
+        record(100);
+        Routine other = new Routine("Leg Day");
+        other.addExercise(new Exercise("Squat", Equipment.BARBELL), 3, 5);
+        other.beginSession();
+        other.addWeightToCurrent(100);
+        other.addSetToProgress();
+
+        assertEquals(0, countLines(".events"));
+    }
+
+    @Test
+    void testRecoverKeepsSetTimes() throws Exception {
+        record(100);
+        routine.beginSession();
+        routine.addWeightToCurrent(135);
+        routine.addSetToProgress(4);
+        Thread.sleep(20);
+        routine.addWeightToCurrent(10);
+        routine.addSetToProgress(3);
+        Thread.sleep(20);
+
+        assertRecovered();
+        SetLog recovered = SessionRecorder.recover(PATH).getExercises().get(0).getSetLog();
+        assertNotEquals(recovered.getWeight(0), recovered.getWeight(1));
+        assertEquals(3, recovered.getReps(1));
+        assertTrue(recovered.getTime(1) < System.currentTimeMillis() - 10);
+    }
+
+    @Test
+    void testCloseDeletesRecording() throws IOException {
+        record(100);
+        routine.beginSession();
+        recorder.close();
+
+        assertNull(SessionRecorder.recover(PATH));
+    }
+
+    private void record(int snapshotInterval) {
+        recorder = new SessionRecorder(routine, PATH, snapshotInterval);
+        EventLog.getInstance().addSink(recorder);
+    }
+
+    private void assertRecovered() throws IOException {
+        EventLog.getInstance().removeSink(recorder);
+        Routine recovered = SessionRecorder.recover(PATH);
+
+        assertEquals(routine.getInSession(), recovered.getInSession());
+        assertEquals(routine.getProgress(), recovered.getProgress());
+        assertEquals(routine.getCurrentIndex(), recovered.getCurrentIndex());
+        for (int i = 0; i < routine.getExercises().size(); i++) {
+            Exercise expected = routine.getExercises().get(i);
+            Exercise actual = recovered.getExercises().get(i);
+            assertEquals(expected.getWeight(), actual.getWeight());
+            assertEquals(routine.getProgress(i), recovered.getProgress(i));
+            assertSetLogsEqual(expected.getSetLog(), actual.getSetLog());
+        }
+        assertEquals(routine.viewWorkout(), recovered.viewWorkout());
+    }
+
+    private void assertSetLogsEqual(SetLog expected, SetLog actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getReps(i), actual.getReps(i));
+            assertEquals(expected.getWeight(i), actual.getWeight(i));
+            assertEquals(expected.getTime(i), actual.getTime(i));
+        }
+    }
+
+    private int countLines(String suffix) throws IOException {
+        File f = new File(PATH + suffix);
+        return f.exists() ? Files.readAllLines(f.toPath(), StandardCharsets.UTF_8).size() : 0;
+    }
+}